@@ -0,0 +1,76 @@
+package capston.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import capston.BetweennessSampling;
+import capston.CsrGraph;
+import capston.Edge;
+import capston.EdgeBetweenness;
+import capston.Graph;
+import capston.GraphLoader;
+
+/**
+ * Max betweenness edge of the whole graph (all the roots of Brandes' algorithm, or sampled
+ * shortest paths with epsilon 0.01), the threads and the synthetic graph sizes give the scaling curves
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BetweennessBenchmark
+{
+	@Param({"facebook_1000", "facebook_2000", "ba-1000-5", "ba-2000-5", "ba-4000-5"})
+	public String graph;
+
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private Graph network;
+	private CsrGraph csrGraph;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		String edgeListFile = GraphSources.getEdgeListFile(graph);
+		network = new Graph();
+		GraphLoader.loadGraph(network, edgeListFile);
+		csrGraph = GraphLoader.loadCsrGraph(edgeListFile).toUndirected();
+	}
+
+	//includes the copy of the Graph into a CsrGraph
+	@Benchmark
+	public List<Edge> getMaxBetweennessEdge()
+	{
+		return network.getMaxBetweennessEdge(threads);
+	}
+
+	@Benchmark
+	public EdgeBetweenness computeCsr()
+	{
+		EdgeBetweenness betweenness = new EdgeBetweenness(csrGraph, threads);
+		betweenness.compute();
+		return betweenness;
+	}
+
+	@Benchmark
+	public List<Edge> getMaxBetweennessEdgeSampled()
+	{
+		return new EdgeBetweenness(csrGraph, threads, new BetweennessSampling(0.01)).getMaxBetweennessEdge();
+	}
+}
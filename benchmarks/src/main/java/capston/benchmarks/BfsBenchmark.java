@@ -0,0 +1,140 @@
+package capston.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import capston.CsrGraph;
+import capston.Graph;
+import capston.GraphLoader;
+import capston.ShortestPaths;
+
+/**
+ * Point to point shortest paths (Graph.bfs) between random pairs of connected users,
+ * the synthetic graphs of growing size give the scaling curve. Graph.bfs copies the graph on every
+ * query, engineDistance queries one ShortestPaths engine kept from the setup and batchDistances
+ * answers all the pairs at once (ShortestPaths.getDistances) on the given number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BfsBenchmark
+{
+	private static final int NUM_PAIRS = 256;
+
+	@Param({"facebook_1000", "facebook_2000", "twitter_higgs", "er-1000-10", "er-10000-10", "er-100000-10"})
+	public String graph;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private Graph network;
+	private ShortestPaths shortestPaths;
+	private int[] starts;
+	private int[] goals;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		String edgeListFile = GraphSources.getEdgeListFile(graph);
+		network = new Graph();
+		GraphLoader.loadGraph(network, edgeListFile);
+		shortestPaths = network.getShortestPaths();
+
+		//pairs of users of the same connected component, so every query finds a path
+		CsrGraph csr = GraphLoader.loadCsrGraph(edgeListFile).toUndirected();
+		int n = csr.getNumVertices();
+		int[] component = new int[n];
+		int[] queue = new int[n];
+		Arrays.fill(component, -1);
+		int largest = -1;
+		int largestSize = 0;
+		for(int s = 0; s < n; s++)
+		{
+			if(component[s] != -1) continue;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = s;
+			component[s] = s;
+			while(head < tail)
+			{
+				int v = queue[head++];
+				for(int i = 0; i < csr.getDegree(v); i++)
+				{
+					int w = csr.getNeighbor(v, i);
+					if(component[w] == -1)
+					{
+						component[w] = s;
+						queue[tail++] = w;
+					}
+				}
+			}
+			if(tail > largestSize)
+			{
+				largest = s;
+				largestSize = tail;
+			}
+		}
+
+		int[] members = new int[largestSize];
+		int count = 0;
+		for(int v = 0; v < n; v++)
+		{
+			if(component[v] == largest) members[count++] = csr.getVertexId(v);
+		}
+		Random random = new Random(7);
+		starts = new int[NUM_PAIRS];
+		goals = new int[NUM_PAIRS];
+		for(int i = 0; i < NUM_PAIRS; i++)
+		{
+			starts[i] = members[random.nextInt(count)];
+			goals[i] = members[random.nextInt(count)];
+		}
+	}
+
+	@Benchmark
+	public Object bfs()
+	{
+		int i = next++ & (NUM_PAIRS - 1);
+		return network.bfs(starts[i], goals[i]);
+	}
+
+	@Benchmark
+	public int distanceBetweenTwoNodes()
+	{
+		int i = next++ & (NUM_PAIRS - 1);
+		return network.distanceBetweenTwoNodes(starts[i], goals[i]);
+	}
+
+	@Benchmark
+	public int engineDistance()
+	{
+		int i = next++ & (NUM_PAIRS - 1);
+		return shortestPaths.getDistance(starts[i], goals[i]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_PAIRS)
+	public int[] batchDistances()
+	{
+		return shortestPaths.getDistances(starts, goals, threads);
+	}
+}
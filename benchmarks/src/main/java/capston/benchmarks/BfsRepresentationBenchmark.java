@@ -0,0 +1,55 @@
+package capston.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import capston.Graph;
+import capston.GraphLoader;
+
+/**
+ * BFS representation (shortest path DAG) of the graph from one root, Graph.getbfsRepresentation,
+ * the roots go round all the users
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BfsRepresentationBenchmark
+{
+	@Param({"main_test2", "facebook_1000", "er-500-6", "er-1000-6"})
+	public String graph;
+
+	private Graph network;
+	private List<Integer> roots;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		network = new Graph();
+		GraphLoader.loadGraph(network, GraphSources.getEdgeListFile(graph));
+		roots = network.getVerticesList();
+	}
+
+	@Benchmark
+	public Graph getbfsRepresentation()
+	{
+		int root = roots.get(next++ % roots.size());
+		return network.getbfsRepresentation(root);
+	}
+}
@@ -0,0 +1,60 @@
+package capston.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import capston.CommunityDetection;
+import capston.CsrGraph;
+import capston.GraphLoader;
+
+/**
+ * Girvan-Newman community detection end to end (the detection removes edges, so every run
+ * starts again from the immutable CSR graph), full recompute and incremental betweenness.
+ * One run takes seconds on the bigger graphs, so every iteration is a single run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CommunityDetectionBenchmark
+{
+	@Param({"main_test2", "ba-300-2", "ba-600-2", "facebook_1000"})
+	public String graph;
+
+	@Param({"3"})
+	public int minVertices;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	@Param({"false", "true"})
+	public boolean incremental;
+
+	private CsrGraph csrGraph;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		csrGraph = GraphLoader.loadCsrGraph(GraphSources.getEdgeListFile(graph));
+	}
+
+	@Benchmark
+	public int detectCommunities()
+	{
+		return new CommunityDetection(csrGraph, minVertices, threads, incremental).getSizeOfSubCommunites();
+	}
+}
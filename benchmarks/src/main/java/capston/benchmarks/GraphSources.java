@@ -0,0 +1,107 @@
+package capston.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * This class resolve the graph parameter of the benchmarks to an edge list file
+ *
+ * 	facebook_1000		data/facebook_1000.txt (any file of the data directory without .txt)
+ * 	er-N-D				Erdos-Renyi random graph, N users and on average D friends per user
+ * 	ba-N-M				Barabasi-Albert (preferential attachment) graph, N users and every new user
+ * 						makes M friends, so the degrees follow a power law like a real social network
+ *
+ * The synthetic graphs are generated with a fixed seed and written once (both directions of each
+ * friendship, like the data files) to the system temp directory. The data directory is the
+ * "data.dir" system property, or data / ../data relative to the working directory.
+ */
+public final class GraphSources
+{
+	private static final long SEED = 42L;
+
+	private GraphSources()
+	{
+	}
+
+	public static String getEdgeListFile(String graph) throws IOException
+	{
+		if(graph.startsWith("er-") || graph.startsWith("ba-"))
+			return generate(graph);
+
+		File file = new File(getDataDirectory(), graph + ".txt");
+		if(!file.exists()) throw new IllegalArgumentException("No such graph: " + file);
+		return file.getPath();
+	}
+
+	private static File getDataDirectory()
+	{
+		String property = System.getProperty("data.dir");
+		if(property != null) return new File(property);
+
+		File data = new File("data");
+		return data.isDirectory() ? data : new File("../data");
+	}
+
+	//helper method to write the synthetic graph, an existing file is reused
+	private static String generate(String graph) throws IOException
+	{
+		String[] parts = graph.split("-");
+		if(parts.length != 3) throw new IllegalArgumentException("Expected er-N-D or ba-N-M: " + graph);
+		int n = Integer.parseInt(parts[1]);
+		int d = Integer.parseInt(parts[2]);
+
+		File file = new File(System.getProperty("java.io.tmpdir"), "capston-" + graph + ".txt");
+		if(file.exists()) return file.getPath();
+
+		File temp = new File(file.getPath() + ".tmp");
+		try(BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.US_ASCII))
+		{
+			if(parts[0].equals("er")) writeErdosRenyi(writer, n, d);
+			else writeBarabasiAlbert(writer, n, d);
+		}
+		if(!temp.renameTo(file) && !file.exists()) throw new IOException("Could not write " + file);
+		return file.getPath();
+	}
+
+	//n * d / 2 friendships between uniformly random users
+	private static void writeErdosRenyi(BufferedWriter writer, int n, int averageDegree) throws IOException
+	{
+		Random random = new Random(SEED);
+		long numEdges = (long) n * averageDegree / 2;
+		for(long e = 0; e < numEdges; e++)
+		{
+			int v = random.nextInt(n);
+			int w = random.nextInt(n);
+			if(v != w) writeFriendship(writer, v, w);
+		}
+	}
+
+	//every new user befriends m users picked proportionally to their degree (from the list of edge ends)
+	private static void writeBarabasiAlbert(BufferedWriter writer, int n, int m) throws IOException
+	{
+		Random random = new Random(SEED);
+		int[] ends = new int[2 * n * m];
+		int numEnds = 0;
+		for(int v = 1; v < n; v++)
+		{
+			for(int k = 0; k < Math.min(m, v); k++)
+			{
+				int w = numEnds == 0 ? 0 : ends[random.nextInt(numEnds)];
+				if(w == v) continue;
+				writeFriendship(writer, v, w);
+				ends[numEnds++] = v;
+				ends[numEnds++] = w;
+			}
+		}
+	}
+
+	private static void writeFriendship(BufferedWriter writer, int v, int w) throws IOException
+	{
+		writer.write(v + " " + w + "\n");
+		writer.write(w + " " + v + "\n");
+	}
+}
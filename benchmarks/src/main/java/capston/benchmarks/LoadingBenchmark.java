@@ -0,0 +1,77 @@
+package capston.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import capston.CsrGraph;
+import capston.Graph;
+import capston.GraphLoader;
+import capston.GraphSnapshot;
+import capston.MappedCsrGraph;
+
+/**
+ * Loading an edge list into a Graph and a CsrGraph, and opening the binary snapshot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadingBenchmark
+{
+	@Param({"facebook_1000", "facebook_2000", "twitter_higgs", "ba-100000-5"})
+	public String graph;
+
+	private String edgeListFile;
+	private File snapshotFile;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		edgeListFile = GraphSources.getEdgeListFile(graph);
+		snapshotFile = File.createTempFile("capston-" + graph, GraphSnapshot.EXTENSION);
+		snapshotFile.deleteOnExit();
+		GraphSnapshot.write(GraphLoader.loadCsrGraph(edgeListFile), snapshotFile.getPath());
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		snapshotFile.delete();
+	}
+
+	@Benchmark
+	public Graph loadGraph()
+	{
+		Graph network = new Graph();
+		GraphLoader.loadGraph(network, edgeListFile);
+		return network;
+	}
+
+	@Benchmark
+	public CsrGraph loadCsrGraph()
+	{
+		return GraphLoader.loadCsrGraph(edgeListFile);
+	}
+
+	@Benchmark
+	public MappedCsrGraph openSnapshot() throws IOException
+	{
+		return GraphSnapshot.open(snapshotFile.getPath());
+	}
+}
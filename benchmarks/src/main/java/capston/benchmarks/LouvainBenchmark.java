@@ -0,0 +1,56 @@
+package capston.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import capston.CsrGraph;
+import capston.GraphLoader;
+import capston.LouvainCommunityDetection;
+
+/**
+ * Louvain community detection end to end (all the levels and the minVertices merge),
+ * the threads split the local moving
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LouvainBenchmark
+{
+	@Param({"facebook_2000", "twitter_higgs", "ba-100000-5"})
+	public String graph;
+
+	@Param({"3"})
+	public int minVertices;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private CsrGraph csrGraph;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		csrGraph = GraphLoader.loadCsrGraph(GraphSources.getEdgeListFile(graph));
+	}
+
+	@Benchmark
+	public double detectCommunities()
+	{
+		return new LouvainCommunityDetection(csrGraph, minVertices, threads).getModularity();
+	}
+}
@@ -0,0 +1,62 @@
+package capston.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import capston.CsrGraph;
+import capston.FindingMinNumUserToReachAPost;
+import capston.Graph;
+import capston.GraphLoader;
+
+/**
+ * Greedy minimum number of users to reach a post, from a Graph (includes the copy to the
+ * primitive adjacency) and from a CsrGraph
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MinUsersBenchmark
+{
+	@Param({"facebook_2000", "twitter_higgs", "ba-10000-5", "ba-100000-5", "ba-1000000-5"})
+	public String graph;
+
+	private Graph network;
+	private CsrGraph csrGraph;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		String edgeListFile = GraphSources.getEdgeListFile(graph);
+		network = new Graph();
+		GraphLoader.loadGraph(network, edgeListFile);
+		csrGraph = GraphLoader.loadCsrGraph(edgeListFile);
+	}
+
+	@Benchmark
+	public List<Integer> fromGraph()
+	{
+		return FindingMinNumUserToReachAPost.findMinNumOfUserToReachAMessage(network);
+	}
+
+	@Benchmark
+	public List<Integer> fromCsrGraph()
+	{
+		return FindingMinNumUserToReachAPost.findMinNumOfUserToReachAMessage(csrGraph);
+	}
+}
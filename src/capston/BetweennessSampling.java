@@ -0,0 +1,97 @@
+package capston;
+
+/**
+ * This class hold the settings of the approximate edge betweenness (see EdgeBetweenness)
+ *
+ * Instead of a BFS from every root, pairs of users (s, t) are sampled and one of the shortest
+ * paths between them is picked at random (each with the same probability), every edge of that path
+ * gets one hit (Riondato-Kornaropoulos). hits(e) / samples * n * (n - 1) is an unbiased estimate of
+ * the credit of the edge e from all the roots.
+ *
+ * The sampling stops at the first of:
+ * 	the edge with the most hits beats every other edge with probability 1 - delta (empirical
+ * 	Bernstein bound on the difference of the hits, each sample changes it by -1, 0 or 1),
+ * 	enough samples for an error of at most epsilon * n * (n - 1) on every edge with probability
+ * 	1 - delta (the sample size only depends on the vertex diameter of the graph),
+ * 	the time budget (0 for none) is used up.
+ */
+public class BetweennessSampling
+{
+	public static final double DEFAULT_DELTA = 0.1;
+	public static final long DEFAULT_SEED = 42L;
+	//constant of the sample size bound of Riondato-Kornaropoulos
+	private static final double SAMPLE_SIZE_CONSTANT = 0.5;
+
+	private final double epsilon;
+	private final double delta;
+	private final long timeBudgetMillis;
+	private final long seed;
+
+	public BetweennessSampling(double epsilon)
+	{
+		this(epsilon, DEFAULT_DELTA, 0L, DEFAULT_SEED);
+	}
+
+	public BetweennessSampling(double epsilon, double delta, long timeBudgetMillis, long seed)
+	{
+		if(epsilon <= 0.0 || epsilon >= 1.0)
+			throw new IllegalArgumentException("Epsilon must be between 0 and 1.");
+		if(delta <= 0.0 || delta >= 1.0)
+			throw new IllegalArgumentException("Delta must be between 0 and 1.");
+		if(timeBudgetMillis < 0)
+			throw new IllegalArgumentException("Time budget must not be negative.");
+
+		this.epsilon = epsilon;
+		this.delta = delta;
+		this.timeBudgetMillis = timeBudgetMillis;
+		this.seed = seed;
+	}
+
+	public double getEpsilon()
+	{
+		return epsilon;
+	}
+
+	public double getDelta()
+	{
+		return delta;
+	}
+
+	public long getTimeBudgetMillis()
+	{
+		return timeBudgetMillis;
+	}
+
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Get the number of samples which give the epsilon error with probability 1 - delta on a graph
+	 * whose shortest paths have at most vertexDiameter vertices
+	 */
+	public long getMaxSamples(int vertexDiameter)
+	{
+		int log = vertexDiameter > 3 ? 31 - Integer.numberOfLeadingZeros(vertexDiameter - 2) : 0;
+		double samples = SAMPLE_SIZE_CONSTANT / (epsilon * epsilon) * (log + 1 + Math.log(1.0 / delta));
+		return (long) Math.ceil(samples);
+	}
+
+	/**
+	 * True when the sampled difference of hits between the leader and the runner-up (diffSum over
+	 * numSamples samples, with squareSum the sum of the squared differences) is positive with
+	 * probability 1 - confidence
+	 */
+	boolean isSeparated(long diffSum, long squareSum, long numSamples, double confidence)
+	{
+		if(numSamples < 2 || diffSum <= 0) return false;
+
+		double mean = (double) diffSum / numSamples;
+		double variance = (squareSum - mean * diffSum) / (numSamples - 1);
+		double log = Math.log(2.0 / confidence);
+		//Maurer-Pontil, the differences are in [-1, 1] (range 2)
+		double bound = Math.sqrt(2.0 * Math.max(variance, 0.0) * log / numSamples) + 14.0 * log / (3.0 * (numSamples - 1));
+		return mean > bound;
+	}
+}
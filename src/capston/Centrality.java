@@ -0,0 +1,361 @@
+package capston;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class rank the users of the network by degree, k-core number or PageRank
+ *
+ * 	DEGREE		number of friends (followed users in a directed graph)
+ * 	CORE		largest k such that the user is in the k-core of the (undirected) network, the
+ * 				subgraph where everybody has at least k friends (Batagelj-Zaversnik, O(|V| + |E|))
+ * 	PAGE_RANK	power iteration till the ranks change less than the tolerance (L1), each iteration
+ * 				pulls the ranks over the reverse graph so the vertices can be split across threads
+ * 				without any shared writes
+ *
+ * The degrees and the PageRank iterations are split across threads. The core numbers are not: the
+ * bucket algorithm removes one vertex at a time and every removal changes the buckets of its
+ * neighbors (it is linear anyway, below the time of the PageRank on the same graph).
+ *
+ * Every measure is computed once on the primitive adjacency and kept, so keep one Centrality for
+ * all the queries on the same network. getTopK keeps a heap of
+ * k vertex indices, O(|V| log k), so a ranking never sorts or boxes the whole network, and the
+ * percentile thresholds are read from one sorted copy of the values.
+ */
+public class Centrality
+{
+	public enum Measure
+	{
+		DEGREE, CORE, PAGE_RANK
+	}
+
+	public static final double DEFAULT_DAMPING = 0.85;
+	public static final double DEFAULT_TOLERANCE = 1e-6;
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+	//less vertices than this are always computed on the calling thread
+	private static final int MIN_PARALLEL_VERTICES = 4096;
+
+	private final CsrGraph graph;
+	private final int numThreads;
+
+	private double[] degrees;
+	private double[] coreNumbers;
+	private double[] pageRank;
+	private int numPageRankIterations;
+	//sorted copy of each measure, for the percentiles
+	private final double[][] sortedValues = new double[Measure.values().length][];
+
+	public Centrality(IntGraph graph)
+	{
+		this(graph, 1);
+	}
+
+	/**
+	 * With numThreads > 1 the degrees and the PageRank iterations are split across a ForkJoinPool of
+	 * that many threads
+	 */
+	public Centrality(IntGraph graph, int numThreads)
+	{
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+
+		this.graph = CsrGraph.fromIntGraph(graph);
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Get the value of the measure of every vertex index
+	 */
+	public double[] getValues(Measure measure)
+	{
+		switch(measure)
+		{
+			case DEGREE: return getDegrees();
+			case CORE: return getCoreNumbers();
+			default: return getPageRank();
+		}
+	}
+
+	public double[] getDegrees()
+	{
+		if(degrees != null) return degrees;
+
+		int n = graph.getNumVertices();
+		double[] values = new double[n];
+		ForkJoinPool pool = newPool(n);
+		try
+		{
+			sum(pool, n, (start, end) -> {
+				for(int v = start; v < end; v++)
+					values[v] = graph.getDegree(v);
+				return 0.0;
+			});
+		}
+		finally
+		{
+			if(pool != null) pool.shutdown();
+		}
+		degrees = values;
+		return degrees;
+	}
+
+	/**
+	 * Core number of every vertex index (see CoreDecomposition)
+	 */
+	public double[] getCoreNumbers()
+	{
+		if(coreNumbers != null) return coreNumbers;
+
+		int[] core = new CoreDecomposition(graph).getCoreNumbers();
+		coreNumbers = new double[core.length];
+		for(int v = 0; v < core.length; v++)
+			coreNumbers[v] = core[v];
+		return coreNumbers;
+	}
+
+	public double[] getPageRank()
+	{
+		if(pageRank == null) computePageRank(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+		return pageRank;
+	}
+
+	/**
+	 * Compute the PageRank of every vertex index (the ranks add up to 1), the rank of a user without
+	 * any edge going out is spread evenly over the network
+	 */
+	public double[] computePageRank(double damping, double tolerance, int maxIterations)
+	{
+		if(damping < 0.0 || damping > 1.0)
+			throw new IllegalArgumentException("Damping factor must be between 0 and 1.");
+
+		int n = graph.getNumVertices();
+		CsrGraph reverse = graph.reverse();
+		double[] rank = new double[n];
+		double[] next = new double[n];
+		//rank / out degree of every vertex, what the vertex gives to each followed vertex
+		double[] share = new double[n];
+		Arrays.fill(rank, n == 0 ? 0.0 : 1.0 / n);
+
+		ForkJoinPool pool = newPool(n);
+		try
+		{
+			numPageRankIterations = 0;
+			while(numPageRankIterations < maxIterations)
+			{
+				numPageRankIterations++;
+				final double[] current = rank;
+				final double[] updated = next;
+
+				//rank of the vertices without out edges
+				double dangling = sum(pool, n, (start, end) -> {
+					double lost = 0.0;
+					for(int v = start; v < end; v++)
+					{
+						int degree = graph.getDegree(v);
+						if(degree == 0) lost += current[v];
+						else share[v] = current[v] / degree;
+					}
+					return lost;
+				});
+
+				double base = (1.0 - damping + damping * dangling) / n;
+				double change = sum(pool, n, (start, end) -> {
+					double difference = 0.0;
+					for(int v = start; v < end; v++)
+					{
+						double total = 0.0;
+						for(int i = 0; i < reverse.getDegree(v); i++)
+							total += share[reverse.getNeighbor(v, i)];
+						updated[v] = base + damping * total;
+						difference += Math.abs(updated[v] - current[v]);
+					}
+					return difference;
+				});
+
+				rank = updated;
+				next = current;
+				if(change < tolerance) break;
+			}
+		}
+		finally
+		{
+			if(pool != null) pool.shutdown();
+		}
+
+		pageRank = rank;
+		sortedValues[Measure.PAGE_RANK.ordinal()] = null;
+		return pageRank;
+	}
+
+	//number of iterations of the last PageRank computation
+	public int getNumPageRankIterations()
+	{
+		return numPageRankIterations;
+	}
+
+	/**
+	 * Get the user ids of the k users with the highest value, highest first (the lower user id
+	 * first between equal values)
+	 */
+	public List<Integer> getTopK(Measure measure, int k)
+	{
+		if(k < 0) throw new IllegalArgumentException("k must not be negative.");
+
+		double[] values = getValues(measure);
+		int n = values.length;
+		k = Math.min(k, n);
+
+		//min heap of the best k vertices seen so far, the root is the worst of them
+		int[] heap = new int[k];
+		int size = 0;
+		for(int v = 0; v < n && k > 0; v++)
+		{
+			if(size < k)
+			{
+				heap[size] = v;
+				siftUp(heap, size++, values);
+			}
+			else if(isBetter(v, heap[0], values))
+			{
+				heap[0] = v;
+				siftDown(heap, size, 0, values);
+			}
+		}
+
+		//take the worst out first and fill the list from the back
+		Integer[] top = new Integer[size];
+		while(size > 0)
+		{
+			top[size - 1] = graph.getVertexId(heap[0]);
+			heap[0] = heap[--size];
+			siftDown(heap, size, 0, values);
+		}
+		return Arrays.asList(top);
+	}
+
+	/**
+	 * Get the value of the measure at the given percentile (nearest rank, 0 - 100), i.e. the 95th
+	 * percentile is the value which 95% of the users do not exceed
+	 */
+	public double getPercentile(Measure measure, double percentile)
+	{
+		if(percentile < 0.0 || percentile > 100.0)
+			throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+
+		double[] sorted = sortedValues[measure.ordinal()];
+		if(sorted == null)
+		{
+			sorted = getValues(measure).clone();
+			Arrays.sort(sorted);
+			sortedValues[measure.ordinal()] = sorted;
+		}
+		if(sorted.length == 0) return 0.0;
+
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+		return sorted[Math.max(rank - 1, 0)];
+	}
+
+	/**
+	 * Get the user ids of the users whose value is at least the value at the given percentile,
+	 * highest first
+	 */
+	public List<Integer> getUsersAbovePercentile(Measure measure, double percentile)
+	{
+		double threshold = getPercentile(measure, percentile);
+		int count = 0;
+		for(double value : getValues(measure))
+		{
+			if(value >= threshold) count++;
+		}
+		return count == 0 ? new ArrayList<>() : getTopK(measure, count);
+	}
+
+	//vertex v ranks before vertex w
+	private static boolean isBetter(int v, int w, double[] values)
+	{
+		return values[v] > values[w] || (values[v] == values[w] && v < w);
+	}
+
+	private static void siftUp(int[] heap, int i, double[] values)
+	{
+		int v = heap[i];
+		while(i > 0)
+		{
+			int parent = (i - 1) >>> 1;
+			if(!isBetter(heap[parent], v, values)) break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = v;
+	}
+
+	private static void siftDown(int[] heap, int size, int i, double[] values)
+	{
+		if(size == 0) return;
+		int v = heap[i];
+		while(true)
+		{
+			int child = 2 * i + 1;
+			if(child >= size) break;
+			if(child + 1 < size && isBetter(heap[child], heap[child + 1], values)) child++;
+			if(!isBetter(v, heap[child], values)) break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = v;
+	}
+
+	//body of a parallel loop over a range of vertices, the results of the ranges are added
+	private interface RangeFunction
+	{
+		double apply(int start, int end);
+	}
+
+	//helper method to get a pool of numThreads threads, null if the vertices are done on the calling thread
+	private ForkJoinPool newPool(int n)
+	{
+		return numThreads > 1 && n >= MIN_PARALLEL_VERTICES ? new ForkJoinPool(numThreads) : null;
+	}
+
+	//helper method to run the function over all the vertices, split across the pool if there is one
+	private double sum(ForkJoinPool pool, int n, RangeFunction function)
+	{
+		if(pool == null) return function.apply(0, n);
+		int grain = Math.max(1024, n / (numThreads * 8));
+		return pool.invoke(new RangeTask(function, 0, n, grain));
+	}
+
+	//fork join task which splits a range of vertices till it is small enough
+	private static class RangeTask extends RecursiveTask<Double>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final RangeFunction function;
+		private final int start;
+		private final int end;
+		private final int grain;
+
+		RangeTask(RangeFunction function, int start, int end, int grain)
+		{
+			this.function = function;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected Double compute()
+		{
+			if(end - start <= grain) return function.apply(start, end);
+
+			int middle = (start + end) >>> 1;
+			RangeTask left = new RangeTask(function, start, middle, grain);
+			left.fork();
+			double right = new RangeTask(function, middle, end, grain).compute();
+			return left.join() + right;
+		}
+	}
+}
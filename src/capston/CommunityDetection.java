@@ -87,33 +87,189 @@ package capston;
  */		  
  
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Queue;
-import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CommunityDetection 
 {
+	//copied out of the network on the first getSubCommunites()
 	private  List<Graph> subCommunites;
 	private int sizeSubCommunites;
+	//sub-community of every vertex index of the undirected network, -1 if the user is in none
+	private int[] community;
+	//undirected network the vertex indices of community refer to
+	private CsrGraph network;
+	//network without the edges removed by Girvan-Newman, null for the incremental detection
+	private MutableGraph dividedGraph;
+	//cut of the dendrogram, null for the detection which removes the edges from a MutableGraph
+	private Dendrogram.Cut cut;
 	private int minVertices;
 	private Graph mainGraph;
+	//number of threads used for the betweenness calculation and to divide the pieces of the network
+	private int numThreads;
+	//CSR graph given by the user, null when the detection started from a Graph
+	private CsrGraph csrGraph;
+	//null for the exact betweenness
+	private BetweennessSampling sampling;
+	//recorded divisive process of the incremental detection
+	private Dendrogram dendrogram;
+	//pieces being divided at the same time, they share the threads of the betweenness
+	private final AtomicInteger activeTasks = new AtomicInteger();
+	//edges removed from the copies of the pieces (pairs of vertex indices of the network)
+	private final ConcurrentLinkedQueue<int[]> removedInPieces = new ConcurrentLinkedQueue<>();
 	
 	public CommunityDetection(Graph graph, int minVertices)
+	{
+		this(graph, minVertices, 1);
+	}
+	
+	public CommunityDetection(Graph graph, int minVertices, int numThreads)
+	{
+		this(graph, minVertices, numThreads, false);
+	}
+	
+	/**
+	 * With incremental = true the edges are removed from a CSR copy
+	 * and the betweenness is only recomputed for the roots affected by the removed edges
+	 * (see getTotalSubCommunitesIncrementally)
+	 */
+	public CommunityDetection(Graph graph, int minVertices, int numThreads, boolean incremental)
+	{
+		this(graph, minVertices, numThreads, incremental, null);
+	}
+	
+	/**
+	 * With a sampling (not null) the maximum betweenness edges are found from sampled shortest paths
+	 * instead of a BFS from every user (see BetweennessSampling), for networks too big for the exact
+	 * betweenness
+	 */
+	public CommunityDetection(Graph graph, int minVertices, int numThreads, boolean incremental, BetweennessSampling sampling)
+	{
+		this(graph, null, minVertices, numThreads, incremental, sampling, 0);
+	}
+	
+	/**
+	 * With minCore > 0 only the minCore-core of the network is divided (see CoreDecomposition) and
+	 * every user outside of it is given the sub-community of its neighbors afterwards
+	 * (CoreDecomposition.attachPeriphery). The fringe of degree 1 and 2 users is most of a social
+	 * network but never changes which edges of the core have the maximum betweenness much, so the
+	 * expensive part only runs on the core.
+	 */
+	public CommunityDetection(Graph graph, int minVertices, int numThreads, boolean incremental, BetweennessSampling sampling,
+			int minCore)
+	{
+		this(graph, null, minVertices, numThreads, incremental, sampling, minCore);
+	}
+	
+	//Girvan-Newman removes the edges from a MutableGraph copy of the CSR graph
+	public CommunityDetection(CsrGraph graph, int minVertices)
+	{
+		this(graph, minVertices, 1);
+	}
+	
+	public CommunityDetection(CsrGraph graph, int minVertices, int numThreads)
+	{
+		this(graph, minVertices, numThreads, false);
+	}
+	
+	//the incremental detection works on the CSR graph itself
+	public CommunityDetection(CsrGraph graph, int minVertices, int numThreads, boolean incremental)
+	{
+		this(graph, minVertices, numThreads, incremental, null);
+	}
+	
+	public CommunityDetection(CsrGraph graph, int minVertices, int numThreads, boolean incremental, BetweennessSampling sampling)
+	{
+		this(null, graph, minVertices, numThreads, incremental, sampling, 0);
+	}
+	
+	public CommunityDetection(CsrGraph graph, int minVertices, int numThreads, boolean incremental, BetweennessSampling sampling,
+			int minCore)
+	{
+		this(null, graph, minVertices, numThreads, incremental, sampling, minCore);
+	}
+	
+	private CommunityDetection(Graph graph, CsrGraph csrGraph, int minVertices, int numThreads, boolean incremental,
+			BetweennessSampling sampling, int minCore)
 	{
 		mainGraph = graph;
+		this.csrGraph = csrGraph;
+		this.sampling = sampling;
 		this.minVertices = minVertices;
-		subCommunites = new ArrayList<>();
+		this.numThreads = numThreads;
 		sizeSubCommunites = 0;	
+		if(this.csrGraph == null) this.csrGraph = CsrGraph.fromGraph(mainGraph);
+		network = this.csrGraph.toUndirected();
+		community = new int[network.getNumVertices()];
+		Arrays.fill(community, -1);
 
+		if(minCore > 0)
+		{
+			getTotalSubCommunitesOfCore(minCore, incremental);
+			return;
+		}
+		
 		//detect the sub communities
-		getTotalSubCommunites();
+		if(incremental)
+			getTotalSubCommunitesIncrementally(network);
+		else
+			getTotalSubCommunites(MutableGraph.fromIntGraph(network));
+	}
+	
+	/**
+	 * Cut a dendrogram built before (i.e. by another CommunityDetection or loaded from a file) at
+	 * minVertices, without dividing the network again. minVertices must be at least the floor of
+	 * the dendrogram.
+	 */
+	public CommunityDetection(Dendrogram dendrogram, int minVertices)
+	{
+		this.dendrogram = dendrogram;
+		this.minVertices = minVertices;
+		csrGraph = dendrogram.getGraph();
+		network = csrGraph;
+		numThreads = 1;
+		sizeSubCommunites = 0;
+		community = new int[network.getNumVertices()];
+		Arrays.fill(community, -1);
+		cutDendrogram();
 	}
 	
+	/**
+	 * Get the sub-communities, each one with the edges left between its users
+	 * (the edges removed by Girvan-Newman are not in them, except with minCore > 0)
+	 */
 	public List<Graph> getSubCommunites()
 	{
+		if(subCommunites != null) return subCommunites;
+		
+		if(cut != null)
+		{
+			subCommunites = cut.getSubCommunites();
+			return subCommunites;
+		}
+		subCommunites = new ArrayList<>();
+		for(InducedSubgraph view : getSubCommunityViews())
+		{
+			//the detection of the core alone did not remove any edge of the network
+			if(dividedGraph == null)
+			{
+				subCommunites.add(view.toGraph());
+				continue;
+			}
+
+			int[] vertices = new int[view.getNumVertices()];
+			for(int k = 0; k < vertices.length; k++)
+				vertices[k] = view.getNetworkIndex(k);
+			subCommunites.add(dividedGraph.toGraph(vertices));
+		}
 		return subCommunites;
 	}
 	
@@ -121,160 +277,433 @@ public class CommunityDetection
 	{
 		return sizeSubCommunites;
 	}
-	//this method will detect the total communities of the network
-	private void getTotalSubCommunites()
+	
+	//sub-community of every vertex index of getGraph() (0 .. getSizeOfSubCommunites() - 1), -1 if the user is in none
+	public int[] getCommunities()
+	{
+		return community;
+	}
+	
+	//undirected CSR copy of the network
+	public CsrGraph getGraph()
+	{
+		return network;
+	}
+	
+	//sub-communities as views over the network (with all the edges between their users), without copying them
+	public List<InducedSubgraph> getSubCommunityViews()
+	{
+		return network.getInducedSubgraphs(community, sizeSubCommunites);
+	}
+	
+	//dendrogram of the incremental detection (of the core with minCore > 0), null for the detection which removes the edges from the graph
+	public Dendrogram getDendrogram()
 	{
-		if(mainGraph.getNumVertices() < minVertices * 2) return;
+		return dendrogram;
+	}
+	/**
+	 * This method will detect the total communities of the network
+	 * 
+	 * Girvan-Newman works on a MutableGraph copy of the network (the graph given by the user is never
+	 * changed), so removing an edge is O(1) and a piece is just the array of its vertex indices.
+	 * The maximum betweenness edges of a piece are removed till the piece really falls apart
+	 * (see PieceSplitter), then:
+	 * 	a piece with at least twice of minVertices users is divided again,
+	 * 	a piece with at least minVertices users is a sub-community,
+	 * 	a smaller piece is not a sub-community and is dropped.
+	 */
+	private void getTotalSubCommunites(MutableGraph graph)
+	{
+		dividedGraph = graph;
+		if(graph.getNumVertices() < minVertices * 2) return;
 		
-		Queue<Graph> graphToDetectCommunity = new LinkedList<>();
+		PieceSplitter splitter = new PieceSplitter(graph);
+		if(numThreads > 1)
+		{
+			getTotalSubCommunitesInParallel(graph, splitter.getComponents());
+			return;
+		}
+		
+		Queue<int[]> graphToDetectCommunity = new LinkedList<>();
+		List<int[]> communities = new ArrayList<>();
 		
-		//add main graph to the queue
-		graphToDetectCommunity.add(mainGraph);
+		//start with the connected components of the whole network
+		for(int[] piece : splitter.getComponents())
+			addPiece(piece, graphToDetectCommunity, communities);
 		
 		//keep detected communities till the queue is empty
 		while(!graphToDetectCommunity.isEmpty())
 		{
-			Graph graph = graphToDetectCommunity.remove();
-
-			List<Edge> maxBetweennessEdge = graph.getMaxBetweennessEdge();
-			
-			//remove maxBetweennessEdge from the graph
-			removeMaxBetweennessEdge(maxBetweennessEdge,graph );
-			//System.out.println("Graph after removing the maxBetweenness edges: " + graph);
-
-			List<Graph> subCommunities = getCommunitesWithAllRoots(graph, maxBetweennessEdge, minVertices);	
-			
-			for(Graph g : subCommunities)
-			{
-				int totalVertex = g.getNumVertices();
+			List<int[]> pieces = divide(graph, splitter, graphToDetectCommunity.remove(), communities);
+			if(pieces == null) continue;
 			
-				if(totalVertex >= minVertices * 2) //if community has twice of minUsernumber, then keep detecting communities
-				{
-					graphToDetectCommunity.add(g);
-				}
-				else
-				{
-					subCommunites.add(g);
-					sizeSubCommunites++;
- 				}
-			}
+			for(int[] piece : pieces)
+				addPiece(piece, graphToDetectCommunity, communities);
 		}
+		setCommunities(communities);
 	}
-	//this method will build graph using all the roots (both end vertices of the edge)
-	private List<Graph> getCommunitesWithAllRoots(Graph graph, List<Edge> maxBetweennessEdge, int minVertices)
+	
+	/**
+	 * This method will detect the communities of the minCore-core of the network with a detection of
+	 * its own and then attach the users outside the core. The sub-communities keep all the edges
+	 * between their users, the edges removed from the core are not kept.
+	 */
+	private void getTotalSubCommunitesOfCore(int minCore, boolean incremental)
 	{
-		Set<Integer> roots = getSubCommunitiesRoots(maxBetweennessEdge);
-
-		List<Graph> subCommunities = new ArrayList<>();
-		for(int root : roots)
+		CoreDecomposition cores = new CoreDecomposition(network);
+		CommunityDetection coreDetection = new CommunityDetection(cores.getCoreGraph(minCore), minVertices, numThreads,
+				incremental, sampling);
+		
+		//the core graph has its own vertex indices
+		CsrGraph core = coreDetection.getGraph();
+		int[] coreCommunity = coreDetection.getCommunities();
+		for(int v = 0; v < core.getNumVertices(); v++)
+			community[network.getIndex(core.getVertexId(v))] = coreCommunity[v];
+		sizeSubCommunites = coreDetection.getSizeOfSubCommunites();
+		dendrogram = coreDetection.getDendrogram();
+		
+		cores.attachPeriphery(community, sizeSubCommunites, minCore);
+	}
+	
+	/**
+	 * Once the network falls apart its pieces are independent, so with numThreads > 1 every piece
+	 * still to divide is a DivideTask of a ForkJoinPool of numThreads threads. A task owns a
+	 * MutableGraph copy of its piece. The biggest new piece is divided by the same thread and the
+	 * others are forked biggest first, so an idle thread steals the biggest piece waiting. The
+	 * betweenness of a piece gets numThreads / (pieces being divided) threads.
+	 * 
+	 * The sub-communities are collected in a concurrent queue and sorted by their smallest user id,
+	 * so they do not depend on the order the tasks finish. The edges removed from the copies are
+	 * removed from graph at the end.
+	 */
+	private void getTotalSubCommunitesInParallel(MutableGraph graph, List<int[]> components)
+	{
+		ConcurrentLinkedQueue<int[]> communities = new ConcurrentLinkedQueue<>();
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try
 		{
-			Graph g = buildSubCommunitiesWithSingleRoot(root, graph);
-			subCommunities.add(g);
+			pool.invoke(new DivideTask(graph, components, communities));
 		}
-
-		//Ensure graph has minimum number of vertices
-		for(Graph g : subCommunities)
+		finally
+		{
+			pool.shutdown();
+		}
+		
+		for(int[] edges : removedInPieces)
+		{
+			for(int k = 0; k < edges.length; k += 2)
+				graph.removeEdge(edges[k], edges[k + 1]);
+		}
+		removedInPieces.clear();
+		
+		List<int[]> sorted = new ArrayList<>(communities);
+		sorted.sort(Comparator.comparingInt(members -> members[0]));
+		setCommunities(sorted);
+	}
+	
+	//helper method to number the sub-communities (ascending vertex indices of the network) in the given order
+	private void setCommunities(List<int[]> communities)
+	{
+		for(int c = 0; c < communities.size(); c++)
 		{
-			if(g.getNumVertices() < minVertices) 
+			for(int v : communities.get(c))
+				community[v] = c;
+		}
+		sizeSubCommunites = communities.size();
+	}
+	
+	/*
+	 * helper method to remove the maximum betweenness edges of the piece till it falls apart, null if
+	 * the piece has no edge left (it can not be divided any more and is kept in communities)
+	 */
+	private List<int[]> divide(MutableGraph graph, PieceSplitter splitter, int[] piece, Collection<int[]> communities)
+	{
+		while(true)
+		{
+			int[] maxBetweennessEdge = getMaxBetweennessEdge(graph, piece);
+			if(maxBetweennessEdge.length == 0)
 			{
-				subCommunities.add(graph);
-				return subCommunities;
+				communities.add(toNetworkIndices(graph, piece));
+				return null;
 			}
-
+			
+			//remove maxBetweennessEdge from the graph
+			for(int k = 0; k < maxBetweennessEdge.length; k += 2)
+				graph.removeEdge(maxBetweennessEdge[k], maxBetweennessEdge[k + 1]);
+			if(graph != dividedGraph) removedInPieces.add(toNetworkIndices(graph, maxBetweennessEdge));
+			List<int[]> pieces = splitter.split(piece, maxBetweennessEdge);
+			if(pieces != null) return pieces;
 		}
-		
-		return subCommunities;
 	}
-	//this method will build a graph with a single root
-	private Graph buildSubCommunitiesWithSingleRoot(int root, Graph mainGraph) 
+	
+	//helper method to get the maximum betweenness edges of the piece as pairs of vertex indices of the graph
+	private int[] getMaxBetweennessEdge(MutableGraph graph, int[] piece)
 	{
-		Graph graph = new Graph();
-		Map<Integer, HashSet<Edge>> newGraphMap = mainGraph.getAdjListsMap();
+		int threads = Math.max(1, numThreads / Math.max(1, activeTasks.get()));
+		EdgeBetweenness edgeBetweenness = new EdgeBetweenness(graph.toCsrGraph(piece), threads, sampling);
+		int[] edges = edgeBetweenness.findMaxBetweennessEdges(null, piece.length);
+		for(int k = 0; k < edges.length; k++)
+			edges[k] = piece[edges[k]];
+		return edges;
+	}
+	
+	//helper method to get the vertex indices of the network of vertex indices of the graph (a copy of a piece)
+	private int[] toNetworkIndices(MutableGraph graph, int[] vertices)
+	{
+		if(graph == dividedGraph) return vertices;
 		
-		//add root vertex to the graph
-		graph.addVertex(root);
+		int[] indices = new int[vertices.length];
+		for(int k = 0; k < vertices.length; k++)
+			indices[k] = network.getIndex(graph.getVertexId(vertices[k]));
+		return indices;
+	}
+	
+	//helper method to queue the pieces which are still too big and keep the sub-communities
+	private void addPiece(int[] piece, Queue<int[]> graphToDetectCommunity, List<int[]> communities)
+	{
+		if(piece.length >= minVertices * 2) //if community has twice of minUsernumber, then keep detecting communities
+		{
+			graphToDetectCommunity.add(piece);
+		}
+		else if(piece.length >= minVertices)
+		{
+			communities.add(piece);
+		}
+	}
+	
+	/*
+	 * This class divide a piece of the network in its own MutableGraph (see getTotalSubCommunitesInParallel),
+	 * with pieces not null the graph already fell apart into them and only the pieces are handled
+	 */
+	private class DivideTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
 		
-		Map<Integer, HashSet<Edge>> graphMap = mainGraph.getAdjListsMap();
-		//get neighbor of the root from main graph
+		private final MutableGraph graph;
+		private final List<int[]> pieces;
+		private final Queue<int[]> communities;
 		
-		HashSet<Edge> neighbor = graphMap.get(root);
-		//add neighbor to the root's new graph
-		for(Edge edge: neighbor)
+		DivideTask(MutableGraph graph, List<int[]> pieces, Queue<int[]> communities)
 		{
-			int end = edge.getEndNode();
-			graph.addVertex(end);
-			//add vertex
-			graph.addEdge(root, end);
+			this.graph = graph;
+			this.pieces = pieces;
+			this.communities = communities;
 		}
 		
-		//add each neighbor vertex and it's neighbor to graph
-		for(Edge edge: neighbor)
+		@Override
+		protected void compute()
 		{
-			int end = edge.getEndNode();
-			HashSet<Edge> endNeighbor = graphMap.get(end);
-			for(Edge newedge : endNeighbor)
+			List<int[]> newPieces = pieces;
+			if(newPieces == null)
 			{
-				int newEnd = newedge.getEndNode();
-				if(!newGraphMap.containsKey(newEnd)) graph.addVertex(newEnd);
-				graph.addEdge(end, newEnd);
+				int[] vertices = new int[graph.getNumVertices()];
+				for(int v = 0; v < vertices.length; v++)
+					vertices[v] = v;
+				
+				activeTasks.incrementAndGet();
+				try
+				{
+					newPieces = divide(graph, new PieceSplitter(graph), vertices, communities);
+				}
+				finally
+				{
+					activeTasks.decrementAndGet();
+				}
+				if(newPieces == null) return;
 			}
-
+			
+			//biggest piece first
+			newPieces.sort((a, b) -> Integer.compare(b.length, a.length));
+			List<DivideTask> tasks = new ArrayList<>();
+			for(int[] piece : newPieces)
+			{
+				if(piece.length >= minVertices * 2) tasks.add(new DivideTask(graph.subgraph(piece), null, communities));
+				else if(piece.length >= minVertices) communities.add(toNetworkIndices(graph, piece));
+			}
+			if(tasks.isEmpty()) return;
+			
+			for(int k = 1; k < tasks.size(); k++)
+				tasks.get(k).fork();
+			tasks.get(0).compute();
+			for(int k = tasks.size() - 1; k > 0; k--)
+				tasks.get(k).join();
 		}
-		return graph;
 	}
-
-	//to built the sub-communities, we need new root for each partitioned graph
-	//hear roots will be the both end vertices of maxBetweenness edge's
-	private Set<Integer> getSubCommunitiesRoots(List<Edge> maxBetweennessEdge)
+	
+	/*
+	 * This class find the pieces (connected components) a piece falls apart into after some of its
+	 * edges were removed. The pieces are ascending arrays of vertex indices.
+	 * 
+	 * The ends of the removed edges are checked two at a time with a BFS from both ends, one vertex of
+	 * each side in turn. The BFS stops as soon as the sides meet (still connected), or when one side
+	 * runs out of vertices, then that side is a whole piece of its own. So a check only visits about
+	 * twice the smaller side, on a social network usually a handful of users cut off a big piece.
+	 * Every piece of the divided piece has an end of a removed edge, so once the ends left are all
+	 * connected to the same end the rest of the piece is the last piece.
+	 */
+	private static final class PieceSplitter
 	{
-		Set<Integer> roots = new HashSet<>();
-
-		for(Edge edge : maxBetweennessEdge)	
+		private final MutableGraph graph;
+		//side of the BFS which visited the vertex (2 * search or 2 * search + 1)
+		private final int[] seen;
+		//round in which the vertex was put in a new piece
+		private final int[] assigned;
+		private final int[] queueA;
+		private final int[] queueB;
+		private int search;
+		private int round;
+		
+		PieceSplitter(MutableGraph graph)
 		{
-			int start = edge.getStartNode();
-			roots.add(start);
-			
-			int end = edge.getEndNode();
-			roots.add(end);
+			this.graph = graph;
+			int n = graph.getNumVertices();
+			seen = new int[n];
+			assigned = new int[n];
+			queueA = new int[n];
+			queueB = new int[n];
 		}
-		return roots;
-	}
-	//this method will remove the maximum betweenness edges from the graph
-	private void removeMaxBetweennessEdge(List<Edge> maxBetweennessEdge, Graph graph)
-	{
-		for(Edge edge : maxBetweennessEdge)
+		
+		//connected components of the whole graph
+		List<int[]> getComponents()
 		{
-			removeSingleEdge(edge, graph);
+			round++;
+			List<int[]> components = new ArrayList<>();
+			for(int v = 0; v < graph.getNumVertices(); v++)
+			{
+				if(assigned[v] == round) continue;
+				
+				assigned[v] = round;
+				queueA[0] = v;
+				int tail = 1;
+				for(int head = 0; head < tail; head++)
+				{
+					int u = queueA[head];
+					for(int i = 0; i < graph.getDegree(u); i++)
+					{
+						int w = graph.getNeighbor(u, i);
+						if(assigned[w] != round)
+						{
+							assigned[w] = round;
+							queueA[tail++] = w;
+						}
+					}
+				}
+				int[] component = Arrays.copyOf(queueA, tail);
+				Arrays.sort(component);
+				components.add(component);
+			}
+			return components;
 		}
-	}
-	//this method will remove one edge from the graph
-	private void removeSingleEdge(Edge edge, Graph g)
-	{
-		//get start and end vertex of the edge
-		int startVertex = edge.getStartNode();
-		int endVertex = edge.getEndNode();
-		//to remove an edge, we to remove both nodes from their respective start node, 
-		for(int i = 0; i < 2; i++)
+		
+		/**
+		 * Get the pieces of the piece after the edges {v0, w0, v1, w1, ...} were removed from it,
+		 * null if it is still connected
+		 */
+		List<int[]> split(int[] piece, int[] removedEdges)
 		{
-			removeOneEndVertex(g, startVertex, endVertex);
+			round++;
+			List<int[]> pieces = new ArrayList<>();
+			int first = -1;
+			for(int end : removedEdges)
+			{
+				if(assigned[end] == round) continue;
+				if(first < 0)
+				{
+					first = end;
+					continue;
+				}
+				if(end == first) continue;
+				
+				int[] side = getSmallerSide(first, end);
+				if(side == null) continue;
+				
+				for(int v : side)
+					assigned[v] = round;
+				Arrays.sort(side);
+				pieces.add(side);
+				//every end checked so far is cut off or connected to first, if the side of first was cut
+				//off the ends left are compared with end
+				if(assigned[first] == round) first = end;
+			}
+			if(pieces.isEmpty()) return null;
 			
-			//after removing endVertex from startVertex neighbor list,
-			//remove startVertex from endVertex neighbor list
-			removeOneEndVertex(g, endVertex, startVertex);			
+			//the rest of the piece, still in ascending order
+			int[] rest = new int[piece.length];
+			int size = 0;
+			for(int v : piece)
+			{
+				if(assigned[v] != round) rest[size++] = v;
+			}
+			pieces.add(Arrays.copyOf(rest, size));
+			return pieces;
+		}
+		
+		//helper method to run the BFS from a and b, null if they meet or else the vertices of the side which ran out
+		private int[] getSmallerSide(int a, int b)
+		{
+			search++;
+			int sideA = 2 * search;
+			int sideB = sideA + 1;
+			seen[a] = sideA;
+			seen[b] = sideB;
+			queueA[0] = a;
+			queueB[0] = b;
+			int headA = 0, tailA = 1;
+			int headB = 0, tailB = 1;
+			while(true)
+			{
+				if(headA == tailA) return Arrays.copyOf(queueA, tailA);
+				if(headB == tailB) return Arrays.copyOf(queueB, tailB);
+				
+				int u = queueA[headA++];
+				for(int i = 0; i < graph.getDegree(u); i++)
+				{
+					int w = graph.getNeighbor(u, i);
+					if(seen[w] == sideB) return null;
+					if(seen[w] != sideA)
+					{
+						seen[w] = sideA;
+						queueA[tailA++] = w;
+					}
+				}
+				
+				u = queueB[headB++];
+				for(int i = 0; i < graph.getDegree(u); i++)
+				{
+					int w = graph.getNeighbor(u, i);
+					if(seen[w] == sideA) return null;
+					if(seen[w] != sideB)
+					{
+						seen[w] = sideB;
+						queueB[tailB++] = w;
+					}
+				}
+			}
 		}
-		//find startVertex from the graph and remove endVertex from the graph
 	}
 	
-	private void removeOneEndVertex(Graph g, int startVertex, int endVertex)
+	/**
+	 * Incremental Girvan-Newman
+	 * 
+	 * The divisive process is recorded in a dendrogram (see Dendrogram) with minVertices as its floor,
+	 * the sub-communities are the cut of the dendrogram at minVertices. The dendrogram can then be cut
+	 * again for any bigger minVertices without dividing the network again.
+	 */
+	private void getTotalSubCommunitesIncrementally(CsrGraph graph)
 	{
-		Map<Integer, HashSet<Edge>> graphMap = g.getAdjListsMap();
-		Set<Edge> edgeList =graphMap.get(startVertex);
+		if(graph.getNumVertices() < minVertices * 2) return;
 		
-		//create temp edgeList
-		Set<Edge> tempEdgeList = new HashSet<>(edgeList);
-		for(Edge e : tempEdgeList)
-		{
-			if(e.getEndNode() == endVertex) edgeList.remove(e);
-		}
+		dendrogram = Dendrogram.build(graph, minVertices, numThreads, sampling);
+		cutDendrogram();
+	}
+	
+	//helper method to keep the sub-communities of the dendrogram cut at minVertices
+	private void cutDendrogram()
+	{
+		if(dendrogram.getGraph().getNumVertices() < minVertices * 2) return;
+		
+		cut = dendrogram.cutBySize(minVertices);
+		community = cut.getCommunities();
+		sizeSubCommunites = cut.getSizeOfSubCommunites();
 	}
 }
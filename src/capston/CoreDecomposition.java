@@ -0,0 +1,226 @@
+package capston;
+
+/**
+ * This class find the core number of every user: the largest k such that the user is in the k-core
+ * of the (undirected) network, the subgraph where everybody has at least k friends.
+ *
+ * Batagelj-Zaversnik bucket algorithm, O(|V| + |E|) on int arrays: the vertices are kept sorted by
+ * their current degree (vert, pos and the bucket starts bin) and the vertex with the lowest degree
+ * is removed, moving each neighbor with a higher degree one bucket down.
+ *
+ * The k-core is the cheap way to shrink the network before an expensive analysis: on a social network
+ * most users of the degree 1 and 2 fringe are outside the 3-core. getCoreGraph gives the k-core to
+ * analyze and attachPeriphery gives the users left out the community of their neighbors afterwards.
+ */
+public class CoreDecomposition
+{
+	//network as it was given and its undirected version (same vertex indices)
+	private final CsrGraph directed;
+	private final CsrGraph graph;
+	private final int[] core;
+	private int maxCore;
+
+	public CoreDecomposition(IntGraph graph)
+	{
+		directed = CsrGraph.fromIntGraph(graph);
+		this.graph = directed.toUndirected();
+		core = computeCoreNumbers(this.graph);
+		for(int c : core)
+			maxCore = Math.max(maxCore, c);
+	}
+
+	//undirected network the vertex indices refer to (the core numbers ignore the direction of the edges)
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	//core number of the vertex index v
+	public int getCoreNumber(int v)
+	{
+		return core[v];
+	}
+
+	//core number of every vertex index
+	public int[] getCoreNumbers()
+	{
+		return core;
+	}
+
+	//largest k with a non empty k-core
+	public int getMaxCore()
+	{
+		return maxCore;
+	}
+
+	/**
+	 * Get the vertex indices of the k-core (ascending)
+	 */
+	public int[] getCore(int k)
+	{
+		int size = 0;
+		for(int c : core)
+		{
+			if(c >= k) size++;
+		}
+		int[] vertices = new int[size];
+		size = 0;
+		for(int v = 0; v < core.length; v++)
+		{
+			if(core[v] >= k) vertices[size++] = v;
+		}
+		return vertices;
+	}
+
+	/**
+	 * Get the k-core as a CSR graph (the user ids of the network are kept), the edges between the
+	 * users of the core are taken as they are in the network, so in a directed network they keep
+	 * their direction
+	 */
+	public CsrGraph getCoreGraph(int k)
+	{
+		int[] part = new int[core.length];
+		for(int v = 0; v < core.length; v++)
+			part[v] = core[v] >= k ? 0 : -1;
+		return directed.getInducedSubgraphs(part, 1).get(0).toCsrGraph();
+	}
+
+	/**
+	 * Give the users outside the k-core without a community (community[v] == -1) the community of
+	 * their neighbors, one ring of neighbors at a time going out from the users who have one. A user
+	 * takes the community most of its neighbors of the rings before have (the lowest community between
+	 * equal counts), so the result does not depend on the order of the users. The users of the k-core
+	 * and the users with no path to a community keep their community.
+	 */
+	public void attachPeriphery(int[] community, int numCommunities, int k)
+	{
+		int n = graph.getNumVertices();
+		int[] count = new int[numCommunities];
+		int[] touched = new int[numCommunities];
+		int[] choice = new int[n];
+		boolean[] queued = new boolean[n];
+
+		//first ring: the users of the periphery without a community next to one
+		int[] ring = new int[n];
+		int size = 0;
+		for(int v = 0; v < n; v++)
+		{
+			if(core[v] >= k || community[v] >= 0) continue;
+			for(int i = 0; i < graph.getDegree(v); i++)
+			{
+				if(community[graph.getNeighbor(v, i)] >= 0)
+				{
+					queued[v] = true;
+					ring[size++] = v;
+					break;
+				}
+			}
+		}
+
+		int[] next = new int[n];
+		while(size > 0)
+		{
+			for(int j = 0; j < size; j++)
+			{
+				int v = ring[j];
+				int numTouched = 0;
+				int best = -1;
+				for(int i = 0; i < graph.getDegree(v); i++)
+				{
+					int c = community[graph.getNeighbor(v, i)];
+					if(c < 0) continue;
+					if(count[c]++ == 0) touched[numTouched++] = c;
+					if(best < 0 || count[c] > count[best] || (count[c] == count[best] && c < best)) best = c;
+				}
+				for(int t = 0; t < numTouched; t++)
+					count[touched[t]] = 0;
+				choice[v] = best;
+			}
+
+			int nextSize = 0;
+			for(int j = 0; j < size; j++)
+			{
+				int v = ring[j];
+				community[v] = choice[v];
+				for(int i = 0; i < graph.getDegree(v); i++)
+				{
+					int w = graph.getNeighbor(v, i);
+					if(core[w] < k && community[w] < 0 && !queued[w])
+					{
+						queued[w] = true;
+						next[nextSize++] = w;
+					}
+				}
+			}
+			int[] swap = ring;
+			ring = next;
+			next = swap;
+			size = nextSize;
+		}
+	}
+
+	//helper method to run the bucket algorithm, the degree of a vertex ends up as its core number
+	private static int[] computeCoreNumbers(CsrGraph undirected)
+	{
+		int n = undirected.getNumVertices();
+		int[] degree = new int[n];
+		int maxDegree = 0;
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < undirected.getDegree(v); i++)
+			{
+				if(undirected.getNeighbor(v, i) != v) degree[v]++;
+			}
+			maxDegree = Math.max(maxDegree, degree[v]);
+		}
+
+		//bin[d] = position of the first vertex with degree d in vert
+		int[] bin = new int[maxDegree + 1];
+		for(int v = 0; v < n; v++)
+			bin[degree[v]]++;
+		int start = 0;
+		for(int d = 0; d <= maxDegree; d++)
+		{
+			int count = bin[d];
+			bin[d] = start;
+			start += count;
+		}
+		int[] vert = new int[n];
+		int[] pos = new int[n];
+		for(int v = 0; v < n; v++)
+		{
+			pos[v] = bin[degree[v]]++;
+			vert[pos[v]] = v;
+		}
+		for(int d = maxDegree; d > 0; d--)
+			bin[d] = bin[d - 1];
+		bin[0] = 0;
+
+		for(int i = 0; i < n; i++)
+		{
+			int v = vert[i];
+			for(int k = 0; k < undirected.getDegree(v); k++)
+			{
+				int u = undirected.getNeighbor(v, k);
+				if(degree[u] > degree[v])
+				{
+					//swap u with the first vertex of its bucket and move the bucket start past it
+					int du = degree[u];
+					int pu = pos[u];
+					int pw = bin[du];
+					int w = vert[pw];
+					if(u != w)
+					{
+						pos[u] = pw;
+						vert[pu] = w;
+						pos[w] = pu;
+						vert[pw] = u;
+					}
+					bin[du]++;
+					degree[u]--;
+				}
+			}
+		}
+		return degree;
+	}
+}
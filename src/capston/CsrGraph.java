@@ -0,0 +1,475 @@
+package capston;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represent the network as an immutable CSR (compressed sparse row) graph
+ *
+ * The sparse user ids are remapped to dense vertex indices 0..n-1 in ascending id order and
+ * the neighbors of the vertex index v are stored (sorted) in
+ *
+ * 		neighbors[offsets[v]] .. neighbors[offsets[v + 1] - 1]
+ *
+ * 	user id:	  5    9    12
+ * 	index:		  0    1    2
+ * 	offsets:	  0    2    3    4
+ * 	neighbors:	  1    2    0    0			(5 -- 9, 5 -- 12)
+ *
+ * Every adjacency entry costs one int instead of a boxed key, an Edge object and a HashSet
+ * entry in Graph, so the same network takes about an order of magnitude less memory and a
+ * breadth first search only walks two int arrays.
+ */
+public class CsrGraph implements IntGraph
+{
+	//vertex index to user id (ascending)
+	private final int[] vertexIds;
+	//start of each vertex's neighbors, offsets[n] is the total number of adjacency entries
+	private final int[] offsets;
+	//neighbor vertex indices
+	private final int[] neighbors;
+	//undirected edge id of every slot and the first slot of every edge id, built on first use
+	private volatile int[] edgeIds;
+	private int[] edgeSlots;
+
+	CsrGraph(int[] vertexIds, int[] offsets, int[] neighbors)
+	{
+		this.vertexIds = vertexIds;
+		this.offsets = offsets;
+		this.neighbors = neighbors;
+	}
+
+	/**
+	 * Build the CSR representation of a Graph
+	 */
+	public static CsrGraph fromGraph(Graph graph)
+	{
+		Map<Integer, HashSet<Edge>> adjListsMap = graph.getAdjListsMap();
+		List<Integer> verticesList = graph.getVerticesList();
+
+		int numEntries = 0;
+		for(HashSet<Edge> edges : adjListsMap.values())
+			numEntries += edges.size();
+
+		int[] ids = new int[verticesList.size()];
+		for(int i = 0; i < ids.length; i++)
+			ids[i] = verticesList.get(i);
+
+		int[] from = new int[numEntries];
+		int[] to = new int[numEntries];
+		int e = 0;
+		for(HashSet<Edge> edges : adjListsMap.values())
+		{
+			for(Edge edge : edges)
+			{
+				from[e] = edge.getStartNode();
+				to[e] = edge.getEndNode();
+				e++;
+			}
+		}
+		return build(ids, ids.length, from, to, numEntries);
+	}
+
+	/**
+	 * Get the graph as a CsrGraph, a CsrGraph is returned as it is and any other IntGraph is copied
+	 */
+	public static CsrGraph fromIntGraph(IntGraph graph)
+	{
+		if(graph instanceof CsrGraph) return (CsrGraph) graph;
+		if(graph instanceof MappedCsrGraph) return ((MappedCsrGraph) graph).toCsrGraph();
+
+		int n = graph.getNumVertices();
+		int[] vertexIds = new int[n];
+		int[] offsets = new int[n + 1];
+		for(int v = 0; v < n; v++)
+		{
+			vertexIds[v] = graph.getVertexId(v);
+			offsets[v + 1] = offsets[v] + graph.getDegree(v);
+		}
+		int[] neighbors = new int[offsets[n]];
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < graph.getDegree(v); i++)
+				neighbors[offsets[v] + i] = graph.getNeighbor(v, i);
+		}
+		return sortAndRemoveDuplicates(vertexIds, offsets, neighbors);
+	}
+
+	/**
+	 * Load the CSR representation straight from an edge list file (same format as GraphLoader)
+	 */
+	public static CsrGraph fromFile(String filename)
+	{
+		return GraphLoader.loadCsrGraph(filename);
+	}
+
+	/**
+	 * Build the CSR representation from the first numEdges "from --> to" pairs of the arrays.
+	 * Like Graph, each pair is one adjacency entry of the from vertex and repeated pairs are kept once.
+	 */
+	public static CsrGraph fromEdges(int[] from, int[] to, int numEdges)
+	{
+		return build(new int[0], 0, from, to, numEdges);
+	}
+
+	//helper method to build the graph, extraIds are users which may not have any edge
+	private static CsrGraph build(int[] extraIds, int numExtra, int[] from, int[] to, int numEdges)
+	{
+		//collect the distinct user ids
+		int[] ids = new int[numExtra + 2 * numEdges];
+		System.arraycopy(extraIds, 0, ids, 0, numExtra);
+		System.arraycopy(from, 0, ids, numExtra, numEdges);
+		System.arraycopy(to, 0, ids, numExtra + numEdges, numEdges);
+		Arrays.sort(ids);
+
+		int n = 0;
+		for(int i = 0; i < ids.length; i++)
+		{
+			if(n == 0 || ids[i] != ids[n - 1]) ids[n++] = ids[i];
+		}
+		int[] vertexIds = Arrays.copyOf(ids, n);
+
+		//count the degree of each vertex, then turn the counts into offsets
+		int[] offsets = new int[n + 1];
+		for(int e = 0; e < numEdges; e++)
+			offsets[Arrays.binarySearch(vertexIds, from[e]) + 1]++;
+		for(int v = 0; v < n; v++)
+			offsets[v + 1] += offsets[v];
+
+		int[] position = Arrays.copyOf(offsets, n);
+		int[] neighbors = new int[numEdges];
+		for(int e = 0; e < numEdges; e++)
+		{
+			int v = Arrays.binarySearch(vertexIds, from[e]);
+			neighbors[position[v]++] = Arrays.binarySearch(vertexIds, to[e]);
+		}
+
+		return sortAndRemoveDuplicates(vertexIds, offsets, neighbors);
+	}
+
+	//helper method to sort each neighbor list and drop the repeated neighbors
+	private static CsrGraph sortAndRemoveDuplicates(int[] vertexIds, int[] offsets, int[] neighbors)
+	{
+		int n = vertexIds.length;
+		int write = 0;
+		int start = 0;
+		for(int v = 0; v < n; v++)
+		{
+			int end = offsets[v + 1];
+			Arrays.sort(neighbors, start, end);
+			offsets[v] = write;
+			for(int i = start; i < end; i++)
+			{
+				if(i == start || neighbors[i] != neighbors[i - 1]) neighbors[write++] = neighbors[i];
+			}
+			start = end;
+		}
+		offsets[n] = write;
+
+		if(write < neighbors.length) neighbors = Arrays.copyOf(neighbors, write);
+		return new CsrGraph(vertexIds, offsets, neighbors);
+	}
+
+	/**
+	 * Get the undirected version of this graph, every "v --> w" entry also gets its "w --> v" entry
+	 */
+	public CsrGraph toUndirected()
+	{
+		//the reverse is built in linear time, an already undirected graph is returned as it is
+		CsrGraph reverse = reverse();
+		if(Arrays.equals(offsets, reverse.offsets) && Arrays.equals(neighbors, reverse.neighbors)) return this;
+
+		int n = vertexIds.length;
+		int[] newOffsets = new int[n + 1];
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = offsets[v]; i < offsets[v + 1]; i++)
+			{
+				newOffsets[v + 1]++;
+				newOffsets[neighbors[i] + 1]++;
+			}
+		}
+		for(int v = 0; v < n; v++)
+			newOffsets[v + 1] += newOffsets[v];
+
+		int[] position = Arrays.copyOf(newOffsets, n);
+		int[] newNeighbors = new int[2 * neighbors.length];
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = offsets[v]; i < offsets[v + 1]; i++)
+			{
+				int w = neighbors[i];
+				newNeighbors[position[v]++] = w;
+				newNeighbors[position[w]++] = v;
+			}
+		}
+		return sortAndRemoveDuplicates(vertexIds, newOffsets, newNeighbors);
+	}
+
+	/**
+	 * Get the reverse of this graph, every "v --> w" entry becomes "w --> v"
+	 * (i.e. the followers of a user instead of the followed users), an undirected graph stays the same
+	 */
+	public CsrGraph reverse()
+	{
+		int n = vertexIds.length;
+		int[] newOffsets = new int[n + 1];
+		for(int i = 0; i < neighbors.length; i++)
+			newOffsets[neighbors[i] + 1]++;
+		for(int v = 0; v < n; v++)
+			newOffsets[v + 1] += newOffsets[v];
+
+		//the sources are visited in ascending order, so every new neighbor list is already sorted
+		int[] position = Arrays.copyOf(newOffsets, n);
+		int[] newNeighbors = new int[neighbors.length];
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = offsets[v]; i < offsets[v + 1]; i++)
+				newNeighbors[position[neighbors[i]]++] = v;
+		}
+		return new CsrGraph(vertexIds, newOffsets, newNeighbors);
+	}
+
+	/**
+	 * Copy this graph back into a Graph (i.e. for the code which still needs HashSet<Edge> adjacency)
+	 */
+	public Graph toGraph()
+	{
+		Graph graph = new Graph();
+		for(int v = 0; v < vertexIds.length; v++)
+			graph.addVertex(vertexIds[v]);
+
+		for(int v = 0; v < vertexIds.length; v++)
+		{
+			for(int i = offsets[v]; i < offsets[v + 1]; i++)
+				graph.addEdge(vertexIds[v], vertexIds[neighbors[i]]);
+		}
+		return graph;
+	}
+
+	/**
+	 * Copy every part of this graph into its own Graph, with the edges between the users of the part.
+	 * part[v] is the part (0 .. numParts - 1) of the vertex index v, -1 to leave v out.
+	 */
+	public List<Graph> toGraphs(int[] part, int numParts)
+	{
+		List<Graph> graphs = new ArrayList<>();
+		for(int p = 0; p < numParts; p++)
+			graphs.add(new Graph());
+		for(int v = 0; v < vertexIds.length; v++)
+		{
+			if(part[v] >= 0) graphs.get(part[v]).addVertex(vertexIds[v]);
+		}
+		for(int v = 0; v < vertexIds.length; v++)
+		{
+			if(part[v] < 0) continue;
+			Graph graph = graphs.get(part[v]);
+			for(int i = offsets[v]; i < offsets[v + 1]; i++)
+			{
+				int w = neighbors[i];
+				if(w != v && part[w] == part[v]) graph.addEdge(vertexIds[v], vertexIds[w]);
+			}
+		}
+		return graphs;
+	}
+
+	/**
+	 * Get every part of this graph as a view (see InducedSubgraph) instead of a copy, the views share
+	 * the part array so it must not be changed afterwards
+	 */
+	public List<InducedSubgraph> getInducedSubgraphs(int[] part, int numParts)
+	{
+		int[] size = new int[numParts];
+		for(int v = 0; v < vertexIds.length; v++)
+		{
+			if(part[v] >= 0) size[part[v]]++;
+		}
+		int[][] members = new int[numParts][];
+		for(int p = 0; p < numParts; p++)
+			members[p] = new int[size[p]];
+		Arrays.fill(size, 0);
+		for(int v = 0; v < vertexIds.length; v++)
+		{
+			if(part[v] >= 0) members[part[v]][size[part[v]]++] = v;
+		}
+
+		List<InducedSubgraph> views = new ArrayList<>();
+		for(int p = 0; p < numParts; p++)
+			views.add(new InducedSubgraph(this, part, p, members[p]));
+		return views;
+	}
+
+	@Override
+	public int getNumVertices()
+	{
+		return vertexIds.length;
+	}
+
+	@Override
+	public int getNumEdges()
+	{
+		return neighbors.length / 2;
+	}
+
+	@Override
+	public int getDegree(int v)
+	{
+		return offsets[v + 1] - offsets[v];
+	}
+
+	@Override
+	public int getNeighbor(int v, int i)
+	{
+		return neighbors[offsets[v] + i];
+	}
+
+	@Override
+	public int getVertexId(int v)
+	{
+		return vertexIds[v];
+	}
+
+	@Override
+	public int getIndex(int vertexId)
+	{
+		int index = Arrays.binarySearch(vertexIds, vertexId);
+		return index >= 0 ? index : -1;
+	}
+
+	//total number of adjacency entries (both directions of an undirected edge are counted)
+	public int getNumNeighborEntries()
+	{
+		return neighbors.length;
+	}
+
+	//position (slot) of the first neighbor of v in the neighbor array, the i-th neighbor is at slot + i
+	public int getNeighborSlot(int v)
+	{
+		return offsets[v];
+	}
+
+	//neighbor stored at the given slot
+	public int getNeighborAtSlot(int slot)
+	{
+		return neighbors[slot];
+	}
+
+	//slot of the neighbor w in v's neighbor list, or -1 if w is not a neighbor of v
+	public int findNeighborSlot(int v, int w)
+	{
+		int slot = Arrays.binarySearch(neighbors, offsets[v], offsets[v + 1], w);
+		return slot >= 0 ? slot : -1;
+	}
+
+	/**
+	 * Canonical id (0 .. getNumEdgeIds() - 1) of the undirected edge stored at the slot: the two
+	 * entries "v --> w" and "w --> v" share one id, an entry without its reverse has an id of its own.
+	 * The ids are numbered in slot order of the first entry of each edge (the one from the smaller
+	 * vertex index), so per edge scores are one flat array indexed by edge id.
+	 */
+	public int getEdgeId(int slot)
+	{
+		return getEdgeIdArray()[slot];
+	}
+
+	public int getNumEdgeIds()
+	{
+		getEdgeIdArray();
+		return edgeSlots.length;
+	}
+
+	//first slot of the edge, i.e. the entry from the smaller vertex index
+	public int getEdgeSlot(int edgeId)
+	{
+		getEdgeIdArray();
+		return edgeSlots[edgeId];
+	}
+
+	//the array itself, it must not be modified
+	int[] getEdgeIdArray()
+	{
+		int[] ids = edgeIds;
+		if(ids == null) ids = buildEdgeIds();
+		return ids;
+	}
+
+	//helper method to number the edges in one pass, the neighbor lists are sorted so the reverse
+	//entries of w are met in ascending order of their source and a cursor per vertex finds them
+	private synchronized int[] buildEdgeIds()
+	{
+		if(edgeIds != null) return edgeIds;
+
+		int n = vertexIds.length;
+		int[] ids = new int[neighbors.length];
+		Arrays.fill(ids, -1);
+		int[] slots = new int[neighbors.length];
+		int[] cursor = Arrays.copyOf(offsets, n);
+		int count = 0;
+		for(int v = 0; v < n; v++)
+		{
+			for(int slot = offsets[v]; slot < offsets[v + 1]; slot++)
+			{
+				//already numbered from the entry "w --> v", w < v
+				if(ids[slot] >= 0) continue;
+
+				ids[slot] = count;
+				slots[count] = slot;
+				int w = neighbors[slot];
+				if(w > v)
+				{
+					int c = cursor[w];
+					while(c < offsets[w + 1] && neighbors[c] < v)
+						c++;
+					if(c < offsets[w + 1] && neighbors[c] == v) ids[c++] = count;
+					cursor[w] = c;
+				}
+				count++;
+			}
+		}
+		edgeSlots = Arrays.copyOf(slots, count);
+		edgeIds = ids;
+		return ids;
+	}
+
+	//the arrays themselves, i.e. for GraphSnapshot, they must not be modified
+	int[] getVertexIdArray()
+	{
+		return vertexIds;
+	}
+
+	int[] getOffsetArray()
+	{
+		return offsets;
+	}
+
+	int[] getNeighborArray()
+	{
+		return neighbors;
+	}
+
+	//approximate heap size of the graph's arrays in bytes
+	public long getMemoryFootprint()
+	{
+		return 4L * (vertexIds.length + offsets.length + neighbors.length);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder ret = new StringBuilder("\n");
+		for(int v = 0; v < vertexIds.length; v++)
+		{
+			ret.append(vertexIds[v]).append("--> [");
+			for(int i = offsets[v]; i < offsets[v + 1]; i++)
+			{
+				if(i > offsets[v]) ret.append(", ");
+				ret.append(vertexIds[neighbors[i]]);
+			}
+			ret.append("]\n");
+		}
+		return ret.toString();
+	}
+}
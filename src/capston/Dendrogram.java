@@ -0,0 +1,715 @@
+package capston;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.zip.CRC32;
+
+/**
+ * This class record the whole divisive (Girvan-Newman) process once, so the sub-communities for
+ * any minVertices (or any number of communities) are cut from it without running it again
+ *
+ * Every piece of the network is a node of the dendrogram: the roots are the connected components
+ * of the network and the children of a node are the pieces it falls apart into when its maximum
+ * betweenness edges are removed (the removed edges of every node are kept in removal order). The
+ * credits of an edge only come from its own piece, so how a piece is divided does not depend on
+ * minVertices and one run answers every minVertices >= the minVerticesFloor it was built with
+ * (pieces with less than twice of the floor users are not divided).
+ *
+ * The members of every node are one range of the vertex order, the nodes are numbered in pre-order
+ * (a parent before its children). A cut is O(number of nodes + n):
+ * 	cutBySize(m)	same sub-communities as CommunityDetection(graph, m): a piece with at least 2m
+ * 					users is divided, a piece with at least m users is a sub-community, a smaller
+ * 					piece is dropped
+ * 	cutByCount(k)	the biggest pieces are divided first till there are at least k pieces (or
+ * 					nothing can be divided any more), no piece is dropped
+ *
+ * The dendrogram is written next to the edge list (see load), through a temp file which is renamed
+ * over it (see GraphSnapshot.writeAtomically). File format (version 2, all values little endian):
+ *
+ * 	offset	size
+ * 	0		4				magic "GNDG"
+ * 	4		4				format version
+ * 	8		4				number of vertices n
+ * 	12		4				number of nodes
+ * 	16		4				number of removed edges
+ * 	20		4				minVerticesFloor
+ * 	24		8				CRC32 of everything after the header
+ * 	32		8				CRC32 of the CSR offsets and neighbors of the undirected graph
+ * 	40		4 * n			user id of each vertex index (ascending)
+ * 			4 * n			vertex order
+ * 			4 * nodes		start of each node in the vertex order
+ * 			4 * nodes		size of each node
+ * 			4 * nodes		parent of each node, -1 for a root
+ * 			4 * (nodes + 1)	start of the removed edges of each node
+ * 			8 * removed		removed edges as pairs of vertex indices
+ */
+public class Dendrogram
+{
+	public static final int MAGIC = 0x47444E47; //"GNDG" in little endian
+	public static final int VERSION = 2;
+	public static final int HEADER_SIZE = 40;
+	//file extension used for the dendrogram next to an edge list
+	public static final String EXTENSION = ".gnd";
+
+	//undirected graph the dendrogram was built on
+	private final CsrGraph graph;
+	private final int minVerticesFloor;
+	private final int[] order;
+	private final int[] nodeStart;
+	private final int[] nodeSize;
+	private final int[] nodeParent;
+	private final int[] removedOffsets;
+	private final int[] removedEdges;
+
+	//children of every node (derived from the parents)
+	private final int[] childOffsets;
+	private final int[] children;
+	private final int[] roots;
+	//divided nodes, biggest first
+	private final int[] splitOrder;
+
+	private Dendrogram(CsrGraph graph, int minVerticesFloor, int[] order, int[] nodeStart, int[] nodeSize,
+			int[] nodeParent, int[] removedOffsets, int[] removedEdges)
+	{
+		this.graph = graph;
+		this.minVerticesFloor = minVerticesFloor;
+		this.order = order;
+		this.nodeStart = nodeStart;
+		this.nodeSize = nodeSize;
+		this.nodeParent = nodeParent;
+		this.removedOffsets = removedOffsets;
+		this.removedEdges = removedEdges;
+
+		int numNodes = nodeSize.length;
+		childOffsets = new int[numNodes + 1];
+		int numRoots = 0;
+		for(int node = 0; node < numNodes; node++)
+		{
+			if(nodeParent[node] < 0) numRoots++;
+			else childOffsets[nodeParent[node] + 1]++;
+		}
+		for(int node = 0; node < numNodes; node++)
+			childOffsets[node + 1] += childOffsets[node];
+		int[] position = Arrays.copyOf(childOffsets, numNodes);
+		children = new int[numNodes - numRoots];
+		roots = new int[numRoots];
+		numRoots = 0;
+		for(int node = 0; node < numNodes; node++)
+		{
+			if(nodeParent[node] < 0) roots[numRoots++] = node;
+			else children[position[nodeParent[node]]++] = node;
+		}
+
+		//a child is smaller than its parent, so the parent always comes first
+		List<Integer> divided = new ArrayList<>();
+		for(int node = 0; node < numNodes; node++)
+		{
+			if(getNumChildren(node) > 0) divided.add(node);
+		}
+		divided.sort((a, b) -> nodeSize[a] != nodeSize[b] ? Integer.compare(nodeSize[b], nodeSize[a]) : Integer.compare(a, b));
+		splitOrder = new int[divided.size()];
+		for(int k = 0; k < splitOrder.length; k++)
+			splitOrder[k] = divided.get(k);
+	}
+
+	public static Dendrogram build(IntGraph graph, int minVerticesFloor)
+	{
+		return build(graph, minVerticesFloor, 1, null);
+	}
+
+	/**
+	 * Run the divisive process on the (undirected) graph, pieces with less than twice of
+	 * minVerticesFloor users are not divided. numThreads and sampling are used for the betweenness
+	 * (see EdgeBetweenness).
+	 */
+	public static Dendrogram build(IntGraph graph, int minVerticesFloor, int numThreads, BetweennessSampling sampling)
+	{
+		if(minVerticesFloor < 1)
+			throw new IllegalArgumentException("Minimum number of users must be at least 1.");
+
+		return new Builder(CsrGraph.fromIntGraph(graph).toUndirected(), minVerticesFloor, numThreads, sampling).build();
+	}
+
+	/**
+	 * Open the dendrogram of the edge list, it is (re)built and written first if it is missing, older
+	 * than the edge list, built with a bigger minVerticesFloor or can not be opened (i.e. it is broken
+	 * or was built for other edges)
+	 */
+	public static Dendrogram load(String edgeListFile, int minVerticesFloor, int numThreads) throws IOException
+	{
+		IntGraph graph = GraphSnapshot.load(edgeListFile);
+		File edgeList = new File(edgeListFile);
+		File file = new File(getDendrogramFileName(edgeListFile));
+		if(file.exists() && file.lastModified() >= edgeList.lastModified())
+		{
+			try
+			{
+				Dendrogram dendrogram = open(file.getPath(), graph);
+				if(dendrogram.getMinVerticesFloor() <= minVerticesFloor) return dendrogram;
+			}
+			catch(IOException e)
+			{
+				//not a dendrogram of this version and graph (or a broken one), it is rebuilt below
+			}
+		}
+
+		Dendrogram dendrogram = build(graph, minVerticesFloor, numThreads, null);
+		dendrogram.write(file.getPath());
+		return dendrogram;
+	}
+
+	//data/facebook_1000.txt -> data/facebook_1000.gnd
+	public static String getDendrogramFileName(String edgeListFile)
+	{
+		return GraphSnapshot.getFileName(edgeListFile, EXTENSION);
+	}
+
+	/**
+	 * Write the dendrogram to a file (through a temp file, see GraphSnapshot.writeAtomically)
+	 */
+	public void write(String file) throws IOException
+	{
+		GraphSnapshot.writeAtomically(file, channel ->
+		{
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			CRC32 crc = new CRC32();
+
+			//the payload goes first, the header (with the checksum) is written at the end
+			channel.position(HEADER_SIZE);
+			GraphSnapshot.writeInts(channel, buffer, crc, graph.getVertexIdArray());
+			GraphSnapshot.writeInts(channel, buffer, crc, order);
+			GraphSnapshot.writeInts(channel, buffer, crc, nodeStart);
+			GraphSnapshot.writeInts(channel, buffer, crc, nodeSize);
+			GraphSnapshot.writeInts(channel, buffer, crc, nodeParent);
+			GraphSnapshot.writeInts(channel, buffer, crc, removedOffsets);
+			GraphSnapshot.writeInts(channel, buffer, crc, removedEdges);
+
+			buffer.clear();
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(order.length);
+			buffer.putInt(nodeSize.length);
+			buffer.putInt(getNumRemovedEdges());
+			buffer.putInt(minVerticesFloor);
+			buffer.putLong(crc.getValue());
+			buffer.putLong(getAdjacencyChecksum(graph));
+			buffer.flip();
+			channel.position(0);
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+		});
+	}
+
+	/**
+	 * Read a dendrogram file written for the given graph (the same users and edges as when it was built)
+	 */
+	public static Dendrogram open(String file, IntGraph graph) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ))
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while(header.hasRemaining() && channel.read(header) != -1);
+			header.flip();
+			if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC)
+				throw new IOException(file + " is not a dendrogram.");
+
+			int version = header.getInt();
+			if(version != VERSION)
+				throw new IOException(file + " has dendrogram version " + version + ", expected " + VERSION + ".");
+
+			int n = header.getInt();
+			int numNodes = header.getInt();
+			int numRemoved = header.getInt();
+			int minVerticesFloor = header.getInt();
+			long checksum = header.getLong();
+			long adjacencyChecksum = header.getLong();
+			long numInts = 2L * n + 3L * numNodes + (numNodes + 1L) + 2L * numRemoved;
+			if(n < 0 || numNodes < 0 || numRemoved < 0 || channel.size() != HEADER_SIZE + 4L * numInts)
+				throw new IOException(file + " is truncated or corrupted.");
+
+			ByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, 4L * numInts);
+			CRC32 crc = new CRC32();
+			crc.update(payload.duplicate());
+			if(crc.getValue() != checksum)
+				throw new IOException(file + " is truncated or corrupted.");
+
+			IntBuffer ints = payload.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			CsrGraph csrGraph = CsrGraph.fromIntGraph(graph).toUndirected();
+			if(!Arrays.equals(readInts(ints, n), csrGraph.getVertexIdArray()) || getAdjacencyChecksum(csrGraph) != adjacencyChecksum)
+				throw new IOException(file + " was not built for this graph.");
+
+			int[] order = readInts(ints, n);
+			int[] nodeStart = readInts(ints, numNodes);
+			int[] nodeSize = readInts(ints, numNodes);
+			int[] nodeParent = readInts(ints, numNodes);
+			int[] removedOffsets = readInts(ints, numNodes + 1);
+			int[] removedEdges = readInts(ints, 2 * numRemoved);
+			return new Dendrogram(csrGraph, minVerticesFloor, order, nodeStart, nodeSize, nodeParent, removedOffsets, removedEdges);
+		}
+	}
+
+	//helper method to get the CRC32 of the offsets and neighbors (little endian) of the graph
+	private static long getAdjacencyChecksum(CsrGraph graph)
+	{
+		CRC32 crc = new CRC32();
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		for(int[] values : new int[][] {graph.getOffsetArray(), graph.getNeighborArray()})
+		{
+			for(int i = 0; i < values.length; i += buffer.capacity() / 4)
+			{
+				int count = Math.min(values.length - i, buffer.capacity() / 4);
+				buffer.clear();
+				buffer.asIntBuffer().put(values, i, count);
+				crc.update(buffer.array(), 0, 4 * count);
+			}
+		}
+		return crc.getValue();
+	}
+
+	private static int[] readInts(IntBuffer buffer, int length)
+	{
+		int[] values = new int[length];
+		buffer.get(values);
+		return values;
+	}
+
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	//smallest minVertices a cut by size is exact for
+	public int getMinVerticesFloor()
+	{
+		return minVerticesFloor;
+	}
+
+	public int getNumNodes()
+	{
+		return nodeSize.length;
+	}
+
+	//one root per connected component of the network
+	public int[] getRoots()
+	{
+		return roots.clone();
+	}
+
+	public int getNodeSize(int node)
+	{
+		return nodeSize[node];
+	}
+
+	//parent of the node, -1 for a root
+	public int getNodeParent(int node)
+	{
+		return nodeParent[node];
+	}
+
+	public int getNumChildren(int node)
+	{
+		return childOffsets[node + 1] - childOffsets[node];
+	}
+
+	public int getChild(int node, int i)
+	{
+		return children[childOffsets[node] + i];
+	}
+
+	//vertex indices of the users of the node
+	public int[] getMembers(int node)
+	{
+		return Arrays.copyOfRange(order, nodeStart[node], nodeStart[node] + nodeSize[node]);
+	}
+
+	//number of divided nodes (split events)
+	public int getNumSplits()
+	{
+		return splitOrder.length;
+	}
+
+	public int getNumRemovedEdges()
+	{
+		return removedEdges.length / 2;
+	}
+
+	//edges removed from the node before it fell apart, in removal order, as user id pairs {v0, w0, v1, w1, ...}
+	public int[] getRemovedEdges(int node)
+	{
+		int[] edges = Arrays.copyOfRange(removedEdges, 2 * removedOffsets[node], 2 * removedOffsets[node + 1]);
+		for(int k = 0; k < edges.length; k++)
+			edges[k] = graph.getVertexId(edges[k]);
+		return edges;
+	}
+
+	/**
+	 * Cut the dendrogram like CommunityDetection with the given minVertices
+	 */
+	public Cut cutBySize(int minVertices)
+	{
+		if(minVertices < minVerticesFloor)
+			throw new IllegalArgumentException("The dendrogram was built for at least " + minVerticesFloor + " users.");
+
+		boolean[] divided = new boolean[nodeSize.length];
+		List<Integer> communities = new ArrayList<>();
+		Queue<Integer> nodesToCut = new LinkedList<>();
+		for(int root : roots)
+			nodesToCut.add(root);
+		while(!nodesToCut.isEmpty())
+		{
+			int node = nodesToCut.remove();
+			if(nodeSize[node] >= minVertices * 2 && getNumChildren(node) > 0)
+			{
+				divided[node] = true;
+				for(int i = 0; i < getNumChildren(node); i++)
+					nodesToCut.add(getChild(node, i));
+			}
+			else if(nodeSize[node] >= minVertices)
+			{
+				communities.add(node);
+			}
+		}
+		return new Cut(communities, divided);
+	}
+
+	/**
+	 * Divide the biggest pieces first till there are at least numCommunities pieces
+	 */
+	public Cut cutByCount(int numCommunities)
+	{
+		if(numCommunities < 1)
+			throw new IllegalArgumentException("Number of communities must be at least 1.");
+
+		boolean[] divided = new boolean[nodeSize.length];
+		int count = roots.length;
+		for(int k = 0; k < splitOrder.length && count < numCommunities; k++)
+		{
+			divided[splitOrder[k]] = true;
+			count += getNumChildren(splitOrder[k]) - 1;
+		}
+
+		List<Integer> communities = new ArrayList<>();
+		Queue<Integer> nodesToCut = new LinkedList<>();
+		for(int root : roots)
+			nodesToCut.add(root);
+		while(!nodesToCut.isEmpty())
+		{
+			int node = nodesToCut.remove();
+			if(!divided[node])
+			{
+				communities.add(node);
+				continue;
+			}
+			for(int i = 0; i < getNumChildren(node); i++)
+				nodesToCut.add(getChild(node, i));
+		}
+		return new Cut(communities, divided);
+	}
+
+	/**
+	 * This class represent one cut of the dendrogram, the sub-communities are nodes of the dendrogram
+	 */
+	public class Cut
+	{
+		private final int[] nodes;
+		private final boolean[] divided;
+		private int[] community;
+		private List<Graph> subCommunites;
+
+		private Cut(List<Integer> nodes, boolean[] divided)
+		{
+			this.nodes = new int[nodes.size()];
+			for(int k = 0; k < this.nodes.length; k++)
+				this.nodes[k] = nodes.get(k);
+			this.divided = divided;
+		}
+
+		public int getSizeOfSubCommunites()
+		{
+			return nodes.length;
+		}
+
+		//dendrogram node of every sub-community
+		public int[] getNodes()
+		{
+			return nodes.clone();
+		}
+
+		//sub-community of every vertex index (0 .. getSizeOfSubCommunites() - 1), -1 if the user was dropped
+		public int[] getCommunities()
+		{
+			if(community != null) return community;
+
+			community = new int[order.length];
+			Arrays.fill(community, -1);
+			for(int c = 0; c < nodes.length; c++)
+			{
+				int node = nodes[c];
+				for(int k = nodeStart[node]; k < nodeStart[node] + nodeSize[node]; k++)
+					community[order[k]] = c;
+			}
+			return community;
+		}
+
+		/**
+		 * Get the sub-communities, each one with the edges between its users which were not removed
+		 * before it was cut
+		 */
+		public List<Graph> getSubCommunites()
+		{
+			if(subCommunites != null) return subCommunites;
+
+			//the edges removed by the divided nodes
+			boolean[] removedSlot = new boolean[graph.getNumNeighborEntries()];
+			for(int node = 0; node < divided.length; node++)
+			{
+				if(!divided[node]) continue;
+				for(int k = removedOffsets[node]; k < removedOffsets[node + 1]; k++)
+				{
+					int v = removedEdges[2 * k];
+					int w = removedEdges[2 * k + 1];
+					removedSlot[graph.findNeighborSlot(v, w)] = true;
+					removedSlot[graph.findNeighborSlot(w, v)] = true;
+				}
+			}
+
+			List<Graph> graphs = new ArrayList<>();
+			for(int node : nodes)
+			{
+				Graph community = new Graph();
+				int end = nodeStart[node] + nodeSize[node];
+				for(int k = nodeStart[node]; k < end; k++)
+					community.addVertex(graph.getVertexId(order[k]));
+				for(int k = nodeStart[node]; k < end; k++)
+				{
+					int v = order[k];
+					int start = graph.getNeighborSlot(v);
+					for(int slot = start; slot < start + graph.getDegree(v); slot++)
+					{
+						if(!removedSlot[slot])
+							community.addEdge(graph.getVertexId(v), graph.getVertexId(graph.getNeighborAtSlot(slot)));
+					}
+				}
+				graphs.add(community);
+			}
+			subCommunites = Collections.unmodifiableList(graphs);
+			return subCommunites;
+		}
+	}
+
+	/*
+	 * Incremental Girvan-Newman
+	 *
+	 * One EdgeBetweenness engine is shared by all the pieces of the network. The credits of an edge only
+	 * come from roots in its own connected component, so after a split the credits of each piece are
+	 * already right and nothing is recomputed. Removing an edge only recomputes the roots whose
+	 * shortest path DAG contained the edge.
+	 */
+	private static class Builder
+	{
+		private final CsrGraph graph;
+		private final int minVerticesFloor;
+		private final EdgeBetweenness edgeBetweenness;
+		private final ComponentFinder componentFinder;
+
+		//nodes in the order they are found, the members are only kept for the nodes which are not divided
+		private final List<int[]> leafMembers = new ArrayList<>();
+		private final List<Integer> parents = new ArrayList<>();
+		private final List<Integer> sizes = new ArrayList<>();
+		private final List<int[]> removed = new ArrayList<>();
+		private final List<List<Integer>> nodeChildren = new ArrayList<>();
+
+		Builder(CsrGraph graph, int minVerticesFloor, int numThreads, BetweennessSampling sampling)
+		{
+			this.graph = graph;
+			this.minVerticesFloor = minVerticesFloor;
+			edgeBetweenness = new EdgeBetweenness(graph, numThreads, sampling);
+			componentFinder = new ComponentFinder(graph, edgeBetweenness);
+		}
+
+		Dendrogram build()
+		{
+			Queue<int[]> piecesToDivide = new LinkedList<>();
+			Queue<Integer> nodesToDivide = new LinkedList<>();
+			List<Integer> roots = new ArrayList<>();
+
+			//start with the connected components of the whole network
+			int[] allVertices = new int[graph.getNumVertices()];
+			for(int v = 0; v < allVertices.length; v++)
+				allVertices[v] = v;
+			for(int[] component : componentFinder.getComponents(allVertices))
+				roots.add(addNode(-1, component, piecesToDivide, nodesToDivide));
+
+			while(!piecesToDivide.isEmpty())
+			{
+				int[] piece = piecesToDivide.remove();
+				int node = nodesToDivide.remove();
+
+				int[] removedEdges = new int[0];
+				List<int[]> components = Collections.singletonList(piece);
+				while(components.size() == 1)
+				{
+					int[] maxBetweennessEdge = edgeBetweenness.findMaxBetweennessEdges(piece, piece.length);
+					//a piece without edges can not be divided any more
+					if(maxBetweennessEdge.length == 0) break;
+
+					edgeBetweenness.removeEdges(maxBetweennessEdge, maxBetweennessEdge.length / 2);
+					int size = removedEdges.length;
+					removedEdges = Arrays.copyOf(removedEdges, size + maxBetweennessEdge.length);
+					System.arraycopy(maxBetweennessEdge, 0, removedEdges, size, maxBetweennessEdge.length);
+					components = componentFinder.getComponents(piece);
+				}
+
+				if(components.size() == 1)
+				{
+					leafMembers.set(node, piece);
+					continue;
+				}
+				removed.set(node, removedEdges);
+				for(int[] component : components)
+					addNode(node, component, piecesToDivide, nodesToDivide);
+			}
+			return layout(roots);
+		}
+
+		//helper method to add a node for the piece, the piece is queued when it is big enough to be divided
+		private int addNode(int parent, int[] piece, Queue<int[]> piecesToDivide, Queue<Integer> nodesToDivide)
+		{
+			int node = sizes.size();
+			parents.add(parent);
+			sizes.add(piece.length);
+			removed.add(new int[0]);
+			nodeChildren.add(new ArrayList<>());
+			if(parent >= 0) nodeChildren.get(parent).add(node);
+
+			if(piece.length >= minVerticesFloor * 2)
+			{
+				leafMembers.add(null);
+				piecesToDivide.add(piece);
+				nodesToDivide.add(node);
+			}
+			else
+			{
+				leafMembers.add(piece);
+			}
+			return node;
+		}
+
+		//helper method to number the nodes in pre-order and give each node a range of the vertex order
+		private Dendrogram layout(List<Integer> roots)
+		{
+			int numNodes = sizes.size();
+			int[] order = new int[graph.getNumVertices()];
+			int[] nodeStart = new int[numNodes];
+			int[] nodeSize = new int[numNodes];
+			int[] nodeParent = new int[numNodes];
+			int[] removedOffsets = new int[numNodes + 1];
+			int[] newId = new int[numNodes];
+
+			//pre-order walk with an explicit stack, the children are pushed in reverse
+			int numLaidOut = 0;
+			int position = 0;
+			int[] stack = new int[numNodes];
+			int top = 0;
+			for(int r = roots.size() - 1; r >= 0; r--)
+				stack[top++] = roots.get(r);
+			List<Integer> preOrder = new ArrayList<>();
+			while(top > 0)
+			{
+				int node = stack[--top];
+				int id = numLaidOut++;
+				newId[node] = id;
+				preOrder.add(node);
+				nodeStart[id] = position;
+				nodeSize[id] = sizes.get(node);
+				nodeParent[id] = parents.get(node) < 0 ? -1 : newId[parents.get(node)];
+
+				int[] members = leafMembers.get(node);
+				if(members != null)
+				{
+					System.arraycopy(members, 0, order, position, members.length);
+					position += members.length;
+				}
+				List<Integer> children = nodeChildren.get(node);
+				for(int i = children.size() - 1; i >= 0; i--)
+					stack[top++] = children.get(i);
+			}
+
+			int numRemoved = 0;
+			for(int node : preOrder)
+			{
+				removedOffsets[newId[node] + 1] = removed.get(node).length / 2;
+				numRemoved += removed.get(node).length;
+			}
+			for(int id = 0; id < numNodes; id++)
+				removedOffsets[id + 1] += removedOffsets[id];
+			int[] removedEdges = new int[numRemoved];
+			for(int node : preOrder)
+				System.arraycopy(removed.get(node), 0, removedEdges, 2 * removedOffsets[newId[node]], removed.get(node).length);
+
+			return new Dendrogram(graph, minVerticesFloor, order, nodeStart, nodeSize, nodeParent, removedOffsets, removedEdges);
+		}
+	}
+
+	//finds the connected components of a piece, the edges removed from the engine are skipped
+	private static class ComponentFinder
+	{
+		private final CsrGraph graph;
+		private final EdgeBetweenness edgeBetweenness;
+		//visitMark[v] == mark if v has been visited by the current search, so nothing is cleared
+		private final int[] visitMark;
+		private final int[] queue;
+		private int mark;
+
+		ComponentFinder(CsrGraph graph, EdgeBetweenness edgeBetweenness)
+		{
+			this.graph = graph;
+			this.edgeBetweenness = edgeBetweenness;
+			visitMark = new int[graph.getNumVertices()];
+			queue = new int[graph.getNumVertices()];
+		}
+
+		List<int[]> getComponents(int[] piece)
+		{
+			mark++;
+			List<int[]> components = new ArrayList<>();
+			for(int root : piece)
+			{
+				if(visitMark[root] == mark) continue;
+
+				int head = 0;
+				int tail = 0;
+				queue[tail++] = root;
+				visitMark[root] = mark;
+				while(head < tail)
+				{
+					int v = queue[head++];
+					int start = graph.getNeighborSlot(v);
+					for(int slot = start; slot < start + graph.getDegree(v); slot++)
+					{
+						int w = graph.getNeighborAtSlot(slot);
+						if(!edgeBetweenness.isRemoved(slot) && visitMark[w] != mark)
+						{
+							visitMark[w] = mark;
+							queue[tail++] = w;
+						}
+					}
+				}
+				components.add(Arrays.copyOf(queue, tail));
+			}
+			return components;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package capston;
+
+/**
+ * This class represent a directed network (i.e. the follower graph of twitter_higgs.txt) as two
+ * CSR graphs over the same vertex indices:
+ *
+ * 	out		the followed users of every user, "v --> w" as it is in the edge list
+ * 	in		the followers of every user, "w --> v" for every "v --> w" (CsrGraph.reverse)
+ *
+ * so a search can go along the edges or against them without looking up anything. As an IntGraph
+ * the neighbors are the out neighbors.
+ */
+public class DirectedCsrGraph implements IntGraph
+{
+	private final CsrGraph out;
+	private final CsrGraph in;
+
+	//the edges of the graph are taken as they are, "v --> w" only goes from v to w
+	public DirectedCsrGraph(CsrGraph graph)
+	{
+		out = graph;
+		in = graph.reverse();
+	}
+
+	public static DirectedCsrGraph fromIntGraph(IntGraph graph)
+	{
+		return new DirectedCsrGraph(CsrGraph.fromIntGraph(graph));
+	}
+
+	//load the directed graph straight from an edge list file (same format as GraphLoader)
+	public static DirectedCsrGraph fromFile(String filename)
+	{
+		return new DirectedCsrGraph(GraphLoader.loadCsrGraph(filename));
+	}
+
+	public CsrGraph getOutGraph()
+	{
+		return out;
+	}
+
+	public CsrGraph getInGraph()
+	{
+		return in;
+	}
+
+	//number of followed users of the vertex index v
+	public int getOutDegree(int v)
+	{
+		return out.getDegree(v);
+	}
+
+	public int getOutNeighbor(int v, int i)
+	{
+		return out.getNeighbor(v, i);
+	}
+
+	//number of followers of the vertex index v
+	public int getInDegree(int v)
+	{
+		return in.getDegree(v);
+	}
+
+	public int getInNeighbor(int v, int i)
+	{
+		return in.getNeighbor(v, i);
+	}
+
+	//number of directed edges "v --> w"
+	public int getNumArcs()
+	{
+		return out.getNumNeighborEntries();
+	}
+
+	@Override
+	public int getNumVertices()
+	{
+		return out.getNumVertices();
+	}
+
+	@Override
+	public int getNumEdges()
+	{
+		return out.getNumEdges();
+	}
+
+	@Override
+	public int getDegree(int v)
+	{
+		return out.getDegree(v);
+	}
+
+	@Override
+	public int getNeighbor(int v, int i)
+	{
+		return out.getNeighbor(v, i);
+	}
+
+	@Override
+	public int getVertexId(int v)
+	{
+		return out.getVertexId(v);
+	}
+
+	@Override
+	public int getIndex(int vertexId)
+	{
+		return out.getIndex(vertexId);
+	}
+}
@@ -0,0 +1,642 @@
+package capston;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * This class answer exact distance queries from a pruned landmark labeling (2-hop cover) index
+ *
+ * The vertices are ranked by degree (most friends first) and a BFS is run from each of them in
+ * that order. The BFS from the landmark r adds (r, d) to the label of every vertex v it reaches at
+ * distance d, unless the labels of the higher ranked landmarks already give a path of length d
+ * between r and v, and then it does not go on from v (pruning). The distance between s and t is
+ *
+ * 		min { d(s, h) + d(h, t) : h is in the labels of both s and t }
+ *
+ * so a query is a merge of two short sorted label arrays instead of a BFS. On a directed graph every
+ * vertex has an out label (landmarks it can reach) and an in label (landmarks reaching it), built by
+ * a BFS over the followed users and one over the followers from every landmark.
+ *
+ * Each label entry is one int, (landmark rank << 8) | distance, sorted by rank. So the index is
+ * limited to 2^23 vertices and distances below 255.
+ *
+ * The build can be split across threads: after the first landmarks, which prune the most and are
+ * run one by one, batches of landmarks run their BFS at the same time and only prune with the
+ * labels of the earlier batches. The labels are a little bigger but the distances stay exact.
+ *
+ * The index is written next to the edge list (through a temp file which is renamed over it, see
+ * GraphSnapshot.writeAtomically) and memory-mapped when it is opened again.
+ * File format (version 1, all values little endian):
+ *
+ * 	offset	size
+ * 	0		4				magic "PLLI"
+ * 	4		4				format version
+ * 	8		4				number of vertices n
+ * 	12		4				1 if the graph is directed (in labels follow the out labels), else 0
+ * 	16		8				number of out label entries
+ * 	24		8				number of in label entries (0 when undirected)
+ * 	32		8				CRC32 of everything after the header
+ * 	40		4 * n			user id of each vertex index (ascending)
+ * 			4 * (n + 1)		out label offsets
+ * 			4 * entries		out label entries
+ * 			...				in label offsets and entries, only when directed
+ */
+public class DistanceOracle
+{
+	public static final int MAGIC = 0x494C4C50; //"PLLI" in little endian
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 40;
+	//file extension used for the index next to an edge list
+	public static final String EXTENSION = ".pll";
+
+	//landmarks run one by one before the batches start
+	private static final int SEQUENTIAL_LANDMARKS = 256;
+	//landmarks per thread in one batch
+	private static final int BATCH_PER_THREAD = 4;
+	private static final int MAX_DISTANCE = 254;
+	private static final int MAX_VERTICES = 1 << 23;
+	private static final int INFINITY = Integer.MAX_VALUE;
+
+	private final int numVertices;
+	private final boolean directed;
+	private final IntBuffer vertexIds;
+	private final IntBuffer outOffsets;
+	private final IntBuffer outEntries;
+	//the same buffers as the out labels when the graph is undirected
+	private final IntBuffer inOffsets;
+	private final IntBuffer inEntries;
+
+	private DistanceOracle(int numVertices, boolean directed, IntBuffer vertexIds, IntBuffer outOffsets,
+			IntBuffer outEntries, IntBuffer inOffsets, IntBuffer inEntries)
+	{
+		this.numVertices = numVertices;
+		this.directed = directed;
+		this.vertexIds = vertexIds;
+		this.outOffsets = outOffsets;
+		this.outEntries = outEntries;
+		this.inOffsets = inOffsets;
+		this.inEntries = inEntries;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		//build (or open) the index of the given edge list files and print the label statistics
+		String[] files = args.length > 0 ? args : new String[] {"data/facebook_1000.txt", "data/facebook_2000.txt", "data/twitter_higgs.txt"};
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		for(String edgeListFile : files)
+		{
+			long start = System.nanoTime();
+			DistanceOracle oracle = load(edgeListFile, numThreads);
+			long loaded = System.nanoTime();
+
+			//average query time over random pairs of users
+			Random random = new Random(7);
+			int numQueries = 100000;
+			int n = oracle.getNumVertices();
+			int checksum = 0;
+			long queryStart = System.nanoTime();
+			for(int k = 0; k < numQueries; k++)
+				checksum += oracle.getDistanceOfIndices(random.nextInt(n), random.nextInt(n));
+			long queried = System.nanoTime();
+
+			System.out.printf("%s: loaded in %.1f ms, %s, %.2f us per query (checksum %d)%n", edgeListFile,
+					(loaded - start) / 1e6, oracle, (queried - queryStart) / 1e3 / numQueries, checksum);
+		}
+	}
+
+	/**
+	 * Build the index of a graph, with numThreads > 1 the landmark batches are split across a
+	 * ForkJoinPool of that many threads
+	 */
+	public static DistanceOracle build(IntGraph graph, int numThreads)
+	{
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+		if(graph.getNumVertices() >= MAX_VERTICES)
+			throw new IllegalArgumentException("The distance oracle supports less than " + MAX_VERTICES + " vertices.");
+
+		return new Builder(CsrGraph.fromIntGraph(graph), numThreads).build();
+	}
+
+	/**
+	 * Open the index of the edge list, the index is (re)built and written first if it is missing, older
+	 * than the edge list or can not be opened (i.e. its checksum does not match)
+	 */
+	public static DistanceOracle load(String edgeListFile, int numThreads) throws IOException
+	{
+		File edgeList = new File(edgeListFile);
+		File index = new File(getIndexFileName(edgeListFile));
+		if(index.exists() && index.lastModified() >= edgeList.lastModified())
+		{
+			try
+			{
+				return open(index.getPath());
+			}
+			catch(IOException e)
+			{
+				//not an index of this version (or a broken one), it is rebuilt below
+			}
+		}
+
+		build(GraphSnapshot.load(edgeListFile), numThreads).write(index.getPath());
+		return open(index.getPath());
+	}
+
+	//data/facebook_1000.txt -> data/facebook_1000.pll
+	public static String getIndexFileName(String edgeListFile)
+	{
+		return GraphSnapshot.getFileName(edgeListFile, EXTENSION);
+	}
+
+	/**
+	 * Write the index to a file (through a temp file, see GraphSnapshot.writeAtomically)
+	 */
+	public void write(String indexFile) throws IOException
+	{
+		GraphSnapshot.writeAtomically(indexFile, channel ->
+		{
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			CRC32 crc = new CRC32();
+
+			//the payload goes first, the header (with the checksum) is written at the end
+			channel.position(HEADER_SIZE);
+			GraphSnapshot.writeInts(channel, buffer, crc, toArray(vertexIds));
+			GraphSnapshot.writeInts(channel, buffer, crc, toArray(outOffsets));
+			GraphSnapshot.writeInts(channel, buffer, crc, toArray(outEntries));
+			if(directed)
+			{
+				GraphSnapshot.writeInts(channel, buffer, crc, toArray(inOffsets));
+				GraphSnapshot.writeInts(channel, buffer, crc, toArray(inEntries));
+			}
+
+			buffer.clear();
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(numVertices);
+			buffer.putInt(directed ? 1 : 0);
+			buffer.putLong(outEntries.limit());
+			buffer.putLong(directed ? inEntries.limit() : 0);
+			buffer.putLong(crc.getValue());
+			buffer.flip();
+			channel.position(0);
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+		});
+	}
+
+	/**
+	 * Memory-map an index file, the checksum is checked (this reads the whole file once)
+	 */
+	public static DistanceOracle open(String indexFile) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(Paths.get(indexFile), StandardOpenOption.READ))
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while(header.hasRemaining() && channel.read(header) != -1);
+			header.flip();
+			if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC)
+				throw new IOException(indexFile + " is not a distance oracle index.");
+
+			int version = header.getInt();
+			if(version != VERSION)
+				throw new IOException(indexFile + " has index version " + version + ", expected " + VERSION + ".");
+
+			int numVertices = header.getInt();
+			boolean directed = header.getInt() == 1;
+			long numOutEntries = header.getLong();
+			long numInEntries = header.getLong();
+			long checksum = header.getLong();
+
+			long numInts = numVertices + (numVertices + 1L) + numOutEntries;
+			if(directed) numInts += (numVertices + 1L) + numInEntries;
+			if(numVertices < 0 || numOutEntries < 0 || numInEntries < 0 || numOutEntries > Integer.MAX_VALUE
+					|| numInEntries > Integer.MAX_VALUE || channel.size() != HEADER_SIZE + 4L * numInts)
+				throw new IOException(indexFile + " is truncated or corrupted.");
+
+			CRC32 crc = new CRC32();
+			long position = HEADER_SIZE;
+			IntBuffer vertexIds = map(channel, position, numVertices, crc);
+			position += 4L * numVertices;
+			IntBuffer outOffsets = map(channel, position, numVertices + 1, crc);
+			position += 4L * (numVertices + 1);
+			IntBuffer outEntries = map(channel, position, (int) numOutEntries, crc);
+			position += 4L * numOutEntries;
+			IntBuffer inOffsets = outOffsets;
+			IntBuffer inEntries = outEntries;
+			if(directed)
+			{
+				inOffsets = map(channel, position, numVertices + 1, crc);
+				position += 4L * (numVertices + 1);
+				inEntries = map(channel, position, (int) numInEntries, crc);
+			}
+			if(crc.getValue() != checksum)
+				throw new IOException(indexFile + " is truncated or corrupted.");
+
+			return new DistanceOracle(numVertices, directed, vertexIds, outOffsets, outEntries, inOffsets, inEntries);
+		}
+	}
+
+	//helper method to map length ints of the file (a single mapping is limited to 2 GB) and add them to the checksum
+	private static IntBuffer map(FileChannel channel, long position, int length, CRC32 crc) throws IOException
+	{
+		if(4L * length > Integer.MAX_VALUE)
+			throw new IOException("Index sections bigger than 2 GB are not supported.");
+		ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * length);
+		crc.update(bytes.duplicate());
+		return bytes.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+	}
+
+	private static int[] toArray(IntBuffer buffer)
+	{
+		if(buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.array().length == buffer.limit()) return buffer.array();
+		int[] array = new int[buffer.limit()];
+		buffer.duplicate().get(array);
+		return array;
+	}
+
+	/**
+	 * Get the number of edges on a shortest path between the two users, -1 if there is no path
+	 */
+	public int getDistance(int startId, int goalId)
+	{
+		return getDistanceOfIndices(getVertexIndex(startId), getVertexIndex(goalId));
+	}
+
+	//same as above with vertex indices
+	public int getDistanceOfIndices(int start, int goal)
+	{
+		int i = outOffsets.get(start);
+		int iEnd = outOffsets.get(start + 1);
+		int j = inOffsets.get(goal);
+		int jEnd = inOffsets.get(goal + 1);
+
+		int best = INFINITY;
+		while(i < iEnd && j < jEnd)
+		{
+			int a = outEntries.get(i);
+			int b = inEntries.get(j);
+			int hubA = a >>> 8;
+			int hubB = b >>> 8;
+			if(hubA < hubB) i++;
+			else if(hubA > hubB) j++;
+			else
+			{
+				best = Math.min(best, (a & 0xFF) + (b & 0xFF));
+				i++;
+				j++;
+			}
+		}
+		return best == INFINITY ? -1 : best;
+	}
+
+	//vertex index of the user id, the ids are stored in ascending order
+	private int getVertexIndex(int vertexId)
+	{
+		int low = 0;
+		int high = numVertices - 1;
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			int id = vertexIds.get(middle);
+			if(id < vertexId) low = middle + 1;
+			else if(id > vertexId) high = middle - 1;
+			else return middle;
+		}
+		throw new IllegalArgumentException("User " + vertexId + " is not in the graph.");
+	}
+
+	public int getNumVertices()
+	{
+		return numVertices;
+	}
+
+	public boolean isDirected()
+	{
+		return directed;
+	}
+
+	//total number of label entries (out and in labels)
+	public long getNumLabelEntries()
+	{
+		return outEntries.limit() + (directed ? (long) inEntries.limit() : 0L);
+	}
+
+	//average number of entries per label
+	public double getAverageLabelSize()
+	{
+		int numLabels = directed ? 2 * numVertices : numVertices;
+		return numLabels == 0 ? 0.0 : (double) getNumLabelEntries() / numLabels;
+	}
+
+	public int getMaxLabelSize()
+	{
+		int max = 0;
+		for(int v = 0; v < numVertices; v++)
+		{
+			max = Math.max(max, outOffsets.get(v + 1) - outOffsets.get(v));
+			if(directed) max = Math.max(max, inOffsets.get(v + 1) - inOffsets.get(v));
+		}
+		return max;
+	}
+
+	//bytes used by the index (heap arrays or mapped file, without the header)
+	public long getMemoryFootprint()
+	{
+		long numInts = vertexIds.limit() + outOffsets.limit() + outEntries.limit();
+		if(directed) numInts += inOffsets.limit() + inEntries.limit();
+		return 4L * numInts;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("DistanceOracle[%d vertices, %s, %d label entries, average label %.1f, max label %d, %.1f MB]",
+				numVertices, directed ? "directed" : "undirected", getNumLabelEntries(), getAverageLabelSize(),
+				getMaxLabelSize(), getMemoryFootprint() / (1024.0 * 1024.0));
+	}
+
+	//pruned BFS from the landmarks in rank order, the labels grow per vertex till they are packed
+	private static class Builder
+	{
+		private final CsrGraph graph;
+		//followers of every vertex, the graph itself when it is undirected
+		private final CsrGraph reverse;
+		private final boolean directed;
+		private final int numThreads;
+		private final int n;
+
+		//landmark of each rank, highest degree first
+		private final int[] landmarks;
+		//labels being built, entries of vertex v are label[v][0 .. labelSize[v] - 1]
+		private final int[][] outLabel;
+		private final int[] outLabelSize;
+		private final int[][] inLabel;
+		private final int[] inLabelSize;
+
+		Builder(CsrGraph graph, int numThreads)
+		{
+			this.graph = graph;
+			this.numThreads = numThreads;
+			n = graph.getNumVertices();
+			CsrGraph reverse = graph.reverse();
+			directed = !(Arrays.equals(graph.getOffsetArray(), reverse.getOffsetArray())
+					&& Arrays.equals(graph.getNeighborArray(), reverse.getNeighborArray()));
+			this.reverse = directed ? reverse : graph;
+
+			//sort the vertices by degree with a counting sort, the lower index first between equal degrees
+			int[] degree = new int[n];
+			int maxDegree = 0;
+			for(int v = 0; v < n; v++)
+			{
+				degree[v] = graph.getDegree(v) + (directed ? this.reverse.getDegree(v) : 0);
+				maxDegree = Math.max(maxDegree, degree[v]);
+			}
+			int[] start = new int[maxDegree + 2];
+			for(int v = 0; v < n; v++)
+				start[maxDegree - degree[v] + 1]++;
+			for(int d = 0; d <= maxDegree; d++)
+				start[d + 1] += start[d];
+			landmarks = new int[n];
+			for(int v = 0; v < n; v++)
+				landmarks[start[maxDegree - degree[v]]++] = v;
+
+			outLabel = new int[n][];
+			outLabelSize = new int[n];
+			inLabel = directed ? new int[n][] : outLabel;
+			inLabelSize = directed ? new int[n] : outLabelSize;
+		}
+
+		DistanceOracle build()
+		{
+			Searcher searcher = new Searcher(this);
+			int rank = Math.min(n, SEQUENTIAL_LANDMARKS);
+			for(int r = 0; r < rank; r++)
+				addLabels(r, searcher.search(r));
+
+			if(rank < n)
+			{
+				if(numThreads == 1)
+				{
+					for(int r = rank; r < n; r++)
+						addLabels(r, searcher.search(r));
+				}
+				else
+				{
+					//each thread of the pool gets its own searcher the first time it runs a task
+					ThreadLocal<Searcher> threadSearcher = ThreadLocal.withInitial(() -> new Searcher(this));
+					int batchSize = numThreads * BATCH_PER_THREAD;
+					int[][][] results = new int[batchSize][][];
+					ForkJoinPool pool = new ForkJoinPool(numThreads);
+					try
+					{
+						for(; rank < n; rank += batchSize)
+						{
+							int count = Math.min(batchSize, n - rank);
+							pool.invoke(new LandmarkRangeTask(threadSearcher, results, rank, 0, count));
+							//added in rank order so every label stays sorted
+							for(int k = 0; k < count; k++)
+								addLabels(rank + k, results[k]);
+						}
+					}
+					finally
+					{
+						pool.shutdown();
+					}
+				}
+			}
+			return pack();
+		}
+
+		//add the entries found by the BFS of the landmark rank, {out: vertex, distance ..., in: ...}
+		private void addLabels(int rank, int[][] found)
+		{
+			int[] reachedFrom = found[0];
+			for(int k = 0; k < reachedFrom.length; k += 2)
+				append(inLabel, inLabelSize, reachedFrom[k], (rank << 8) | reachedFrom[k + 1]);
+			if(!directed) return;
+			int[] reaching = found[1];
+			for(int k = 0; k < reaching.length; k += 2)
+				append(outLabel, outLabelSize, reaching[k], (rank << 8) | reaching[k + 1]);
+		}
+
+		private static void append(int[][] label, int[] labelSize, int v, int entry)
+		{
+			int[] entries = label[v];
+			if(entries == null) label[v] = entries = new int[4];
+			else if(labelSize[v] == entries.length) label[v] = entries = Arrays.copyOf(entries, 2 * entries.length);
+			entries[labelSize[v]++] = entry;
+		}
+
+		//copy the labels into one array per direction, releasing the per vertex arrays on the way
+		private DistanceOracle pack()
+		{
+			IntBuffer vertexIds = IntBuffer.wrap(graph.getVertexIdArray().clone());
+			int[][] packedOut = pack(outLabel, outLabelSize);
+			IntBuffer outOffsets = IntBuffer.wrap(packedOut[0]);
+			IntBuffer outEntries = IntBuffer.wrap(packedOut[1]);
+			if(!directed) return new DistanceOracle(n, false, vertexIds, outOffsets, outEntries, outOffsets, outEntries);
+
+			int[][] packedIn = pack(inLabel, inLabelSize);
+			return new DistanceOracle(n, true, vertexIds, outOffsets, outEntries, IntBuffer.wrap(packedIn[0]), IntBuffer.wrap(packedIn[1]));
+		}
+
+		private int[][] pack(int[][] label, int[] labelSize)
+		{
+			int[] offsets = new int[n + 1];
+			for(int v = 0; v < n; v++)
+			{
+				if(offsets[v] + (long) labelSize[v] > Integer.MAX_VALUE)
+					throw new IllegalStateException("The labels have more than " + Integer.MAX_VALUE + " entries.");
+				offsets[v + 1] = offsets[v] + labelSize[v];
+			}
+			int[] entries = new int[offsets[n]];
+			for(int v = 0; v < n; v++)
+			{
+				if(labelSize[v] > 0) System.arraycopy(label[v], 0, entries, offsets[v], labelSize[v]);
+				label[v] = null;
+			}
+			return new int[][] {offsets, entries};
+		}
+	}
+
+	//pruned BFS of one landmark at a time, with its own scratch arrays
+	private static class Searcher
+	{
+		private final Builder builder;
+		//distance from the landmark through its own label, indexed by rank (INFINITY if not a hub)
+		private final int[] hubDistance;
+		private final int[] distance;
+		private final int[] queue;
+		//entries found by the current BFS, pairs of vertex and distance
+		private int[] found = new int[64];
+		private int numFound;
+
+		Searcher(Builder builder)
+		{
+			this.builder = builder;
+			hubDistance = new int[builder.n];
+			distance = new int[builder.n];
+			queue = new int[builder.n];
+			Arrays.fill(hubDistance, INFINITY);
+			Arrays.fill(distance, -1);
+		}
+
+		//{entries reached from the landmark (in labels), entries reaching it (out labels, directed only)}
+		int[][] search(int rank)
+		{
+			int[][] result = new int[2][];
+			//reached from the landmark: prune with its out label against the in labels
+			result[0] = search(rank, builder.graph, builder.outLabel, builder.outLabelSize, builder.inLabel, builder.inLabelSize);
+			if(builder.directed)
+				result[1] = search(rank, builder.reverse, builder.inLabel, builder.inLabelSize, builder.outLabel, builder.outLabelSize);
+			return result;
+		}
+
+		private int[] search(int rank, CsrGraph graph, int[][] rootLabel, int[] rootLabelSize, int[][] label, int[] labelSize)
+		{
+			int root = builder.landmarks[rank];
+			int[] rootEntries = rootLabel[root];
+			for(int k = 0; k < rootLabelSize[root]; k++)
+				hubDistance[rootEntries[k] >>> 8] = rootEntries[k] & 0xFF;
+			hubDistance[rank] = 0;
+
+			numFound = 0;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = root;
+			distance[root] = 0;
+			while(head < tail)
+			{
+				int v = queue[head++];
+				int d = distance[v];
+				if(isCovered(v, d, label, labelSize)) continue;
+				if(d > MAX_DISTANCE)
+					throw new IllegalStateException("The distance oracle supports distances up to " + MAX_DISTANCE + ".");
+
+				add(v, d);
+				int slot = graph.getNeighborSlot(v);
+				int end = slot + graph.getDegree(v);
+				for(; slot < end; slot++)
+				{
+					int w = graph.getNeighborAtSlot(slot);
+					if(distance[w] >= 0) continue;
+					distance[w] = d + 1;
+					queue[tail++] = w;
+				}
+			}
+
+			//reset only what this BFS touched
+			for(int k = 0; k < tail; k++)
+				distance[queue[k]] = -1;
+			for(int k = 0; k < rootLabelSize[root]; k++)
+				hubDistance[rootEntries[k] >>> 8] = INFINITY;
+			hubDistance[rank] = INFINITY;
+			return Arrays.copyOf(found, 2 * numFound);
+		}
+
+		//the labels already give a path of length at most d between the landmark and v
+		private boolean isCovered(int v, int d, int[][] label, int[] labelSize)
+		{
+			int[] entries = label[v];
+			for(int k = 0; k < labelSize[v]; k++)
+			{
+				int hub = hubDistance[entries[k] >>> 8];
+				if(hub != INFINITY && hub + (entries[k] & 0xFF) <= d) return true;
+			}
+			return false;
+		}
+
+		private void add(int v, int d)
+		{
+			if(2 * numFound + 2 > found.length) found = Arrays.copyOf(found, 2 * found.length);
+			found[2 * numFound] = v;
+			found[2 * numFound + 1] = d;
+			numFound++;
+		}
+	}
+
+	//fork join task which splits a batch of landmarks, each one is searched by the thread's searcher
+	private static class LandmarkRangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final ThreadLocal<Searcher> threadSearcher;
+		private final int[][][] results;
+		private final int firstRank;
+		private final int start;
+		private final int end;
+
+		LandmarkRangeTask(ThreadLocal<Searcher> threadSearcher, int[][][] results, int firstRank, int start, int end)
+		{
+			this.threadSearcher = threadSearcher;
+			this.results = results;
+			this.firstRank = firstRank;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(end - start == 1)
+			{
+				results[start] = threadSearcher.get().search(firstRank + start);
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new LandmarkRangeTask(threadSearcher, results, firstRank, start, middle),
+					new LandmarkRangeTask(threadSearcher, results, firstRank, middle, end));
+		}
+	}
+}
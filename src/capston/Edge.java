@@ -25,6 +25,11 @@ public class Edge
 	{
 		this.credit += credit;
 	}
+	//reset edge weight
+	public void resetCredit()
+	{
+		credit = 0.0;
+	}
 	//get the stat node
 	public int getStartNode()
 	{
@@ -41,13 +46,29 @@ public class Edge
 		return credit;	
 	}
 	
+	/**
+	 * Canonical key of the undirected edge between a and b, the smaller id in the high half:
+	 * getKey(a, b) == getKey(b, a) and two different edges never share a key
+	 */
+	public static long getKey(int a, int b)
+	{
+		int min = Math.min(a, b);
+		int max = Math.max(a, b);
+		return ((long) min << 32) | (max & 0xFFFFFFFFL);
+	}
+	
+	//canonical key of this edge, the same for both directions (see equals)
+	public long getKey()
+	{
+		return getKey(startNode, endNode);
+	}
+	
 	@Override
 	public int hashCode() 
 	{
-		final int prime = 31;
-		return prime * (startNode + endNode);
-	
-		
+		//the key is mixed, so edges with the same sum of ids (1, 10), (2, 9) ... do not collide
+		long h = getKey() * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
 	}
 
 	@Override
@@ -0,0 +1,941 @@
+package capston;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class calculate the edge betweenness of a CSR graph with Brandes' algorithm
+ *
+ * For each root s (one breadth first search, O(|E|)):
+ * 	1. BFS from s, sigma[v] = number of shortest paths from s to v,
+ * 	   sigma[root] = 1 and sigma[child] = sum of sigma of the parents (nodes one level above)
+ * 	2. Visit the nodes in reverse BFS order (leaf nodes first), each node w gives every parent v
+ *
+ * 			credit(v, w) = sigma[v] / sigma[w] * (1 + delta[w])
+ *
+ * 	   where delta[w] is the sum of the credits of the DAG edges from w to the level below.
+ * 	   This is the same credit as Graph.setCredit (leaf gets 1, others 1 + credits from below)
+ * 	   but every value is kept in an array indexed by the vertex index.
+ *
+ * The credits of all roots are added, and as every shortest path is counted from both of its
+ * ends the sum is divided by 2. Total time complexity O(|V| * |E|).
+ *
+ * The per-root state is a ShortestPathDag (distance, sigma, parents and BFS order in arrays),
+ * allocated once and reused for every root, only the vertices reached by the last BFS are reset.
+ *
+ * The roots are independent of each other, so with more than one thread they are split across
+ * a ForkJoinPool. Every pool thread has its own Worker (scratch arrays and credit array) and the
+ * credit arrays of the workers are added together when all the roots are done. The credits are
+ * indexed by the undirected edge id of the CSR graph (both adjacency entries of an edge add to one
+ * value, see CsrGraph.getEdgeId), so adding them is one loop over a flat array.
+ *
+ * Edges can be removed from the engine (Girvan-Newman). An edge (u, v) is a DAG edge of the
+ * root r only if u and v have different distance from r, so only those roots are recomputed:
+ * their old credits are subtracted, the edge is removed and their new credits are added.
+ * Roots in other connected components never reach u or v and are not touched.
+ *
+ * With a BetweennessSampling the credits are estimated from random shortest paths instead of a BFS
+ * from every root (see BetweennessSampling). The paths are sampled again for the vertices asked by
+ * every findMaxBetweennessEdges call, so an edge removal only marks the edge as removed (up to 256
+ * vertices the credits are computed exactly, that is cheaper than the samples). Each sample
+ * has its own random generator seeded from the sample number, so the result does not depend on
+ * the number of threads.
+ */
+public class EdgeBetweenness
+{
+	//two credits are treated as equal when they differ less than this (relative) value
+	private static final double EPSILON = 1e-9;
+	//less roots than this are always computed on the calling thread
+	private static final int MIN_PARALLEL_ROOTS = 64;
+	//samples before the first check of the leader, and most samples between two checks
+	private static final int FIRST_CHECK_SAMPLES = 256;
+	private static final int MAX_CHECK_SAMPLES = 1 << 16;
+	//the credits of this many vertices or less are computed exactly, sampling would cost more
+	private static final int MAX_EXACT_VERTICES = 256;
+
+	private final CsrGraph graph;
+	private final int numThreads;
+
+	//undirected edge id of each adjacency entry (neighbor slot), see CsrGraph.getEdgeId
+	private final int[] edgeId;
+	//credit of each undirected edge, from both of its entries
+	private final double[] edgeCredit;
+	//removed adjacency entries, they are skipped by every BFS
+	private final boolean[] removedSlot;
+	private boolean computed;
+
+	//null for the exact betweenness
+	private final BetweennessSampling sampling;
+	//hits of each undirected edge by the sampled paths, sampler used on the calling thread
+	private int[] edgeHits;
+	private ReverseAdjacency reverseAdjacency;
+	private Sampler sampler;
+	//BFS and marks to bound the length of the shortest paths of the sampled vertices
+	private ShortestPathDag diameterDag;
+	private boolean[] seen;
+	//number of samples of the last sampling and whether its leader was separated
+	private long numSamples;
+	private boolean separated;
+
+	//worker used on the calling thread, created on first use
+	private Worker worker;
+
+	//scratch arrays to find the roots affected by an edge removal
+	private int[] distanceFromStart;
+	private int[] distanceFromEnd;
+	private int[] orderFromStart;
+	private int[] orderFromEnd;
+	private boolean[] affected;
+	private int[] affectedRoots;
+	private boolean[] inComponent;
+	private int[] componentVertices;
+	private int numComponentVertices;
+
+	public EdgeBetweenness(CsrGraph graph)
+	{
+		this(graph, 1);
+	}
+
+	/**
+	 * With numThreads > 1 the roots are split across a ForkJoinPool of that many threads
+	 */
+	public EdgeBetweenness(CsrGraph graph, int numThreads)
+	{
+		this(graph, numThreads, null);
+	}
+
+	/**
+	 * With a sampling (not null) the credits are estimated from sampled shortest paths
+	 */
+	public EdgeBetweenness(CsrGraph graph, int numThreads, BetweennessSampling sampling)
+	{
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+
+		this.graph = graph;
+		this.numThreads = numThreads;
+		this.sampling = sampling;
+		edgeId = graph.getEdgeIdArray();
+		edgeCredit = new double[graph.getNumEdgeIds()];
+		removedSlot = new boolean[graph.getNumNeighborEntries()];
+	}
+
+	/**
+	 * Calculate the credit of every edge from all the roots of the graph
+	 */
+	public void compute()
+	{
+		int n = graph.getNumVertices();
+		if(sampling != null)
+		{
+			sample(null, n);
+			computed = true;
+			return;
+		}
+
+		int[] roots = new int[n];
+		for(int root = 0; root < n; root++)
+			roots[root] = root;
+
+		Arrays.fill(edgeCredit, 0.0);
+		accumulate(roots, n, 1.0);
+		computed = true;
+	}
+
+	//add (sign 1) or subtract (sign -1) the credits of the given roots
+	private void accumulate(int[] roots, int count, double sign)
+	{
+		if(numThreads == 1 || count < MIN_PARALLEL_ROOTS)
+		{
+			if(worker == null) worker = new Worker(graph, removedSlot, edgeId, edgeCredit);
+			for(int k = 0; k < count; k++)
+				worker.accumulateRoot(roots[k], sign);
+			return;
+		}
+
+		//each thread of the pool gets its own worker (scratch arrays and credits) the first time
+		//it runs a task, so the roots are processed without any shared state
+		Queue<Worker> workers = new ConcurrentLinkedQueue<>();
+		ThreadLocal<Worker> threadWorker = ThreadLocal.withInitial(() -> {
+			Worker worker = new Worker(graph, removedSlot, edgeId, new double[edgeCredit.length]);
+			workers.add(worker);
+			return worker;
+		});
+
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try
+		{
+			int grain = Math.max(1, count / (numThreads * 16));
+			pool.invoke(new RootRangeTask(threadWorker, roots, 0, count, sign, grain));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		//add the credits of all the workers
+		for(Worker worker : workers)
+		{
+			double[] credit = worker.edgeCredit;
+			for(int e = 0; e < credit.length; e++)
+				edgeCredit[e] += credit[e];
+		}
+	}
+
+	//fork join task which splits a range of roots till it is small enough to be run by one worker
+	private static class RootRangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final ThreadLocal<Worker> threadWorker;
+		private final int[] roots;
+		private final int start;
+		private final int end;
+		private final double sign;
+		private final int grain;
+
+		RootRangeTask(ThreadLocal<Worker> threadWorker, int[] roots, int start, int end, double sign, int grain)
+		{
+			this.threadWorker = threadWorker;
+			this.roots = roots;
+			this.start = start;
+			this.end = end;
+			this.sign = sign;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(end - start <= grain)
+			{
+				Worker worker = threadWorker.get();
+				for(int k = start; k < end; k++)
+					worker.accumulateRoot(roots[k], sign);
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new RootRangeTask(threadWorker, roots, start, middle, sign, grain),
+					new RootRangeTask(threadWorker, roots, middle, end, sign, grain));
+		}
+	}
+
+	//per root state of Brandes' algorithm (the shortest path DAG) and the credits added by the roots this worker has run
+	private static class Worker
+	{
+		private final ShortestPathDag dag;
+		private final int[] edgeId;
+		private final double[] edgeCredit;
+
+		Worker(CsrGraph graph, boolean[] removedSlot, int[] edgeId, double[] edgeCredit)
+		{
+			dag = new ShortestPathDag(graph, removedSlot);
+			this.edgeId = edgeId;
+			this.edgeCredit = edgeCredit;
+		}
+
+		//one BFS and one reverse pass from the given root, credits * sign are added to edgeCredit
+		void accumulateRoot(int root, double sign)
+		{
+			dag.compute(root);
+			dag.accumulateCredits(edgeCredit, edgeId, sign);
+		}
+	}
+
+	/**
+	 * Remove the edges given as pairs of vertex indices {v0, w0, v1, w1, ...} and update the credits.
+	 * Only the roots whose shortest path DAG contains one of the edges are recomputed, and when they
+	 * are more than half of the connected component, the component is simply recomputed from scratch
+	 * (subtracting and adding back would cost more).
+	 *
+	 * @return the number of recomputed roots
+	 */
+	public int removeEdges(int[] edges, int numEdges)
+	{
+		if(sampling != null)
+		{
+			//the paths are sampled again by the next query
+			removeSlots(edges, numEdges);
+			computed = false;
+			return 0;
+		}
+		if(!computed) compute();
+
+		int numAffected = collectAffectedRoots(edges, numEdges);
+
+		if(2 * numAffected > numComponentVertices)
+		{
+			//credits of the component's edges only come from roots inside the component
+			for(int k = 0; k < numComponentVertices; k++)
+			{
+				clearCredits(componentVertices[k]);
+			}
+			removeSlots(edges, numEdges);
+			accumulate(componentVertices, numComponentVertices, 1.0);
+			return numComponentVertices;
+		}
+
+		accumulate(affectedRoots, numAffected, -1.0);
+		removeSlots(edges, numEdges);
+		accumulate(affectedRoots, numAffected, 1.0);
+		return numAffected;
+	}
+
+	//helper method to mark both adjacency entries of the edges as removed
+	private void removeSlots(int[] edges, int numEdges)
+	{
+		for(int k = 0; k < numEdges; k++)
+		{
+			int v = edges[2 * k];
+			int w = edges[2 * k + 1];
+			removeSlot(graph.findNeighborSlot(v, w));
+			removeSlot(graph.findNeighborSlot(w, v));
+		}
+	}
+
+	//helper method to mark one adjacency entry as removed
+	private void removeSlot(int slot)
+	{
+		if(slot < 0) return;
+		removedSlot[slot] = true;
+		edgeCredit[edgeId[slot]] = 0.0;
+	}
+
+	//helper method to clear the credits of the edges of v
+	private void clearCredits(int v)
+	{
+		int start = graph.getNeighborSlot(v);
+		for(int slot = start; slot < start + graph.getDegree(v); slot++)
+			edgeCredit[edgeId[slot]] = 0.0;
+	}
+
+	//roots r with distance(r, v) != distance(r, w) for any of the removed edges (v, w),
+	//the vertices of the edges' connected components are collected in componentVertices
+	private int collectAffectedRoots(int[] edges, int numEdges)
+	{
+		int n = graph.getNumVertices();
+		if(affected == null)
+		{
+			distanceFromStart = new int[n];
+			distanceFromEnd = new int[n];
+			orderFromStart = new int[n];
+			orderFromEnd = new int[n];
+			affected = new boolean[n];
+			affectedRoots = new int[n];
+			inComponent = new boolean[n];
+			componentVertices = new int[n];
+			Arrays.fill(distanceFromStart, -1);
+			Arrays.fill(distanceFromEnd, -1);
+		}
+
+		int numAffected = 0;
+		numComponentVertices = 0;
+		for(int k = 0; k < numEdges; k++)
+		{
+			int reachedFromStart = bfs(edges[2 * k], distanceFromStart, orderFromStart);
+			int reachedFromEnd = bfs(edges[2 * k + 1], distanceFromEnd, orderFromEnd);
+
+			numAffected = collectAffectedRoots(orderFromStart, reachedFromStart, numAffected);
+			numAffected = collectAffectedRoots(orderFromEnd, reachedFromEnd, numAffected);
+
+			for(int i = 0; i < reachedFromStart; i++)
+				distanceFromStart[orderFromStart[i]] = -1;
+			for(int i = 0; i < reachedFromEnd; i++)
+				distanceFromEnd[orderFromEnd[i]] = -1;
+		}
+
+		for(int i = 0; i < numAffected; i++)
+			affected[affectedRoots[i]] = false;
+		for(int i = 0; i < numComponentVertices; i++)
+			inComponent[componentVertices[i]] = false;
+
+		return numAffected;
+	}
+
+	//helper method to check the vertices reached by one of the searches
+	private int collectAffectedRoots(int[] order, int reached, int numAffected)
+	{
+		for(int i = 0; i < reached; i++)
+		{
+			int root = order[i];
+			if(!inComponent[root])
+			{
+				inComponent[root] = true;
+				componentVertices[numComponentVertices++] = root;
+			}
+			if(!affected[root] && distanceFromStart[root] != distanceFromEnd[root])
+			{
+				affected[root] = true;
+				affectedRoots[numAffected++] = root;
+			}
+		}
+		return numAffected;
+	}
+
+	//plain BFS over the edges which are not removed, returns the number of reached vertices
+	private int bfs(int start, int[] distance, int[] order)
+	{
+		int head = 0;
+		int tail = 0;
+		order[tail++] = start;
+		distance[start] = 0;
+		while(head < tail)
+		{
+			int v = order[head++];
+			int end = graph.getNeighborSlot(v) + graph.getDegree(v);
+			for(int slot = graph.getNeighborSlot(v); slot < end; slot++)
+			{
+				int w = graph.getNeighborAtSlot(slot);
+				if(!removedSlot[slot] && distance[w] < 0)
+				{
+					distance[w] = distance[v] + 1;
+					order[tail++] = w;
+				}
+			}
+		}
+		return tail;
+	}
+
+	//true if the adjacency entry has been removed
+	public boolean isRemoved(int slot)
+	{
+		return removedSlot[slot];
+	}
+
+	/**
+	 * Betweenness of the undirected edge between vertex index v and its i-th neighbor
+	 */
+	public double getBetweenness(int v, int i)
+	{
+		return edgeCredit[edgeId[graph.getNeighborSlot(v) + i]] / 2;
+	}
+
+	/**
+	 * Get the edges with maximum betweenness (user ids), each undirected edge is listed once
+	 */
+	public List<Edge> getMaxBetweennessEdge()
+	{
+		if(sampling == null) compute();
+
+		int[] edges = findMaxBetweennessEdges(null, graph.getNumVertices());
+
+		List<Edge> maxBetweennessEdge = new ArrayList<>();
+		for(int k = 0; k < edges.length; k += 2)
+			maxBetweennessEdge.add(new Edge(graph.getVertexId(edges[k]), graph.getVertexId(edges[k + 1])));
+		return maxBetweennessEdge;
+	}
+
+	/**
+	 * Get the not removed edges with maximum betweenness among the edges of the given vertices
+	 * (all vertices if vertices is null) as pairs of vertex indices {v0, w0, v1, w1, ...}
+	 */
+	public int[] findMaxBetweennessEdges(int[] vertices, int numVertices)
+	{
+		if(sampling != null) sample(vertices, numVertices);
+		else if(!computed) compute();
+
+		double maxCredit = 0.0;
+		for(int k = 0; k < numVertices; k++)
+		{
+			int v = vertices == null ? k : vertices[k];
+			for(int i = 0; i < graph.getDegree(v); i++)
+			{
+				if(isFirstEntry(v, i)) maxCredit = Math.max(maxCredit, getBetweenness(v, i));
+			}
+		}
+
+		int[] edges = new int[16];
+		int size = 0;
+		for(int k = 0; k < numVertices; k++)
+		{
+			int v = vertices == null ? k : vertices[k];
+			for(int i = 0; i < graph.getDegree(v); i++)
+			{
+				if(isFirstEntry(v, i) && getBetweenness(v, i) >= maxCredit - EPSILON * maxCredit)
+				{
+					if(size == edges.length) edges = Arrays.copyOf(edges, size * 2);
+					edges[size++] = v;
+					edges[size++] = graph.getNeighbor(v, i);
+				}
+			}
+		}
+		return Arrays.copyOf(edges, size);
+	}
+
+	//an undirected edge has two adjacency entries, it is listed from its smaller vertex index
+	//(or from its only entry when the other direction is missing), removed edges are not listed
+	private boolean isFirstEntry(int v, int i)
+	{
+		int slot = graph.getNeighborSlot(v) + i;
+		return !removedSlot[slot] && graph.getEdgeSlot(edgeId[slot]) == slot;
+	}
+
+	//number of sampled paths of the last sampling
+	public long getNumSamples()
+	{
+		return numSamples;
+	}
+
+	//true if the last sampling stopped because its leader beat every other edge with probability 1 - delta
+	public boolean isSeparated()
+	{
+		return separated;
+	}
+
+	/**
+	 * Estimate the credits of the edges of the given vertices (all vertices if vertices is null) from
+	 * shortest paths between random pairs of them. The vertices must be closed under the not removed
+	 * edges (i.e. connected components), the credits of the other edges are not touched.
+	 */
+	private void sample(int[] vertices, int count)
+	{
+		numSamples = 0;
+		separated = false;
+		if(count <= MAX_EXACT_VERTICES)
+		{
+			int[] roots = new int[count];
+			for(int k = 0; k < count; k++)
+			{
+				int v = roots[k] = vertices == null ? k : vertices[k];
+				clearCredits(v);
+			}
+			accumulate(roots, count, 1.0);
+			return;
+		}
+
+		if(sampler == null)
+		{
+			edgeHits = new int[edgeCredit.length];
+			reverseAdjacency = new ReverseAdjacency(graph);
+			sampler = new Sampler(graph, reverseAdjacency, removedSlot, edgeHits);
+			diameterDag = new ShortestPathDag(graph, removedSlot);
+			seen = new boolean[graph.getNumVertices()];
+		}
+		for(int k = 0; k < count; k++)
+		{
+			int v = vertices == null ? k : vertices[k];
+			int start = graph.getNeighborSlot(v);
+			for(int slot = start; slot < start + graph.getDegree(v); slot++)
+				edgeHits[edgeId[slot]] = 0;
+		}
+
+		long timeBudget = sampling.getTimeBudgetMillis();
+		long deadline = timeBudget > 0 ? System.nanoTime() + timeBudget * 1000000L : Long.MAX_VALUE;
+		long maxSamples = sampling.getMaxSamples(getVertexDiameter(vertices, count));
+		for(int check = 1; numSamples < maxSamples; check++)
+		{
+			long batch = Math.min(maxSamples - numSamples, Math.max(FIRST_CHECK_SAMPLES, Math.min(numSamples / 4, MAX_CHECK_SAMPLES)));
+			runSamples(vertices, count, numSamples, batch);
+			numSamples += batch;
+
+			//the confidence is split over the checks (delta / 2^check)
+			double confidence = sampling.getDelta() / Math.pow(2.0, check);
+			if(isLeaderSeparated(vertices, count, confidence))
+			{
+				separated = true;
+				break;
+			}
+			if(System.nanoTime() >= deadline) break;
+		}
+
+		//hits / samples * n * (n - 1) estimates the credits from all the roots, like accumulate
+		double scale = numSamples == 0 ? 0.0 : (double) count * (count - 1) / numSamples;
+		for(int k = 0; k < count; k++)
+		{
+			int v = vertices == null ? k : vertices[k];
+			int start = graph.getNeighborSlot(v);
+			for(int slot = start; slot < start + graph.getDegree(v); slot++)
+				edgeCredit[edgeId[slot]] = removedSlot[slot] ? 0.0 : scale * edgeHits[edgeId[slot]];
+		}
+	}
+
+	//helper method to run the samples first .. first + batch - 1, split across a pool if it is worth it
+	private void runSamples(int[] vertices, int count, long first, long batch)
+	{
+		long seed = sampling.getSeed();
+		if(numThreads == 1 || batch < MIN_PARALLEL_ROOTS)
+		{
+			for(long index = first; index < first + batch; index++)
+				sampler.sample(vertices, count, seed, index);
+			return;
+		}
+
+		Queue<Sampler> samplers = new ConcurrentLinkedQueue<>();
+		ThreadLocal<Sampler> threadSampler = ThreadLocal.withInitial(() -> {
+			Sampler sampler = new Sampler(graph, reverseAdjacency, removedSlot, new int[edgeHits.length]);
+			samplers.add(sampler);
+			return sampler;
+		});
+
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try
+		{
+			long grain = Math.max(16, batch / (numThreads * 16));
+			pool.invoke(new SampleRangeTask(threadSampler, vertices, count, seed, first, first + batch, grain));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		//the paths only use the edges of the given vertices, the second entry of an edge adds 0
+		for(Sampler sampler : samplers)
+		{
+			int[] hits = sampler.hits;
+			for(int k = 0; k < count; k++)
+			{
+				int v = vertices == null ? k : vertices[k];
+				int start = graph.getNeighborSlot(v);
+				for(int slot = start; slot < start + graph.getDegree(v); slot++)
+				{
+					int e = edgeId[slot];
+					edgeHits[e] += hits[e];
+					hits[e] = 0;
+				}
+			}
+		}
+	}
+
+	//the edge with the most hits beats the runner-up (and so every other edge) with probability 1 - confidence
+	private boolean isLeaderSeparated(int[] vertices, int count, double confidence)
+	{
+		long leader = 0;
+		long runnerUp = 0;
+		long numEdges = 0;
+		for(int k = 0; k < count; k++)
+		{
+			int v = vertices == null ? k : vertices[k];
+			for(int i = 0; i < graph.getDegree(v); i++)
+			{
+				if(!isFirstEntry(v, i)) continue;
+				long hits = edgeHits[edgeId[graph.getNeighborSlot(v) + i]];
+				if(hits > leader)
+				{
+					runnerUp = leader;
+					leader = hits;
+				}
+				else if(hits > runnerUp) runnerUp = hits;
+				numEdges++;
+			}
+		}
+		//a sample changes the difference by 1 only if it hits one of the two edges, so the squares
+		//add up to at most leader + runnerUp, the confidence is split over the other edges
+		return numEdges > 0 && sampling.isSeparated(leader - runnerUp, leader + runnerUp, numSamples, confidence / numEdges);
+	}
+
+	//upper bound of the number of vertices on a shortest path: 2 * eccentricity + 1 of one vertex per component
+	private int getVertexDiameter(int[] vertices, int count)
+	{
+		ShortestPathDag dag = diameterDag;
+		int diameter = 1;
+		for(int k = 0; k < count; k++)
+		{
+			int v = vertices == null ? k : vertices[k];
+			if(seen[v]) continue;
+			dag.compute(v);
+			for(int r = 0; r < dag.getNumReached(); r++)
+				seen[dag.getVertexAt(r)] = true;
+			diameter = Math.max(diameter, Math.min(2 * (dag.getNumLevels() - 1) + 1, count));
+		}
+		for(int k = 0; k < count; k++)
+			seen[vertices == null ? k : vertices[k]] = false;
+		return diameter;
+	}
+
+	//fork join task which splits a range of sample numbers till it is small enough to be run by one sampler
+	private static class SampleRangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final ThreadLocal<Sampler> threadSampler;
+		private final int[] vertices;
+		private final int count;
+		private final long seed;
+		private final long start;
+		private final long end;
+		private final long grain;
+
+		SampleRangeTask(ThreadLocal<Sampler> threadSampler, int[] vertices, int count, long seed, long start, long end, long grain)
+		{
+			this.threadSampler = threadSampler;
+			this.vertices = vertices;
+			this.count = count;
+			this.seed = seed;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(end - start <= grain)
+			{
+				Sampler sampler = threadSampler.get();
+				for(long index = start; index < end; index++)
+					sampler.sample(vertices, count, seed, index);
+				return;
+			}
+			long middle = (start + end) >>> 1;
+			invokeAll(new SampleRangeTask(threadSampler, vertices, count, seed, start, middle, grain),
+					new SampleRangeTask(threadSampler, vertices, count, seed, middle, end, grain));
+		}
+	}
+
+	//entries "u --> v" of the graph listed by v: the sources and their slots in the graph
+	private static class ReverseAdjacency
+	{
+		private final int[] offsets;
+		private final int[] sources;
+		private final int[] slots;
+
+		ReverseAdjacency(CsrGraph graph)
+		{
+			int n = graph.getNumVertices();
+			offsets = new int[n + 1];
+			for(int slot = 0; slot < graph.getNumNeighborEntries(); slot++)
+				offsets[graph.getNeighborAtSlot(slot) + 1]++;
+			for(int v = 0; v < n; v++)
+				offsets[v + 1] += offsets[v];
+
+			int[] position = Arrays.copyOf(offsets, n);
+			sources = new int[graph.getNumNeighborEntries()];
+			slots = new int[graph.getNumNeighborEntries()];
+			for(int u = 0; u < n; u++)
+			{
+				int end = graph.getNeighborSlot(u) + graph.getDegree(u);
+				for(int slot = graph.getNeighborSlot(u); slot < end; slot++)
+				{
+					int k = position[graph.getNeighborAtSlot(slot)]++;
+					sources[k] = u;
+					slots[k] = slot;
+				}
+			}
+		}
+	}
+
+	/*
+	 * Balanced bidirectional BFS of one sampled pair (s, t) and the hits of the paths this sampler has
+	 * picked. The side with the smaller frontier grows one level at a time, counting the shortest paths
+	 * from s (sigmaFromStart) or to t (sigmaToGoal). When a level reaches vertices labeled by the other
+	 * side, every shortest path goes through exactly one of them (they all have the same distances),
+	 * so one is picked with probability sigmaFromStart * sigmaToGoal / (number of shortest paths) and
+	 * the path is completed by walking to s and to t, each step weighted by the sigma of the next vertex.
+	 * The labels are stamped with the sample number so nothing is cleared between samples.
+	 */
+	private static class Sampler
+	{
+		private final CsrGraph graph;
+		private final ReverseAdjacency reverse;
+		private final boolean[] removedSlot;
+		private final int[] edgeId;
+		//hits of each undirected edge
+		private final int[] hits;
+
+		private final int[] stampFromStart;
+		private final int[] stampToGoal;
+		private final int[] distanceFromStart;
+		private final int[] distanceToGoal;
+		private final double[] sigmaFromStart;
+		private final double[] sigmaToGoal;
+		//the current frontier of each side and the level being labeled
+		private int[] frontierFromStart;
+		private int[] frontierToGoal;
+		private int[] nextLevel;
+		private int stamp;
+
+		Sampler(CsrGraph graph, ReverseAdjacency reverse, boolean[] removedSlot, int[] hits)
+		{
+			this.graph = graph;
+			this.reverse = reverse;
+			this.removedSlot = removedSlot;
+			edgeId = graph.getEdgeIdArray();
+			this.hits = hits;
+			int n = graph.getNumVertices();
+			stampFromStart = new int[n];
+			stampToGoal = new int[n];
+			distanceFromStart = new int[n];
+			distanceToGoal = new int[n];
+			sigmaFromStart = new double[n];
+			sigmaToGoal = new double[n];
+			frontierFromStart = new int[n];
+			frontierToGoal = new int[n];
+			nextLevel = new int[n];
+		}
+
+		//pick the pair of the sample number and one of its shortest paths, each with the same probability
+		void sample(int[] vertices, int count, long seed, long index)
+		{
+			SplittableRandom random = new SplittableRandom(mix(seed + index * 0x9E3779B97F4A7C15L));
+			int s = random.nextInt(count);
+			int t = random.nextInt(count - 1);
+			if(t >= s) t++;
+			if(vertices != null)
+			{
+				s = vertices[s];
+				t = vertices[t];
+			}
+
+			if(++stamp == Integer.MAX_VALUE)
+			{
+				Arrays.fill(stampFromStart, 0);
+				Arrays.fill(stampToGoal, 0);
+				stamp = 1;
+			}
+			stampFromStart[s] = stamp;
+			distanceFromStart[s] = 0;
+			sigmaFromStart[s] = 1.0;
+			frontierFromStart[0] = s;
+			int sizeFromStart = 1;
+			stampToGoal[t] = stamp;
+			distanceToGoal[t] = 0;
+			sigmaToGoal[t] = 1.0;
+			frontierToGoal[0] = t;
+			int sizeToGoal = 1;
+
+			//the level which reached the other side, with the vertices labeled by both sides first
+			int[] grown = null;
+			int numMeeting = 0;
+			while(sizeFromStart > 0 && sizeToGoal > 0 && numMeeting == 0)
+			{
+				int size;
+				if(sizeFromStart <= sizeToGoal)
+				{
+					size = sizeFromStart = expandFromStart(frontierFromStart, sizeFromStart);
+					grown = nextLevel;
+					nextLevel = frontierFromStart;
+					frontierFromStart = grown;
+				}
+				else
+				{
+					size = sizeToGoal = expandToGoal(frontierToGoal, sizeToGoal);
+					grown = nextLevel;
+					nextLevel = frontierToGoal;
+					frontierToGoal = grown;
+				}
+
+				for(int k = 0; k < size; k++)
+				{
+					int w = grown[k];
+					if(stampFromStart[w] == stamp && stampToGoal[w] == stamp)
+					{
+						grown[k] = grown[numMeeting];
+						grown[numMeeting++] = w;
+					}
+				}
+			}
+			if(numMeeting == 0) return;
+
+			//pick the meeting vertex, then walk to s and to t
+			double total = 0.0;
+			for(int k = 0; k < numMeeting; k++)
+				total += sigmaFromStart[grown[k]] * sigmaToGoal[grown[k]];
+			double r = random.nextDouble() * total;
+			int meeting = grown[numMeeting - 1];
+			for(int k = 0; k < numMeeting - 1; k++)
+			{
+				r -= sigmaFromStart[grown[k]] * sigmaToGoal[grown[k]];
+				if(r < 0)
+				{
+					meeting = grown[k];
+					break;
+				}
+			}
+
+			for(int v = meeting; v != s; )
+			{
+				r = random.nextDouble() * sigmaFromStart[v];
+				int chosen = -1;
+				for(int k = reverse.offsets[v]; k < reverse.offsets[v + 1]; k++)
+				{
+					int u = reverse.sources[k];
+					if(removedSlot[reverse.slots[k]] || stampFromStart[u] != stamp || distanceFromStart[u] != distanceFromStart[v] - 1) continue;
+					chosen = k;
+					r -= sigmaFromStart[u];
+					if(r < 0) break;
+				}
+				hits[edgeId[reverse.slots[chosen]]]++;
+				v = reverse.sources[chosen];
+			}
+			for(int v = meeting; v != t; )
+			{
+				r = random.nextDouble() * sigmaToGoal[v];
+				int chosen = -1;
+				int end = graph.getNeighborSlot(v) + graph.getDegree(v);
+				for(int slot = graph.getNeighborSlot(v); slot < end; slot++)
+				{
+					int x = graph.getNeighborAtSlot(slot);
+					if(removedSlot[slot] || stampToGoal[x] != stamp || distanceToGoal[x] != distanceToGoal[v] - 1) continue;
+					chosen = slot;
+					r -= sigmaToGoal[x];
+					if(r < 0) break;
+				}
+				hits[edgeId[chosen]]++;
+				v = graph.getNeighborAtSlot(chosen);
+			}
+		}
+
+		//label the next level from s over the followed users, returns its size (in nextLevel)
+		private int expandFromStart(int[] frontier, int size)
+		{
+			int next = 0;
+			for(int k = 0; k < size; k++)
+			{
+				int v = frontier[k];
+				int end = graph.getNeighborSlot(v) + graph.getDegree(v);
+				for(int slot = graph.getNeighborSlot(v); slot < end; slot++)
+				{
+					if(removedSlot[slot]) continue;
+					int x = graph.getNeighborAtSlot(slot);
+					if(stampFromStart[x] != stamp)
+					{
+						stampFromStart[x] = stamp;
+						distanceFromStart[x] = distanceFromStart[v] + 1;
+						sigmaFromStart[x] = 0.0;
+						nextLevel[next++] = x;
+					}
+					if(distanceFromStart[x] == distanceFromStart[v] + 1) sigmaFromStart[x] += sigmaFromStart[v];
+				}
+			}
+			return next;
+		}
+
+		//label the next level to t over the followers, returns its size (in nextLevel)
+		private int expandToGoal(int[] frontier, int size)
+		{
+			int next = 0;
+			for(int k = 0; k < size; k++)
+			{
+				int v = frontier[k];
+				for(int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++)
+				{
+					if(removedSlot[reverse.slots[e]]) continue;
+					int x = reverse.sources[e];
+					if(stampToGoal[x] != stamp)
+					{
+						stampToGoal[x] = stamp;
+						distanceToGoal[x] = distanceToGoal[v] + 1;
+						sigmaToGoal[x] = 0.0;
+						nextLevel[next++] = x;
+					}
+					if(distanceToGoal[x] == distanceToGoal[v] + 1) sigmaToGoal[x] += sigmaToGoal[v];
+				}
+			}
+			return next;
+		}
+
+		//SplitMix64 finalizer, so close seeds give unrelated generators
+		private static long mix(long z)
+		{
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			return z ^ (z >>> 31);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package capston;
+
+import java.util.Arrays;
+
+/**
+ * This class keep the edges of an edge list file in two int arrays
+ *
+ * The i-th edge is getFrom()[i] --> getTo()[i] for i < size(), the arrays may be longer than size().
+ * GraphLoader also records how many lines were read and how long it took.
+ */
+public class EdgeList
+{
+	private int[] from;
+	private int[] to;
+	private int size;
+
+	//statistics of the load
+	private long numLines;
+	private long numBytes;
+	private long loadNanos;
+
+	public EdgeList()
+	{
+		this(1024);
+	}
+
+	public EdgeList(int capacity)
+	{
+		from = new int[Math.max(capacity, 16)];
+		to = new int[from.length];
+		size = 0;
+	}
+
+	public void add(int v1, int v2)
+	{
+		if(size == from.length)
+		{
+			//grow by half, twice the size of a multi-GB file would not fit in an int array
+			int capacity = (int) Math.min(Integer.MAX_VALUE - 8, size + (size >> 1) + 16L);
+			if(capacity <= size) throw new IllegalStateException("Too many edges for an int indexed edge list.");
+			from = Arrays.copyOf(from, capacity);
+			to = Arrays.copyOf(to, capacity);
+		}
+		from[size] = v1;
+		to[size] = v2;
+		size++;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public int[] getFrom()
+	{
+		return from;
+	}
+
+	public int[] getTo()
+	{
+		return to;
+	}
+
+	public long getNumLines()
+	{
+		return numLines;
+	}
+
+	public long getNumBytes()
+	{
+		return numBytes;
+	}
+
+	public long getLoadNanos()
+	{
+		return loadNanos;
+	}
+
+	//set by the loader when the file has been read
+	void setLoadStatistics(long numLines, long numBytes, long loadNanos)
+	{
+		this.numLines = numLines;
+		this.numBytes = numBytes;
+		this.loadNanos = loadNanos;
+	}
+
+	public double getLinesPerSecond()
+	{
+		return loadNanos == 0 ? 0.0 : numLines * 1e9 / loadNanos;
+	}
+
+	public String getLoadReport()
+	{
+		return String.format("%d lines, %d edges, %.1f MB in %.1f ms (%.0f lines/sec, %.1f MB/sec)",
+				numLines, size, numBytes / 1e6, loadNanos / 1e6, getLinesPerSecond(),
+				loadNanos == 0 ? 0.0 : numBytes * 1e3 / loadNanos);
+	}
+}
@@ -0,0 +1,324 @@
+package capston;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class extract the ego networks of the network: the center user, every user within radius
+ * hops of the center (radius 1: the friends of the center) and all the edges between them.
+ *
+ * An ego network is a compact CsrGraph of its own (the user ids are kept). Each thread has its own
+ * marker array where a user is marked by the number (epoch) of the extraction, so starting the next
+ * extraction is one increment instead of clearing n entries, and the edges are kept by looking at
+ * the mark of the neighbor:
+ *
+ * 	1. BFS from the center for radius levels, marking the reached users with the epoch
+ * 	2. sort the reached vertex indices, so the ids and the neighbors stay in ascending order
+ * 	3. copy the neighbors of every reached user which have the epoch mark
+ *
+ * A batch of centers is split across a ForkJoinPool, and write streams the ego networks of a batch
+ * to a file a few thousand at a time, so hundreds of thousands of ego networks never sit in memory
+ * together. In a directed graph the hops follow the "v --> w" edges. Without the center (as in
+ * data/ego_answers) the ego network only has the users around the center and the edges between them.
+ */
+public class EgoNetworks
+{
+	//less centers than this are always extracted on the calling thread
+	private static final int MIN_PARALLEL_CENTERS = 64;
+	//ego networks extracted before they are written to the file
+	private static final int WRITE_BATCH = 4096;
+
+	private final CsrGraph graph;
+	private final int numThreads;
+	private final boolean withCenter;
+	//markers of every thread
+	private final ThreadLocal<Extractor> extractor;
+
+	public EgoNetworks(IntGraph graph)
+	{
+		this(graph, 1);
+	}
+
+	public EgoNetworks(IntGraph graph, int numThreads)
+	{
+		this(graph, numThreads, true);
+	}
+
+	/**
+	 * With numThreads > 1 the centers of a batch are split across a ForkJoinPool of that many threads,
+	 * with withCenter false the center is left out of its ego network
+	 */
+	public EgoNetworks(IntGraph graph, int numThreads, boolean withCenter)
+	{
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+
+		this.graph = graph instanceof CsrGraph ? (CsrGraph) graph : CsrGraph.fromIntGraph(graph);
+		this.numThreads = numThreads;
+		this.withCenter = withCenter;
+		extractor = ThreadLocal.withInitial(() -> new Extractor(this.graph.getNumVertices()));
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		//extract the ego network of every user of the given edge list files and print the throughput
+		String[] files = args.length > 0 ? args : new String[] {"data/facebook_1000.txt", "data/facebook_2000.txt", "data/twitter_higgs.txt"};
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		for(String edgeListFile : files)
+		{
+			CsrGraph graph = GraphLoader.loadCsrGraph(edgeListFile);
+			EgoNetworks egoNetworks = new EgoNetworks(graph, numThreads);
+			int[] centers = new int[graph.getNumVertices()];
+			for(int v = 0; v < centers.length; v++)
+				centers[v] = graph.getVertexId(v);
+
+			for(int radius = 1; radius <= 2; radius++)
+			{
+				long start = System.nanoTime();
+				long numEdges = 0;
+				for(CsrGraph egoNetwork : egoNetworks.extract(centers, radius))
+					numEdges += egoNetwork.getNumEdges();
+				long end = System.nanoTime();
+
+				System.out.printf("%s: %d ego networks of radius %d in %.1f ms (%d edges in total)%n", edgeListFile,
+						centers.length, radius, (end - start) / 1e6, numEdges);
+			}
+		}
+	}
+
+	/**
+	 * Get the ego network of the user (the user ids of the network are kept)
+	 */
+	public CsrGraph extract(int centerId, int radius)
+	{
+		return extractor.get().extract(getCenter(centerId), checkRadius(radius));
+	}
+
+	/**
+	 * Get the ego networks of a batch of users, in the order of the centers
+	 */
+	public List<CsrGraph> extract(int[] centerIds, int radius)
+	{
+		checkRadius(radius);
+		ForkJoinPool pool = numThreads > 1 && centerIds.length >= MIN_PARALLEL_CENTERS ? new ForkJoinPool(numThreads) : null;
+		try
+		{
+			return extract(pool, centerIds, radius);
+		}
+		finally
+		{
+			if(pool != null) pool.shutdown();
+		}
+	}
+
+	/**
+	 * Write the ego networks of the users to a text file, WRITE_BATCH of them extracted at a time.
+	 * Every ego network is a "# center" line followed by one "user: neighbor, neighbor" line per user
+	 * (see format), the same lines as the files in data/ego_answers.
+	 */
+	public void write(int[] centerIds, int radius, String file) throws IOException
+	{
+		checkRadius(radius);
+		ForkJoinPool pool = numThreads > 1 && centerIds.length >= MIN_PARALLEL_CENTERS ? new ForkJoinPool(numThreads) : null;
+		try(Writer writer = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8))
+		{
+			for(int from = 0; from < centerIds.length; from += WRITE_BATCH)
+			{
+				int[] batch = Arrays.copyOfRange(centerIds, from, Math.min(centerIds.length, from + WRITE_BATCH));
+				List<CsrGraph> egoNetworks = extract(pool, batch, radius);
+				for(int k = 0; k < batch.length; k++)
+				{
+					writer.write("# " + batch[k] + "\n");
+					writer.write(format(egoNetworks.get(k)));
+				}
+			}
+		}
+		finally
+		{
+			if(pool != null) pool.shutdown();
+		}
+	}
+
+	/**
+	 * Get the adjacency of an ego network as text, one "user: neighbor, neighbor" line per user in
+	 * ascending id order
+	 */
+	public static String format(CsrGraph egoNetwork)
+	{
+		StringBuilder text = new StringBuilder();
+		for(int v = 0; v < egoNetwork.getNumVertices(); v++)
+		{
+			text.append(egoNetwork.getVertexId(v)).append(':');
+			for(int i = 0; i < egoNetwork.getDegree(v); i++)
+				text.append(i == 0 ? " " : ", ").append(egoNetwork.getVertexId(egoNetwork.getNeighbor(v, i)));
+			text.append('\n');
+		}
+		return text.toString();
+	}
+
+	//helper method to extract a batch, split across the pool if there is one
+	private List<CsrGraph> extract(ForkJoinPool pool, int[] centerIds, int radius)
+	{
+		int[] centers = new int[centerIds.length];
+		for(int k = 0; k < centers.length; k++)
+			centers[k] = getCenter(centerIds[k]);
+
+		CsrGraph[] egoNetworks = new CsrGraph[centers.length];
+		if(pool == null || centers.length < MIN_PARALLEL_CENTERS)
+		{
+			new ExtractTask(centers, radius, egoNetworks, 0, centers.length, centers.length).compute();
+		}
+		else
+		{
+			int grain = Math.max(16, centers.length / (numThreads * 8));
+			pool.invoke(new ExtractTask(centers, radius, egoNetworks, 0, centers.length, grain));
+		}
+		return Arrays.asList(egoNetworks);
+	}
+
+	//helper method to get the vertex index of a center
+	private int getCenter(int centerId)
+	{
+		int center = graph.getIndex(centerId);
+		if(center < 0) throw new IllegalArgumentException("User " + centerId + " is not in the graph.");
+		return center;
+	}
+
+	private static int checkRadius(int radius)
+	{
+		if(radius < 0) throw new IllegalArgumentException("Radius must not be negative.");
+		return radius;
+	}
+
+	/*
+	 * Marker arrays of one thread. A vertex is in the current ego network if its mark is the current
+	 * epoch, the marks are only cleared when the epoch wraps around.
+	 */
+	private final class Extractor
+	{
+		private final int[] mark;
+		private final int[] queue;
+		//vertex index in the ego network of every marked vertex
+		private final int[] local;
+		private int epoch;
+
+		Extractor(int n)
+		{
+			mark = new int[n];
+			queue = new int[n];
+			local = new int[n];
+		}
+
+		CsrGraph extract(int center, int radius)
+		{
+			if(++epoch == 0)
+			{
+				Arrays.fill(mark, 0);
+				epoch = 1;
+			}
+
+			//BFS from the center, one level per hop
+			mark[center] = epoch;
+			queue[0] = center;
+			int size = 1;
+			int head = 0;
+			for(int hop = 0; hop < radius && head < size; hop++)
+			{
+				int levelEnd = size;
+				for(; head < levelEnd; head++)
+				{
+					int v = queue[head];
+					for(int i = 0; i < graph.getDegree(v); i++)
+					{
+						int w = graph.getNeighbor(v, i);
+						if(mark[w] != epoch)
+						{
+							mark[w] = epoch;
+							queue[size++] = w;
+						}
+					}
+				}
+			}
+
+			//ascending vertex indices are ascending user ids, and keep the neighbors sorted
+			int[] members = Arrays.copyOfRange(queue, withCenter ? 0 : 1, size);
+			if(!withCenter) mark[center] = epoch - 1;
+			size = members.length;
+			Arrays.sort(members);
+			int[] ids = new int[size];
+			int[] offsets = new int[size + 1];
+			for(int k = 0; k < size; k++)
+			{
+				int v = members[k];
+				local[v] = k;
+				ids[k] = graph.getVertexId(v);
+				offsets[k + 1] = offsets[k];
+				for(int i = 0; i < graph.getDegree(v); i++)
+				{
+					if(mark[graph.getNeighbor(v, i)] == epoch) offsets[k + 1]++;
+				}
+			}
+
+			int[] neighbors = new int[offsets[size]];
+			int slot = 0;
+			for(int k = 0; k < size; k++)
+			{
+				int v = members[k];
+				for(int i = 0; i < graph.getDegree(v); i++)
+				{
+					int w = graph.getNeighbor(v, i);
+					if(mark[w] == epoch) neighbors[slot++] = local[w];
+				}
+			}
+			return new CsrGraph(ids, offsets, neighbors);
+		}
+	}
+
+	//fork join task which splits a range of centers till it is small enough
+	private class ExtractTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int[] centers;
+		private final int radius;
+		private final CsrGraph[] egoNetworks;
+		private final int start;
+		private final int end;
+		private final int grain;
+
+		ExtractTask(int[] centers, int radius, CsrGraph[] egoNetworks, int start, int end, int grain)
+		{
+			this.centers = centers;
+			this.radius = radius;
+			this.egoNetworks = egoNetworks;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(end - start <= grain)
+			{
+				Extractor markers = extractor.get();
+				for(int k = start; k < end; k++)
+					egoNetworks[k] = markers.extract(centers[k], radius);
+				return;
+			}
+
+			int middle = (start + end) >>> 1;
+			ExtractTask left = new ExtractTask(centers, radius, egoNetworks, start, middle, grain);
+			left.fork();
+			new ExtractTask(centers, radius, egoNetworks, middle, end, grain).compute();
+			left.join();
+		}
+	}
+}
@@ -1,16 +1,10 @@
 package capston;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
-import java.util.Map.Entry;
 
 /**
  * @MD AL MAMUNUR RASHID
@@ -173,7 +167,6 @@ public class Graph
 		adjListsMap.get(from).add(new Edge(from, to));	
 		numEdges++;
 	}
-
 	@Override
 	public String toString()
 	{
@@ -202,268 +195,79 @@ public class Graph
 	
 	/**
 	 * 4. Get DAG edges with maximum betweenness 
+	 * 
+	 * The credits of all the roots are calculated by EdgeBetweenness (Brandes' algorithm) on a CSR copy
+	 * of this graph, one BFS per root without building a BFS representation Graph for each root.
 	 */
 
 	public List<Edge> getMaxBetweennessEdge() 
 	{
-		Map<Integer, Graph> bfsRepresentationList = getBfsRepresentationList();
-
-		//keep a list of vertices
-
-		List<Edge> maxBetweennessEdge = new ArrayList<>();
-		
-		Map<Edge, Double> maxBetweennessEdgeMap = getBetweennessEdgeList(bfsRepresentationList, verticesList);
-
- 		double maxCredit = Collections.max(maxBetweennessEdgeMap.values());
-		
-		for(Entry<Edge, Double> entry : maxBetweennessEdgeMap.entrySet())
-		{
-			if(entry.getValue() == maxCredit) maxBetweennessEdge.add(entry.getKey());
-		}
-		return maxBetweennessEdge;
+		return getMaxBetweennessEdge(1);
 	}
 	
-	//find the maximum Betweenness edge of the graph
-	private Map<Edge, Double> getBetweennessEdgeList(Map<Integer, Graph> bfsRepresentationList, List<Integer> verticesList)
+	//same as above, the roots are split across numThreads threads
+	public List<Edge> getMaxBetweennessEdge(int numThreads) 
 	{
-		Map<Edge, Double> maxBetweennessEdgeMap =  new HashMap<>();
-		
-		//fist get all the edges
-		getAllTheEdges(bfsRepresentationList, verticesList, maxBetweennessEdgeMap);
-		
-		for(int key : bfsRepresentationList.keySet())
-		{
-			Graph g = bfsRepresentationList.get(key);
-			//g.printBFSRepresentationGraph(key);
-			
-			Map<Integer, HashSet<Edge>> graphAdjListsMap = g.getAdjListsMap();
-			
-			for(int vertexID : graphAdjListsMap.keySet())
-			{
-				HashSet<Edge>  edges = graphAdjListsMap.get(vertexID);
-				for(Edge edge : edges)
-				{
-					Edge newEdge = new Edge(edge.getStartNode(), edge.getEndNode());
-					
-					if(maxBetweennessEdgeMap.containsKey(newEdge))
-							maxBetweennessEdgeMap.put(newEdge, maxBetweennessEdgeMap.get(newEdge) + edge.getCredit());
-				}
-				
-			}
-	
-		}
-		//here vertexID is the id of the vertex of the map
-		
-		for(Edge key : maxBetweennessEdgeMap.keySet())
-		{
-			maxBetweennessEdgeMap.put(key, maxBetweennessEdgeMap.get(key)/2);	
-		}
-		
-		return maxBetweennessEdgeMap;
+		return getMaxBetweennessEdge(numThreads, null);
 	}
 	
-	//helper method to collect all the edges of the map
-	private void getAllTheEdges(Map<Integer, Graph> bfsRepresentationList, List<Integer>  verticesList, Map<Edge, Double> maxBetweennessEdgeMap)
+	//same as above, the credits are estimated from sampled shortest paths when sampling is not null
+	public List<Edge> getMaxBetweennessEdge(int numThreads, BetweennessSampling sampling) 
 	{
-		for(int vertexID : verticesList)
-		{
-			//get this vertex's edge from the bfsRepresentationList
-			for(int graphID : bfsRepresentationList.keySet())
-			{
-				//get bfs graph
-				Graph bfsGraph = bfsRepresentationList.get(graphID);
-				//first add all the neighbor of vertex
-				List<Integer> bfsVertexID = bfsGraph.getVerticesList();
-				//vertex from the graph
-				for(int v : bfsVertexID)
-				{
-					//get the neighbors of the vertex v
-					HashSet<Edge> edgeList = bfsGraph.getNeighbors(v);	
-					if(v == vertexID)
-					{
-						//add all the edges to map
-						for(Edge edge : edgeList)
-						{
-							int endVertex = edge.getEndNode();
-							Edge linkEdge = new Edge(vertexID, endVertex);
-							maxBetweennessEdgeMap.put(linkEdge, 0.0);	
-						}
-					}
-				}
-			}
-		}
-	}
-	//get list of graph's BFS representation
-	private Map<Integer, Graph> getBfsRepresentationList()
-	{
-		Map<Integer, Graph> bfsRepresentationList = new HashMap<>();
-		
-		//get graph's vertices
-		List<Integer> verticesList = getVerticesList();
-		
-		for(int root : verticesList)
-		{
-
-			Graph bfsGraph = getbfsRepresentation(root);
-			
-			bfsRepresentationList.put(root, bfsGraph);
-		}
-		//System.out.println("vertices list: " + verticesList);
-
-		return bfsRepresentationList;
-	}
-	//helper method get graphs bfs representation map from each vertex
-	private Map<Integer, Graph> getGraphBfsRepresentationMap()
-	{
-		Map<Integer,Graph> graphBfsRepresetationMap = new HashMap<>();
-
-		System.out.println("size of vertices list: " + verticesList);
-		System.out.println("verticesList: " +  verticesList);
-		for(int root: verticesList)
-		{
-
-			Graph g = getbfsRepresentation(root);
-			System.out.println("printing the graph: " + g);
-			//label vertex of the graph
-			graphBfsRepresetationMap.put(root, g);
-			
-		}
-		return graphBfsRepresetationMap;
+		EdgeBetweenness edgeBetweenness = new EdgeBetweenness(CsrGraph.fromGraph(this), numThreads, sampling);
+		return edgeBetweenness.getMaxBetweennessEdge();
 	}
 	
 	/**
 	 * 3. Set credit of each node and DAG edges
 	 * 
+	 * The shortest path DAG of the BFS representation is built in one BFS pass from the root
+	 * (ShortestPathDag) and the credits are set from the leaf nodes up to the root:
+	 * a node gets 1 + the credits of its DAG edges to the level below, and each DAG edge from a
+	 * parent gets the node's credit times the parent's share of the shortest paths to the node,
+	 * sigma(parent) / sigma(node) (Brandes). The node's credit is not split equally over its
+	 * parents any more: a parent with more shortest paths from the root carries more of them.
+	 * The credits of the vertices and edges are set again on every call, not added.
 	 */
 	public void setCredit(Graph bfsRepresentedGraph, int root )
 	{
-		//before setting the credit reset the whole graph (graph's lable and credit
-		resetGraph(bfsRepresentedGraph);
-
-		//set the vertex label
-		setVertexLabel((bfsRepresentedGraph));
-		//reverse the bfsVertexList
-		Collections.reverse(bfsVertexList);
-				
-		Queue<Integer> bfsVertexQueue = new LinkedList<>(bfsVertexList);
-
-		//set the leaf nodes and its DAG edges credit
-		setLeafNodesCredit(bfsRepresentedGraph, root);
-
-		//After setting the leaf node's credit print the graph
-		//set the maps credit
-		Map<Integer, HashSet<Edge>> graphAdjListsMap = bfsRepresentedGraph.getAdjListsMap();
-	
-		while(!bfsVertexQueue.isEmpty())
-		{
-			int currNode = bfsVertexQueue.remove();
+		CsrGraph dagGraph = CsrGraph.fromGraph(bfsRepresentedGraph).toUndirected();
+		int rootIndex = dagGraph.getIndex(root);
+		if(rootIndex < 0) throw new IllegalArgumentException("Root " + root + " is not a vertex of the BFS representation.");
 
-			//get neighbor edges of currentNode
-			HashSet<Edge> dagEdges =  graphAdjListsMap.get(currNode);
-			double totalOfDAGedgesCredit = 0;
-			
-			for(Edge edge : dagEdges)
-			{
-				//reset the
-				double dagEdgeCredit = edge.getCredit();
-				totalOfDAGedgesCredit += dagEdgeCredit;
-			}
-			
-			//set current node's credit
-			Vertex currVertex = vertexLevelMap.get(currNode);
-			currVertex.setCredit(1.0 +  totalOfDAGedgesCredit);
-			
-			//set current node's above DAG edge's credit 
-			List<Integer> parentList = getListOfParentNodes(currNode, bfsRepresentedGraph);
-			
-			int totalOfParentNodes = parentList.size();
-			
-			//set the DAG edge value
-			for(int pNode : parentList)
-			{
-				double vertaxCredit = currVertex.getCredit();
-				//get the edge connected with child of parentNode
-				HashSet<Edge> pNodeEdges = bfsRepresentedGraph.getNeighbors(pNode);
-				for(Edge edge : pNodeEdges)
-				{
-					if(edge.getEndNode() == currNode)
-						{
-							edge.addCredit(vertaxCredit/totalOfParentNodes);
-						}
-				}
-			}//end of for loop
-		}
+		ShortestPathDag dag = new ShortestPathDag(dagGraph);
+		dag.compute(rootIndex);
+		setCredit(bfsRepresentedGraph, dag);
 	}
 	
-	//private set leaf nodes and DAG edges credit
-	private void setLeafNodesCredit(Graph bfsRepresentedGraph, int root)
+	//helper method to copy the label (number of shortest paths) and the credits of the DAG to the BFS representation
+	private static void setCredit(Graph bfsRepresentedGraph, ShortestPathDag dag)
 	{
-		Map<Integer, HashSet<Edge>> graphAdjListsMap = bfsRepresentedGraph.getAdjListsMap();
-		
-		List<Integer> visitedList = new ArrayList<>();
+		CsrGraph dagGraph = dag.getGraph();
+		dag.credits();
 		
-		for(int i = 0 ; i < bfsVertexList.size(); i++)
+		for(int k = 0; k < dag.getNumReached(); k++)
 		{
-			int parentNode = bfsVertexList.get(i);
+			int v = dag.getVertexAt(k);
+			int vertexId = dagGraph.getVertexId(v);
 			
-			//System.out.println("bfsVertexList.get(i): " + bfsVertexList.get(i));
+			Vertex vertex = bfsRepresentedGraph.vertexLevelMap.get(vertexId);
+			vertex.resetLevel();
+			vertex.setLevel((int) Math.min(dag.getSigma(v), Integer.MAX_VALUE));
+			vertex.resetCredit();
+			vertex.setCredit(dag.getCredit(v));
 			
-			HashSet<Integer> childList =new HashSet<>();
-			
-			for(int node : graphAdjListsMap.keySet())
+			//DAG edges from this vertex to the level below
+			for(Edge edge : bfsRepresentedGraph.adjListsMap.get(vertexId))
 			{
-					if(node == parentNode)
-					{
-						childList = this.getIntegerNeighborNodeRepresentation(graphAdjListsMap.get(node));
-						for(int child : childList)
-							{
-								//check if neighbor node is a leaf
-								if(!visitedList.contains(child) && isALeafVertex(child, graphAdjListsMap, root, parentNode))
-								{
-								//	System.out.println("testing: child: " + child);
-									//get the vertex of n id
-									Vertex vertex = vertexLevelMap.get(child);
-									visitedList.add(child);
-									//set leaf vertex credit leaf 1		
-									vertex.setCredit(1.0);
-									
-									//get the list of parent nodes of the leaf node
-									List<Integer> parentList = getListOfParentNodes(child, bfsRepresentedGraph);
-									
-									int totalOfParentNodes = parentList.size();
-									
-									//set the DAG edge value
-									for(int pNode : parentList)
-									{
-										//get the edge connected with child of parentNode
-										HashSet<Edge> pNodeEdges = bfsRepresentedGraph.getNeighbors(pNode);
-										for(Edge edge : pNodeEdges)
-										{
-											if(edge.getEndNode() == child)
-												edge.addCredit(1.0/totalOfParentNodes);
-										}
-									}
-								}
-
-							}//end of inner for loop
-					}//end of if block
-					
-			}//end of outer for loop
+				edge.resetCredit();
+				int w = dagGraph.getIndex(edge.getEndNode());
+				if(dag.getDistance(w) == dag.getDistance(v) + 1)
+					edge.addCredit(dag.getSigma(v) / dag.getSigma(w) * dag.getCredit(w));
+			}
 		}
 	}
 	
-	//A Vertex is a leaf vertex if does not have neighbor
-	private boolean isALeafVertex(int childVertex, Map<Integer, HashSet<Edge>> graphAdjListsMap, int root, int parent) 
-	{
-		//get the neighbor list of the vertex
-		Set<Integer> neighborList = getIntegerNeighborNodeRepresentation(graphAdjListsMap.get(childVertex));
-		
-		if(neighborList.contains(root)) neighborList.remove(root);
-		if(neighborList.contains(parent)) neighborList.remove(parent);
-	
-		if(neighborList.size() == 0) return true;
-		return false;
-	}
 	//helper method to get list of parent nodes of the given node
 	public List<Integer> getListOfParentNodes(int leafNode, Graph bfsRepresentedGraph)
 	{
@@ -484,337 +288,66 @@ public class Graph
 	  *  2. Label each node by the number of the shortest paths that reach it from the root
 	  */
 	//label(add Vertex weight to each Vertex 
-	//here weight is the shortest distance from the root
+	//here weight is the number of the shortest paths from the root
 	public void testingLabelVertex()
 	{
 		int root = 5;
 		Graph bfsGraph = getbfsRepresentation(root);
 		
-		System.out.println("in testingLabelVertex - Before: " + bfsGraph);
-		
-		setVertexLabel(bfsGraph);
+		System.out.println("in testingLabelVertex: " + bfsGraph);
 
 		Map<Integer, Vertex> map = bfsGraph.getVertexLevelMap();
 		System.out.println("checking the graph's list: ");
 		for(int key : map.keySet())
-			System.out.println(map.get(key));
-		
-		System.out.println("testingLabelVertex - After labeing: " + bfsGraph.printingGraph());
-		
-	}
-	//this method set label of each vertex
-	private void setVertexLabel(Graph bfsGraph)
-	{
-		Queue<Integer> bfsVertexQueue = new LinkedList<>(bfsVertexList);
-		//get the vertexLevelMap of this graph
-		Map<Integer, Vertex> vertaxMap = bfsGraph.getVertexLevelMap();
-		
-		//set the root label 1
-		if(vertaxMap.containsKey(bfsVertexQueue.peek())) 
-			{
-				int root = bfsVertexQueue.peek();
-				Vertex vertex = new Vertex(root);
-				vertex.setLevel(1);
-				vertaxMap.put(root, vertex);
-			}
-
-		int parentLevel = 0;
-
-		while(!bfsVertexQueue.isEmpty())
-		{
-			//get parent node
-			int parent = bfsVertexQueue.remove();
-			//get parent's level
-			if(vertaxMap.containsKey(parent)) 
-					parentLevel = vertaxMap.get(parent).getLevel();
-
-			//get parent's children
-			Set<Integer> children = getIntegerNeighborNodeRepresentation(bfsGraph.getNeighbors(parent));
-
-			for(int child : children)
-			{
-				if(vertaxMap.containsKey(child))
-					{
-						//get the vertex
-						Vertex childVertex = vertaxMap.get(child);
-						//update vertex level
-						childVertex.setLevel(parentLevel);
-						vertaxMap.put(child, childVertex);
- 					}
-			}
-		}//end of while loop
-	}
-	
-	//helper method to reset the graph's lable and credit
-	private void resetGraph(Graph g)
-	{
-		//get graph vertext list
-		Map<Integer, Vertex> vMap = g.getVertexLevelMap();
-		
-		//reset vertex's credit and label
-		for(int key : vMap.keySet())
-		{
-			Vertex v = vMap.get(key);
-			v.resetCredit();
-			v.resetLevel();
-		}
-		
-		//reset edge's edge credit
-		Map<Integer, HashSet<Edge>> graphAdjListsMap = getAdjListsMap();
-		
-		for(int vertexID : graphAdjListsMap.keySet())
-			//get the vertex
-			vertexLevelMap.get(vertexID).resetCredit();;
-		
+			System.out.println(map.get(key) + " level: " + map.get(key).getLevel());
 	}
 	/**
 	 * 1. Get BFS (Breadth First Search) representation of the graph from each each vertex of the graph)
+	 * 
+	 * The representation has the DAG edges (parent --> child, one level down) of the shortest paths
+	 * from the root, every vertex is labeled with its number of shortest paths and the vertices and
+	 * DAG edges have their credits. getbfsVertexList() lists the vertices which have children, from
+	 * the deepest level up to the root.
+	 * One BFS over a CSR copy of the graph, O(|V| + |E|).
 	 */
 	//build Breadth First Search Graph representation starting at each graph
 	public Graph getbfsRepresentation(int root)
 	{
-		//keep track of node which has been added as node to the path
-		Set<Integer> pathNode = new HashSet<>();
-		
-		//set of visited node
-		Set<Integer> visited = new HashSet<>();
-
-		Set<Integer> visitedNode = new HashSet<>();
-		Queue<Integer> toVisitQueue = new LinkedList<>();
+		CsrGraph csrGraph = CsrGraph.fromGraph(this);
+		int rootIndex = csrGraph.getIndex(root);
+		if(rootIndex < 0) throw new IllegalArgumentException("Root " + root + " is not a vertex of the graph.");
 		
-		//add the root vertex to the queue
-		toVisitQueue.add(root);
-		visitedNode.add(root);
+		ShortestPathDag dag = new ShortestPathDag(csrGraph);
+		dag.compute(rootIndex);
 		
-		//add root to visited 
-		visited.add(root);
-		
-		//create the map
-		return createBfsReprsentMap(pathNode, visited, visitedNode, toVisitQueue, root);	  
-	}
-	//helper method for BFS search representation
-	private Graph createBfsReprsentMap(Set<Integer> pathNode, Set<Integer> visited, Set<Integer> visitedNode,
-			Queue<Integer> toVisitQueue, int root)
-	{
-		//reset each time the vertex list
-		bfsVertexList.clear();
 		Graph bfsRepresentationGraph = new Graph();
-	
- 		while(!toVisitQueue.isEmpty())
-		{
-			int vertex = toVisitQueue.remove();
-			//get neighbor
-			HashSet<Edge> neighbors = getNeighbors(vertex);
-			
- 			
-			if(ifHasUnvisitedNeighobrs(neighbors, visited) || ifHaveSameLevelNeigborNodeExcludingRoot(neighbors, root, vertex))
-				{
-					bfsRepresentationGraph.addVertex(vertex);
-					pathNode.add(vertex);
-					if(!bfsVertexList.contains(vertex))
-						 bfsVertexList.add(vertex);
-					
-				}
-
-			//if each item of neighbors not been visited, add them as a neighbor of the vertex
-			for(Edge edge : neighbors)
-			{
-				int edgeNode = edge.getEndNode();
-				
-				if(!toVisitQueue.contains(edgeNode) && !visitedNode.contains(edgeNode))
-					{
-						toVisitQueue.add(edgeNode);
-						visitedNode.add(edgeNode);
-					}
-				
-				//add edgeNode the queue
-				if(!visited.contains(edgeNode))
-				{
-					bfsRepresentationGraph.addEdge(vertex, edgeNode);
-					//add the
-					visited.add(edgeNode);
-					
-					/**
-					 * FOR DEBUGING
-					 */
-					bfsRepresentationGraph.addVertex(edgeNode); //this portion is only for debugging purpose		
-					
-				}
-				else if(ifNodeLocatsInSameLevelNeigborNodeExcludingRoot(pathNode, edgeNode, neighbors, root, vertex))// || ifHaveSameLevelNeigborNodeExcludingRoot(neighbors, root, vertex))
-				{
-		
-					bfsRepresentationGraph.addVertex(vertex);
-					if(!bfsVertexList.contains(vertex))
-							bfsVertexList.add(vertex);
-					pathNode.add(vertex);
-					
-					bfsRepresentationGraph.addEdge(vertex, edgeNode);
-					//add the
-					if(!visited.contains(edgeNode)) visited.add(edgeNode);
-				}
-			}//end of for loop
-		}//end of while loop
-		
- 		//set credit for this graph
- 		setCredit(bfsRepresentationGraph, root);
- 		
-		return bfsRepresentationGraph;
-	}
-	//helper method to detect same level node
-	private boolean ifNodeLocatsInSameLevelNeigborNodeExcludingRoot(Set<Integer> pathNode, int target_Vartex, HashSet<Edge> neighbors,
-			int root, int vertex) 
-	{
-		
-		//if the target vertex and root are the same node, return false
-		if(vertex == root || target_Vartex == root) return false;
-		
-		//get parent of the target vertex, start searching from root
-		int parentNode = getParentNode(vertex, root);
-		
-		if(target_Vartex == parentNode) return false;
-		
-		//if nodes are sibling return false
-		if(distanceBetweenTwoNodes(root, vertex) == distanceBetweenTwoNodes(root, target_Vartex)) return false;
-		//get parent node's neighbor list
-		Set<Integer> initialParentNodeNeighborList = getIntegerNeighborNodeRepresentation(this.getNeighbors(parentNode));
-		
-		Set<Integer> parentNodeNeighborList = filteredSiblings(initialParentNodeNeighborList, root, parentNode, vertex);
-
-		Set<Integer> totalNeighborList = new HashSet<>();
-		
-		//now loop thorough the parentNeighbourNodes
-		for(int parentNeighborNode : parentNodeNeighborList)
-		{
-			if(parentNeighborNode != vertex)
-			{
-				//get neighbor of parentNeighborNode
-				Set<Integer> neighborList = getIntegerNeighborNodeRepresentation(this.getNeighbors(parentNeighborNode));
-				totalNeighborList.addAll(neighborList);
-			}
-		}
-		
-		//get neighbor nodes of the target vertex
-		Set<Integer> targetNeighbors = getIntegerNeighborNodeRepresentation(neighbors);
-		
-		//get each item from target vertex neighbor list and check them if they are located in tatalNeighborList 
-		for(int node : targetNeighbors)
-		{
-			if(totalNeighborList.contains(node) && !pathNode.contains(node)) return true;
-		}
-		
-		return false;
-	}
-	//another helper method to find same level node
-	private Set<Integer> filteredSiblings(Set<Integer> nodeSet, int root, int parentNode, int currentVertex)
-	{		
-		//if tatalNeighborList contains root, parentNode or target vertex, remove them
-		if(nodeSet.contains(root)) nodeSet.remove(root);
-		if(nodeSet.contains(parentNode)) nodeSet.remove(parentNode);
-		if(nodeSet.contains(currentVertex)) nodeSet.remove(currentVertex);
-		
-		Set<Integer> siblingSet = new HashSet<>();
-		//get distance between currentNode and root node
-		int distance = distanceBetweenTwoNodes(root, currentVertex);
-		
-		for(int node : nodeSet)
-		{
-			if(distanceBetweenTwoNodes(root, node) == distance)
-			{
-				siblingSet.add(node);
-			}
-		}
-		
-		return siblingSet;
-	}
-	
-	//another helper method find same level node
-	private boolean ifHaveSameLevelNeigborNodeExcludingRoot(HashSet<Edge> neighbors, int root, int vertex) 
-	{
-		if(vertex == root) return false;
-		
-		//get parent of the target vertex, start searching from root
-		int parentNode = getParentNode(vertex, root);
-
-		//get parent node's neighbor list
-		Set<Integer> initialParentNodeNeighborList = getIntegerNeighborNodeRepresentation(this.getNeighbors(parentNode));
-
-		//filter the parentNodeNeighbor list, keep the node which are only same level as the target vertex
-		Set<Integer> parentNodeNeighborList = filteredSiblings(initialParentNodeNeighborList, root, parentNode, vertex);
-		
-		Set<Integer> totalNeighborList = new HashSet<>();
+		for(int k = 0; k < dag.getNumReached(); k++)
+			bfsRepresentationGraph.addVertex(csrGraph.getVertexId(dag.getVertexAt(k)));
 		
-		//now loop thorough the parentNeighbourNodes
-		for(int parentNeighborNode : parentNodeNeighborList)
+		//a vertex is in the bfsVertexList if it is the parent of at least one vertex
+		boolean[] hasChild = new boolean[csrGraph.getNumVertices()];
+		for(int k = 0; k < dag.getNumReached(); k++)
 		{
-			if(parentNeighborNode != vertex)
+			int w = dag.getVertexAt(k);
+			for(int i = 0; i < dag.getNumPredecessors(w); i++)
 			{
-				//get neighbor of parentNeighborNode
-				Set<Integer> neighborList = getIntegerNeighborNodeRepresentation(this.getNeighbors(parentNeighborNode));
-				totalNeighborList.addAll(neighborList);
+				int v = dag.getPredecessor(w, i);
+				hasChild[v] = true;
+				bfsRepresentationGraph.addEdge(csrGraph.getVertexId(v), csrGraph.getVertexId(w));
 			}
 		}
 		
-		//if tatalNeighborList contains root, parentNode or target vertex, remove them
-		if(totalNeighborList.contains(root)) totalNeighborList.remove(root);
-		if(totalNeighborList.contains(parentNode)) totalNeighborList.remove(parentNode);
-		if(totalNeighborList.contains(vertex)) totalNeighborList.remove(vertex);
-
-		//get neighbor nodes of the target vertex
-		Set<Integer> targetNeighbors = getIntegerNeighborNodeRepresentation(neighbors);
-		
-		//if targetNeighbors contains root, parentNode or any node from parent parentNodeNeighborList, remove them
-		if(targetNeighbors.contains(root)) totalNeighborList.remove(root);
-		if(targetNeighbors.contains(parentNode)) totalNeighborList.remove(parentNode);
-		
-		for(int pNode : parentNodeNeighborList)
-		{
-			if(targetNeighbors.contains(pNode)) targetNeighbors.remove(pNode);
-		}
-		
-		//get each item from target vertex neighbor list and check them if they are located in tatalNeighborList 
-		for(int node : targetNeighbors)
+		bfsVertexList.clear();
+		for(int k = dag.getNumReached() - 1; k >= 0; k--)
 		{
-			if(totalNeighborList.contains(node)) return true;
+			int v = dag.getVertexAt(k);
+			if(hasChild[v]) bfsVertexList.add(csrGraph.getVertexId(v));
 		}
 		
-		return false;
-  }
-	//helper method to find the a vertex parent node start from the root
-	private int getParentNode(int targetNode, int root)
-	{
-		if(targetNode == root)
-			return root;
-		
-		Queue<Integer> nodesToSearch = new LinkedList<>();
-		Set<Integer> visitedNode = new HashSet<>();
+		//set credit for this graph
+		setCredit(bfsRepresentationGraph, dag);
 		
-		//add the root node to nodeToSearch
-		nodesToSearch.add(root);
-		
-		//loop till root is not empty
-		while(!nodesToSearch.isEmpty())
-		{	
-			int vertex = nodesToSearch.poll();
-			visitedNode.add(vertex);
-			
-			//get the neighbor of vertex
-			Set<Integer> neighborNodeList = getIntegerNeighborNodeRepresentation(this.getNeighbors(vertex));
-			
-			if(neighborNodeList.contains(targetNode)) 
-				return vertex;
-			
-			else
-			{
-				for(int node : neighborNodeList)
-				{
-					if(!visitedNode.contains(node))
-					{
-						nodesToSearch.add(node);
-					}
-				}
-			}
-		}
-		return 0;
+		return bfsRepresentationGraph;
 	}
 	//simple helper method to convert neighbor edges to simple node representation
 	private HashSet<Integer> getIntegerNeighborNodeRepresentation(HashSet<Edge> neighborList)
@@ -836,16 +369,6 @@ public class Graph
 		HashSet<Edge> neiborList = adjListsMap.get(vertex);;
  		return neiborList;
 	}
-	//helper method check if neighbors list contain any unvisited node
-	private boolean ifHasUnvisitedNeighobrs(HashSet<Edge> neighbors, Set<Integer> visited)
-	{
-
-		for(Edge edge : neighbors)
-			//add edgeNode the queue
-			if(!visited.contains(edge.getEndNode())) return true;
-		
-		return false;
-	}
 	//print edge with its edge details
 	public void printGraphWithDetailedEdges()
 	{
@@ -893,63 +416,29 @@ public class Graph
 		System.out.println("\n\n");
 		//System.out.println("Queue of the nodes: " + this.nodeQueue);
 	}
+	/**
+	 * Get the number of edges on a shortest path between the two users, -1 if there is no path
+	 * (bidirectional BFS, see ShortestPaths). Every call copies the graph as it is now, use
+	 * getShortestPaths() for a batch of queries.
+	 */
 	public int distanceBetweenTwoNodes(int start, int goal)
 	{
-		return bfs(start, goal).size();
+		return getShortestPaths().getDistance(start, goal);
 	}
+	/**
+	 * Get a shortest path from start to goal (both included), null if there is no path
+	 */
 	public List<Integer> bfs(int start, int goal)
-	{ 
-		HashSet<Integer> visited = new HashSet<>();
-		Queue<Integer> toExplore = new LinkedList<>();
-		HashMap<Integer, Integer> parentMap = new HashMap<>();
-		
-		toExplore.add(start);
-		
-		boolean found = false;
-		
-		while (!toExplore.isEmpty()) 
-		{ 
-			int curr = toExplore.remove();
-			
-			if (curr == goal) //if the goal location is found
-			{
-				found = true;
-				break;
-			}
-			
-			ArrayList<Integer> neighbors = new ArrayList<Integer>(this.getIntegerNeighborNodeRepresentation(getNeighbors(curr))); 
-				
-			Iterator<Integer> it = neighbors.iterator();
-			while(it.hasNext())
-			{
-				int next = it.next();
-				
-				if(!visited.contains(next))
-				{
-					visited.add(next);
-					parentMap.put(next, curr);
-					toExplore.add(next);
-				}
-			}
-		}
-		if (!found) 
-		{
-			System.out.println("No path exists");
-			return null;
-		}
-		// reconstruct the path
-		 return constructPath(start, goal, parentMap); 
+	{
+		return getShortestPaths().getPath(start, goal);
 	}
-	private static List<Integer> constructPath(int start, int goal, Map<Integer, Integer> parentMap) 
+	/**
+	 * Get a shortest path engine on a CSR copy of the graph as it is now. Keep it for a batch of
+	 * distance queries, it does not see the changes made to the graph afterwards (nothing is cached
+	 * here, the edge sets of getAdjListsMap() can be changed by anybody).
+	 */
+	public ShortestPaths getShortestPaths()
 	{
-		LinkedList<Integer> path = new LinkedList<>();
-		int curr = goal;
-		while (curr != start) 
-		{
-			path.addFirst(curr);
-			curr = parentMap.get(curr); 
-		}
-		path.addFirst(start);
-		return path;
+		return new ShortestPaths(CsrGraph.fromGraph(this));
 	}
 }
@@ -6,43 +6,181 @@
  */
 package capston;
 
-import java.io.File;
-import java.util.HashSet;
-import java.util.Scanner;
-import java.util.Set;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 
 public class GraphLoader {
+    // size of the blocks read from the file channel
+    private static final int BLOCK_SIZE = 1 << 22;
+
+    /**
+     * Loads the edge list given as the argument and prints how fast it was read.
+     */
+    public static void main(String[] args) {
+        String filename = args.length > 0 ? args[0] : "data/twitter_higgs.txt";
+        EdgeList edges = loadEdgeList(filename);
+        System.out.println(filename + ": " + edges.getLoadReport());
+    }
+
     /**
      * Loads graph with data from a file.
      * The file should consist of lines with 2 integers each, corresponding
      * to a "from" vertex and a "to" vertex.
      */ 
     public static void loadGraph(capston.Graph g, String filename) {
-        Set<Integer> seen = new HashSet<Integer>();
-        Scanner sc;
-        try {
-            sc = new Scanner(new File(filename));
-        } catch (Exception e) {
+        EdgeList edges = loadEdgeList(filename);
+        int[] from = edges.getFrom();
+        int[] to = edges.getTo();
+        // Iterate over the edges, adding new vertices as they are found
+        // (addVertex skips known vertices) and connecting them with edges.
+        for (int i = 0; i < edges.size(); i++) {
+            g.addVertex(from[i]);
+            g.addVertex(to[i]);
+            g.addEdge(from[i], to[i]);
+        }
+    }
+
+    /**
+     * Loads a CSR graph from a file with the same format as loadGraph.
+     * The edges go straight from the edge arrays into the CSR arrays.
+     */
+    public static CsrGraph loadCsrGraph(String filename) {
+        EdgeList edges = loadEdgeList(filename);
+        return CsrGraph.fromEdges(edges.getFrom(), edges.getTo(), edges.size());
+    }
+
+    /**
+     * Loads the edges of a file into int arrays.
+     * The file is read through a FileChannel in large blocks and the integers are
+     * parsed by hand (no Scanner, no String per token), so multi-GB SNAP edge lists
+     * load at disk speed. Lines starting with '#' or '%' are comments, values may be
+     * separated by spaces, tabs or commas and columns after the second are ignored
+     * (whatever they hold, i.e. "1 2 0.5").
+     */
+    public static EdgeList loadEdgeList(String filename) {
+        long start = System.nanoTime();
+        EdgeList edges;
+        EdgeListParser parser;
+        long numBytes = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            // a SNAP edge line is about 10 - 15 bytes, so this is close to the real size
+            long size = channel.size();
+            edges = new EdgeList((int) Math.min(size / 12 + 16, Integer.MAX_VALUE - 8));
+            parser = new EdgeListParser(edges);
+
+            byte[] block = new byte[BLOCK_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(block);
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                parser.parse(block, read);
+                numBytes += read;
+                buffer.clear();
+            }
+            parser.finish();
+        } catch (IOException e) {
             e.printStackTrace();
-            return;
+            return new EdgeList();
+        }
+
+        edges.setLoadStatistics(parser.getNumLines(), numBytes, System.nanoTime() - start);
+        return edges;
+    }
+
+    // Parses the blocks of an edge list file, a number may be split between two blocks.
+    private static final class EdgeListParser {
+        private final EdgeList edges;
+        private long numLines;
+        private long value;
+        private boolean negative;
+        private boolean inNumber;
+        private boolean inComment;
+        private boolean emptyLine = true;
+        private int numbersOnLine;
+        private int first;
+        private int second;
+
+        EdgeListParser(EdgeList edges) {
+            this.edges = edges;
+        }
+
+        long getNumLines() {
+            return numLines;
+        }
+
+        void parse(byte[] block, int length) {
+            for (int i = 0; i < length; i++) {
+                byte b = block[i];
+                if (b == '\n') {
+                    endLine();
+                } else if (inComment || numbersOnLine >= 2) {
+                    // a comment or the columns after the edge (i.e. a weight)
+                    continue;
+                } else if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    if (value > 0x80000000L) {
+                        throw new IllegalArgumentException("Vertex id out of int range on line " + (numLines + 1));
+                    }
+                    inNumber = true;
+                    emptyLine = false;
+                } else if (b == ' ' || b == '\t' || b == ',' || b == '\r') {
+                    endNumber();
+                } else if (b == '-' && !inNumber && !negative) {
+                    negative = true;
+                    emptyLine = false;
+                } else if ((b == '#' || b == '%') && numbersOnLine == 0 && !inNumber && !negative) {
+                    inComment = true;
+                    emptyLine = false;
+                } else {
+                    throw new IllegalArgumentException("Unexpected character '" + (char) b + "' on line " + (numLines + 1));
+                }
+            }
+        }
+
+        // the last line may not end with a new line
+        void finish() {
+            if (!emptyLine) {
+                endLine();
+            }
+        }
+
+        private void endNumber() {
+            if (!inNumber) {
+                if (negative) {
+                    throw new IllegalArgumentException("Missing number after '-' on line " + (numLines + 1));
+                }
+                return;
+            }
+            long number = negative ? -value : value;
+            if (number > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Vertex id out of int range on line " + (numLines + 1));
+            }
+            if (numbersOnLine == 0) {
+                first = (int) number;
+            } else if (numbersOnLine == 1) {
+                second = (int) number;
+            }
+            numbersOnLine++;
+            value = 0;
+            negative = false;
+            inNumber = false;
         }
-        // Iterate over the lines in the file, adding new
-        // vertices as they are found and connecting them with edges.
-        while (sc.hasNextInt()) {
-            int v1 = sc.nextInt();
-            int v2 = sc.nextInt();
-            if (!seen.contains(v1)) {
-                g.addVertex(v1);
-                seen.add(v1);
+
+        private void endLine() {
+            endNumber();
+            if (!inComment && numbersOnLine == 1) {
+                throw new IllegalArgumentException("Line " + (numLines + 1) + " has only one vertex");
             }
-            if (!seen.contains(v2)) {
-                g.addVertex(v2);
-                seen.add(v2);
+            if (!inComment && numbersOnLine >= 2) {
+                edges.add(first, second);
             }
-            g.addEdge(v1, v2);
+            numLines++;
+            numbersOnLine = 0;
+            inComment = false;
+            emptyLine = true;
         }
-        
-        sc.close();
     }
 }
@@ -0,0 +1,226 @@
+package capston;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * This class read and write the binary snapshot of a CSR graph
+ *
+ * Re-parsing a text edge list on every run costs seconds on the big graphs, a snapshot is
+ * memory-mapped instead and is ready in milliseconds (see MappedCsrGraph).
+ * A snapshot is never rewritten in place: it is written to a temp file in the same directory which
+ * is then renamed over it, so a JVM which has the old snapshot mapped keeps reading the old pages
+ * and a writer which dies half way leaves the old snapshot (or none) behind.
+ *
+ * File format (version 1, all values little endian):
+ *
+ * 	offset	size
+ * 	0		4			magic "CSRG"
+ * 	4		4			format version
+ * 	8		4			number of vertices n
+ * 	12		4			reserved (0)
+ * 	16		8			number of adjacency entries m
+ * 	24		8			CRC32 of everything after the header
+ * 	32		4 * n		user id of each vertex index (ascending)
+ * 			4 * (n + 1)	CSR offsets
+ * 			4 * m		CSR neighbors
+ */
+public class GraphSnapshot
+{
+	public static final int MAGIC = 0x47525343; //"CSRG" in little endian
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	//file extension used for the snapshot next to an edge list
+	public static final String EXTENSION = ".csr";
+
+	public static void main(String[] args) throws IOException
+	{
+		//convert the given edge list files (or the facebook and twitter_higgs files in data) to snapshots
+		String[] files = args.length > 0 ? args : new String[] {"data/facebook_1000.txt", "data/facebook_2000.txt", "data/twitter_higgs.txt"};
+		for(String edgeListFile : files)
+		{
+			long start = System.nanoTime();
+			String snapshotFile = convert(edgeListFile);
+			long converted = System.nanoTime();
+			MappedCsrGraph graph = open(snapshotFile);
+			long opened = System.nanoTime();
+
+			System.out.printf("%s -> %s: converted in %.1f ms, opened in %.3f ms, %s%n", edgeListFile, snapshotFile,
+					(converted - start) / 1e6, (opened - converted) / 1e6, graph);
+		}
+	}
+
+	/**
+	 * Convert a text edge list to a snapshot next to it (i.e. data/facebook_1000.txt -> data/facebook_1000.csr)
+	 */
+	public static String convert(String edgeListFile) throws IOException
+	{
+		String snapshotFile = getSnapshotFileName(edgeListFile);
+		write(GraphLoader.loadCsrGraph(edgeListFile), snapshotFile);
+		return snapshotFile;
+	}
+
+	/**
+	 * Open the snapshot of the edge list, the snapshot is (re)written first if it is missing, older
+	 * than the edge list or can not be opened. The checksum is verified too (this reads the whole
+	 * file once), a snapshot which does not match is rewritten as well.
+	 */
+	public static MappedCsrGraph load(String edgeListFile) throws IOException
+	{
+		return load(edgeListFile, true);
+	}
+
+	//same as above, without verify only the header of an existing snapshot is read
+	public static MappedCsrGraph load(String edgeListFile, boolean verify) throws IOException
+	{
+		File edgeList = new File(edgeListFile);
+		File snapshot = new File(getSnapshotFileName(edgeListFile));
+		if(snapshot.exists() && snapshot.lastModified() >= edgeList.lastModified())
+		{
+			try
+			{
+				MappedCsrGraph graph = open(snapshot.getPath());
+				if(!verify || graph.verify()) return graph;
+			}
+			catch(IOException e)
+			{
+				//not a snapshot of this version (or a broken one), it is rewritten below
+			}
+		}
+
+		convert(edgeListFile);
+		return open(snapshot.getPath());
+	}
+
+	//data/facebook_1000.txt -> data/facebook_1000.csr
+	public static String getSnapshotFileName(String edgeListFile)
+	{
+		return getFileName(edgeListFile, EXTENSION);
+	}
+
+	//helper method to replace the extension of the edge list file
+	static String getFileName(String edgeListFile, String extension)
+	{
+		int dot = edgeListFile.lastIndexOf('.');
+		int slash = Math.max(edgeListFile.lastIndexOf('/'), edgeListFile.lastIndexOf(File.separatorChar));
+		String base = dot > slash ? edgeListFile.substring(0, dot) : edgeListFile;
+		return base + extension;
+	}
+
+	/**
+	 * Write the graph to a snapshot file (through a temp file, see writeAtomically)
+	 */
+	public static void write(CsrGraph graph, String snapshotFile) throws IOException
+	{
+		writeAtomically(snapshotFile, channel ->
+		{
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			CRC32 crc = new CRC32();
+
+			//the payload goes first, the header (with the checksum) is written at the end
+			channel.position(HEADER_SIZE);
+			writeInts(channel, buffer, crc, graph.getVertexIdArray());
+			writeInts(channel, buffer, crc, graph.getOffsetArray());
+			writeInts(channel, buffer, crc, graph.getNeighborArray());
+
+			buffer.clear();
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(graph.getNumVertices());
+			buffer.putInt(0);
+			buffer.putLong(graph.getNumNeighborEntries());
+			buffer.putLong(crc.getValue());
+			buffer.flip();
+			channel.position(0);
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+		});
+	}
+
+	//writes the content of a file through a FileChannel
+	interface FileContent
+	{
+		void write(FileChannel channel) throws IOException;
+	}
+
+	/**
+	 * Write a file to a temp file in the same directory, force it to the disk and rename it over the
+	 * file. Readers see either the old or the new file, never a half written one, and the mappings of
+	 * the old file stay valid (also used for the DistanceOracle and Dendrogram files).
+	 */
+	static void writeAtomically(String file, FileContent content) throws IOException
+	{
+		Path target = Paths.get(file).toAbsolutePath();
+		Path temp = target.resolveSibling(target.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+		try
+		{
+			try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+			{
+				content.write(channel);
+				channel.force(true);
+			}
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally
+		{
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	//helper method to write an int array through the buffer and add it to the checksum
+	static void writeInts(FileChannel channel, ByteBuffer buffer, CRC32 crc, int[] values) throws IOException
+	{
+		int i = 0;
+		while(i < values.length)
+		{
+			buffer.clear();
+			int count = Math.min(values.length - i, buffer.capacity() / 4);
+			buffer.asIntBuffer().put(values, i, count);
+			buffer.limit(4 * count);
+			crc.update(buffer.array(), 0, 4 * count);
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+			i += count;
+		}
+	}
+
+	/**
+	 * Memory-map a snapshot file, only the header is read
+	 */
+	public static MappedCsrGraph open(String snapshotFile) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(Paths.get(snapshotFile), StandardOpenOption.READ))
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while(header.hasRemaining() && channel.read(header) != -1);
+			header.flip();
+			if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC)
+				throw new IOException(snapshotFile + " is not a graph snapshot.");
+
+			int version = header.getInt();
+			if(version != VERSION)
+				throw new IOException(snapshotFile + " has snapshot version " + version + ", expected " + VERSION + ".");
+
+			int numVertices = header.getInt();
+			header.getInt();
+			long numEntries = header.getLong();
+			long checksum = header.getLong();
+
+			long expectedSize = HEADER_SIZE + 4L * (2L * numVertices + 1 + numEntries);
+			if(numVertices < 0 || numEntries < 0 || numEntries > Integer.MAX_VALUE || channel.size() != expectedSize)
+				throw new IOException(snapshotFile + " is truncated or corrupted.");
+
+			return new MappedCsrGraph(channel, HEADER_SIZE, numVertices, (int) numEntries, checksum);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package capston;
+
+import java.util.Arrays;
+
+/**
+ * This class represent one community as a view over the CSR graph of the network instead of a copy.
+ *
+ * The view is defined by the membership array shared by all the communities of a detection
+ * (part[v] is the community of the vertex index v of the network, -1 if v is in none) and the
+ * ascending vertex indices of its members, so a community costs one int per member. The vertex
+ * index k of the view is the member vertices[k] of the network:
+ *
+ * 	network index:	0  1  2  3  4		part:	0  1  0  -1  1
+ * 	view of part 0:	0  1				vertices:	0  2
+ *
+ * The neighbors inside the community are filtered out of the neighbors in the network the first
+ * time they are needed (getDegree, getNeighbor or toCsrGraph for the betweenness and BFS classes),
+ * checking only part[w], and kept as a small CSR graph.
+ */
+public class InducedSubgraph implements IntGraph
+{
+	private final CsrGraph graph;
+	private final int[] part;
+	private final int id;
+	//ascending vertex indices of the network
+	private final int[] vertices;
+	//neighbors inside the community, built on first use
+	private volatile CsrGraph inducedGraph;
+
+	InducedSubgraph(CsrGraph graph, int[] part, int id, int[] vertices)
+	{
+		this.graph = graph;
+		this.part = part;
+		this.id = id;
+		this.vertices = vertices;
+	}
+
+	//network the view is taken from
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	//community of the view in the membership array
+	public int getId()
+	{
+		return id;
+	}
+
+	//vertex index in the network of the vertex index v of the view
+	public int getNetworkIndex(int v)
+	{
+		return vertices[v];
+	}
+
+	//whether the user is a member of the community
+	public boolean contains(int vertexId)
+	{
+		int v = graph.getIndex(vertexId);
+		return v >= 0 && part[v] == id;
+	}
+
+	//user ids of the members (ascending)
+	public int[] getMembers()
+	{
+		int[] members = new int[vertices.length];
+		for(int k = 0; k < vertices.length; k++)
+			members[k] = graph.getVertexId(vertices[k]);
+		return members;
+	}
+
+	@Override
+	public int getNumVertices()
+	{
+		return vertices.length;
+	}
+
+	@Override
+	public int getNumEdges()
+	{
+		return toCsrGraph().getNumEdges();
+	}
+
+	@Override
+	public int getDegree(int v)
+	{
+		return toCsrGraph().getDegree(v);
+	}
+
+	@Override
+	public int getNeighbor(int v, int i)
+	{
+		return toCsrGraph().getNeighbor(v, i);
+	}
+
+	@Override
+	public int getVertexId(int v)
+	{
+		return graph.getVertexId(vertices[v]);
+	}
+
+	@Override
+	public int getIndex(int vertexId)
+	{
+		int v = graph.getIndex(vertexId);
+		if(v < 0 || part[v] != id) return -1;
+		return Arrays.binarySearch(vertices, v);
+	}
+
+	/**
+	 * Get the community as a CSR graph (i.e. for EdgeBetweenness or ShortestPaths), the neighbors
+	 * inside the community are filtered once and shared by every later call
+	 */
+	public CsrGraph toCsrGraph()
+	{
+		CsrGraph induced = inducedGraph;
+		if(induced == null)
+		{
+			synchronized(this)
+			{
+				induced = inducedGraph;
+				if(induced == null)
+				{
+					induced = buildInducedGraph();
+					inducedGraph = induced;
+				}
+			}
+		}
+		return induced;
+	}
+
+	//copy the community into a Graph
+	public Graph toGraph()
+	{
+		return toCsrGraph().toGraph();
+	}
+
+	//helper method to keep the neighbors inside the community, in the same (ascending) order
+	private CsrGraph buildInducedGraph()
+	{
+		int size = vertices.length;
+		int[] ids = new int[size];
+		int[] offsets = new int[size + 1];
+		for(int k = 0; k < size; k++)
+		{
+			int v = vertices[k];
+			ids[k] = graph.getVertexId(v);
+			offsets[k + 1] = offsets[k];
+			for(int i = 0; i < graph.getDegree(v); i++)
+			{
+				int w = graph.getNeighbor(v, i);
+				if(w != v && part[w] == id) offsets[k + 1]++;
+			}
+		}
+
+		int[] neighbors = new int[offsets[size]];
+		int slot = 0;
+		for(int k = 0; k < size; k++)
+		{
+			int v = vertices[k];
+			for(int i = 0; i < graph.getDegree(v); i++)
+			{
+				int w = graph.getNeighbor(v, i);
+				if(w != v && part[w] == id) neighbors[slot++] = Arrays.binarySearch(vertices, w);
+			}
+		}
+		return new CsrGraph(ids, offsets, neighbors);
+	}
+}
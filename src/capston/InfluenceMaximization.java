@@ -0,0 +1,495 @@
+package capston;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class select the k users who make the message reach the most users (influence maximization)
+ *
+ * Greedy: k times add the user with the highest marginal gain
+ *
+ * 		gain(v) = spread(seeds + v) - spread(seeds)
+ *
+ * The naive greedy evaluates the spread of every user in every round, O(k * |V|) evaluations.
+ * CELF (lazy greedy) keeps the gains of the earlier rounds in a priority queue: when the spread is
+ * submodular the gain of a user can only go down when the seed set grows, so a user whose gain was
+ * computed in the current round and is still on top of the queue is the best user, and the other
+ * users are not re-evaluated. After the first round only a handful of users are evaluated per round.
+ *
+ * Two spread models:
+ * 	ThresholdModel			the model of FindingMinNumUserToReachAPost, a user shares the message when
+ * 							enough of his/her friends have posted it, spread = users who have seen it.
+ * 							Not submodular: two seeds together can push a user over the threshold
+ * 							when neither can alone, so getSeeds runs the naive greedy for it.
+ * 	IndependentCascadeModel	every user who shares gives each friend one chance to share with
+ * 							probability p, spread = expected number of users who shared, estimated by
+ * 							Monte-Carlo simulations run in parallel. Submodular, so CELF selects the
+ * 							same seeds as the naive greedy.
+ */
+public class InfluenceMaximization
+{
+	private final SpreadModel model;
+
+	//results of the last run
+	private double spread;
+	private int numEvaluations;
+
+	public static void main(String[] args) throws IOException
+	{
+		IntGraph network = GraphSnapshot.load("data/facebook_2000.txt");
+		int k = 10;
+
+		InfluenceMaximization threshold = new InfluenceMaximization(new ThresholdModel(network, FindingMinNumUserToReachAPost.SHARE_PERCENTAGE / 100.0));
+		List<Integer> seeds = threshold.getSeeds(k);
+		System.out.println("Threshold model, greedy seeds: " + seeds + " spread: " + threshold.getSpread()
+				+ " evaluations: " + threshold.getNumEvaluations());
+
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		try(IndependentCascadeModel cascade = new IndependentCascadeModel(network, 0.05, 200, numThreads, 1L))
+		{
+			InfluenceMaximization independentCascade = new InfluenceMaximization(cascade);
+			seeds = independentCascade.getSeeds(k);
+			System.out.printf("Independent cascade, CELF seeds: %s spread: %.1f evaluations: %d%n", seeds,
+					independentCascade.getSpread(), independentCascade.getNumEvaluations());
+		}
+	}
+
+	public InfluenceMaximization(SpreadModel model)
+	{
+		this.model = model;
+	}
+
+	/**
+	 * Get the user ids of k seed users selected with CELF (lazy greedy), or with the naive greedy
+	 * when the spread of the model is not submodular (CELF could miss the best user there)
+	 */
+	public List<Integer> getSeeds(int k)
+	{
+		if(!model.isSubmodular()) return getSeedsGreedy(k);
+		checkBudget(k);
+		int n = model.getGraph().getNumVertices();
+		int[] seeds = new int[Math.min(k, n) + 1];
+		int numSeeds = 0;
+		spread = 0.0;
+		numEvaluations = 0;
+
+		//first round, the gain of every user is the user's own spread
+		PriorityQueue<Candidate> queue = new PriorityQueue<>(Math.max(n, 1));
+		for(int v = 0; v < n; v++)
+		{
+			seeds[0] = v;
+			queue.add(new Candidate(v, evaluate(seeds, 1), 0));
+		}
+
+		while(numSeeds < k && !queue.isEmpty())
+		{
+			Candidate candidate = queue.poll();
+			if(candidate.round == numSeeds)
+			{
+				//the gain is up to date and no other user can have a higher one
+				seeds[numSeeds++] = candidate.vertex;
+				spread += candidate.gain;
+				continue;
+			}
+			seeds[numSeeds] = candidate.vertex;
+			candidate.gain = evaluate(seeds, numSeeds + 1) - spread;
+			candidate.round = numSeeds;
+			queue.add(candidate);
+		}
+		return toUserIds(seeds, numSeeds);
+	}
+
+	/**
+	 * Same selection as getSeeds with the naive greedy (every user is evaluated in every round),
+	 * i.e. to compare the number of evaluations
+	 */
+	public List<Integer> getSeedsGreedy(int k)
+	{
+		checkBudget(k);
+		int n = model.getGraph().getNumVertices();
+		int[] seeds = new int[Math.min(k, n) + 1];
+		boolean[] selected = new boolean[n];
+		int numSeeds = 0;
+		spread = 0.0;
+		numEvaluations = 0;
+
+		while(numSeeds < Math.min(k, n))
+		{
+			int best = -1;
+			double bestSpread = 0.0;
+			for(int v = 0; v < n; v++)
+			{
+				if(selected[v]) continue;
+				seeds[numSeeds] = v;
+				double value = evaluate(seeds, numSeeds + 1);
+				if(best == -1 || value > bestSpread)
+				{
+					best = v;
+					bestSpread = value;
+				}
+			}
+			selected[best] = true;
+			seeds[numSeeds++] = best;
+			spread = bestSpread;
+		}
+		return toUserIds(seeds, numSeeds);
+	}
+
+	//spread of the seed set returned by the last getSeeds / getSeedsGreedy
+	public double getSpread()
+	{
+		return spread;
+	}
+
+	//number of spread evaluations of the last getSeeds / getSeedsGreedy
+	public int getNumEvaluations()
+	{
+		return numEvaluations;
+	}
+
+	//helper method to evaluate the spread and count the evaluations
+	private double evaluate(int[] seeds, int numSeeds)
+	{
+		numEvaluations++;
+		return model.getSpread(seeds, numSeeds);
+	}
+
+	private static void checkBudget(int k)
+	{
+		if(k < 0) throw new IllegalArgumentException("Number of seed users must not be negative.");
+	}
+
+	private List<Integer> toUserIds(int[] seeds, int numSeeds)
+	{
+		List<Integer> userIds = new ArrayList<>(numSeeds);
+		for(int i = 0; i < numSeeds; i++)
+			userIds.add(model.getGraph().getVertexId(seeds[i]));
+		return userIds;
+	}
+
+	//user with the marginal gain computed in the given round (number of seeds at that time)
+	private static class Candidate implements Comparable<Candidate>
+	{
+		private final int vertex;
+		private double gain;
+		private int round;
+
+		Candidate(int vertex, double gain, int round)
+		{
+			this.vertex = vertex;
+			this.gain = gain;
+			this.round = round;
+		}
+
+		//highest gain first, the lower vertex index between equal gains
+		@Override
+		public int compareTo(Candidate other)
+		{
+			int result = Double.compare(other.gain, gain);
+			return result != 0 ? result : Integer.compare(vertex, other.vertex);
+		}
+	}
+
+	/**
+	 * Spread of a set of seed users, the seeds are vertex indices of getGraph()
+	 */
+	public interface SpreadModel
+	{
+		IntGraph getGraph();
+
+		double getSpread(int[] seeds, int numSeeds);
+
+		//whether a gain can only go down when the seed set grows, only then getSeeds uses CELF
+		default boolean isSubmodular()
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * A user shares the message when at least threshold * (number of friends) of his/her friends
+	 * have posted it, the spread is the number of users who have seen it (who posted and their friends).
+	 * The network is treated as undirected.
+	 */
+	public static class ThresholdModel implements SpreadModel
+	{
+		//so that i.e. 3 posted friends out of 30 reach the threshold 0.1 despite the rounding of 0.1 * 30
+		private static final double EPSILON = 1e-9;
+
+		private final CsrGraph graph;
+		private final double threshold;
+
+		//scratch arrays, an entry is valid only when its mark is the current epoch
+		private final int[] postedMark;
+		private final int[] seenMark;
+		private final int[] countMark;
+		private final int[] postedFriends;
+		private final int[] queue;
+		private int epoch;
+
+		public ThresholdModel(IntGraph graph, double threshold)
+		{
+			if(threshold < 0.0 || threshold > 1.0)
+				throw new IllegalArgumentException("Threshold must be between 0 and 1.");
+
+			this.graph = CsrGraph.fromIntGraph(graph).toUndirected();
+			this.threshold = threshold;
+			int n = this.graph.getNumVertices();
+			postedMark = new int[n];
+			seenMark = new int[n];
+			countMark = new int[n];
+			postedFriends = new int[n];
+			queue = new int[n];
+		}
+
+		@Override
+		public IntGraph getGraph()
+		{
+			return graph;
+		}
+
+		@Override
+		public double getSpread(int[] seeds, int numSeeds)
+		{
+			if(++epoch == Integer.MAX_VALUE)
+			{
+				Arrays.fill(postedMark, 0);
+				Arrays.fill(seenMark, 0);
+				Arrays.fill(countMark, 0);
+				epoch = 1;
+			}
+
+			int head = 0;
+			int tail = 0;
+			for(int i = 0; i < numSeeds; i++)
+			{
+				int v = seeds[i];
+				if(postedMark[v] == epoch) continue;
+				postedMark[v] = epoch;
+				queue[tail++] = v;
+			}
+
+			int seen = 0;
+			while(head < tail)
+			{
+				int vertex = queue[head++];
+				if(seenMark[vertex] != epoch)
+				{
+					seenMark[vertex] = epoch;
+					seen++;
+				}
+				for(int i = 0; i < graph.getDegree(vertex); i++)
+				{
+					int v = graph.getNeighbor(vertex, i);
+					if(seenMark[v] != epoch)
+					{
+						seenMark[v] = epoch;
+						seen++;
+					}
+					if(countMark[v] != epoch)
+					{
+						countMark[v] = epoch;
+						postedFriends[v] = 0;
+					}
+					postedFriends[v]++;
+					if(postedMark[v] != epoch && postedFriends[v] >= threshold * graph.getDegree(v) - EPSILON)
+					{
+						postedMark[v] = epoch;
+						queue[tail++] = v;
+					}
+				}
+			}
+			return seen;
+		}
+	}
+
+	/**
+	 * Independent cascade: a user who shares the message gives each friend one chance to share it
+	 * with the given probability. The spread is the average number of users who shared over
+	 * numSimulations simulations.
+	 *
+	 * Whether the edge v --> w is live in the simulation r is a hash of (seed, r, edge), so every
+	 * seed set is evaluated on the same random outcomes (the gains of CELF are compared on the
+	 * same samples and a run is reproducible) and no random generator is shared between threads.
+	 * With numThreads > 1 the simulations are split across a ForkJoinPool, close() shuts it down.
+	 */
+	public static class IndependentCascadeModel implements SpreadModel, AutoCloseable
+	{
+		//less simulations than this are always run on the calling thread
+		private static final int MIN_PARALLEL_SIMULATIONS = 16;
+
+		private final CsrGraph graph;
+		//edge is live when the 53 bit hash is below this bound
+		private final long liveBound;
+		private final int numSimulations;
+		private final int numThreads;
+		private final long seed;
+
+		private final ThreadLocal<Simulator> threadSimulator;
+		private ForkJoinPool pool;
+
+		public IndependentCascadeModel(IntGraph graph, double probability, int numSimulations, int numThreads, long seed)
+		{
+			if(probability < 0.0 || probability > 1.0)
+				throw new IllegalArgumentException("Probability must be between 0 and 1.");
+			if(numSimulations < 1)
+				throw new IllegalArgumentException("Number of simulations must be at least 1.");
+			if(numThreads < 1)
+				throw new IllegalArgumentException("Number of threads must be at least 1.");
+
+			this.graph = CsrGraph.fromIntGraph(graph).toUndirected();
+			this.liveBound = (long) (probability * (1L << 53));
+			this.numSimulations = numSimulations;
+			this.numThreads = numThreads;
+			this.seed = seed;
+			threadSimulator = ThreadLocal.withInitial(() -> new Simulator(this));
+		}
+
+		@Override
+		public IntGraph getGraph()
+		{
+			return graph;
+		}
+
+		//every simulation is a reachability over its live edges, and an average of those is submodular
+		@Override
+		public boolean isSubmodular()
+		{
+			return true;
+		}
+
+		@Override
+		public double getSpread(int[] seeds, int numSeeds)
+		{
+			long total;
+			if(numThreads == 1 || numSimulations < MIN_PARALLEL_SIMULATIONS)
+			{
+				total = threadSimulator.get().simulate(seeds, numSeeds, 0, numSimulations);
+			}
+			else
+			{
+				if(pool == null) pool = new ForkJoinPool(numThreads);
+				int grain = Math.max(1, numSimulations / (numThreads * 4));
+				total = pool.invoke(new SimulationRangeTask(this, seeds, numSeeds, 0, numSimulations, grain));
+			}
+			return (double) total / numSimulations;
+		}
+
+		@Override
+		public void close()
+		{
+			if(pool != null) pool.shutdown();
+			pool = null;
+		}
+
+		//helper method to decide if the adjacency entry (slot) is live in the given simulation (SplitMix64 hash)
+		private boolean isLive(int simulation, int slot)
+		{
+			long z = seed + simulation * 0x9E3779B97F4A7C15L + (slot + 1L) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			z = z ^ (z >>> 31);
+			return (z >>> 11) < liveBound;
+		}
+	}
+
+	//fork join task which splits a range of simulations, the result is the total number of users who shared
+	private static class SimulationRangeTask extends RecursiveTask<Long>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final IndependentCascadeModel model;
+		private final int[] seeds;
+		private final int numSeeds;
+		private final int start;
+		private final int end;
+		private final int grain;
+
+		SimulationRangeTask(IndependentCascadeModel model, int[] seeds, int numSeeds, int start, int end, int grain)
+		{
+			this.model = model;
+			this.seeds = seeds;
+			this.numSeeds = numSeeds;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected Long compute()
+		{
+			if(end - start <= grain)
+				return model.threadSimulator.get().simulate(seeds, numSeeds, start, end);
+
+			int middle = (start + end) >>> 1;
+			SimulationRangeTask left = new SimulationRangeTask(model, seeds, numSeeds, start, middle, grain);
+			left.fork();
+			long right = new SimulationRangeTask(model, seeds, numSeeds, middle, end, grain).compute();
+			return left.join() + right;
+		}
+	}
+
+	//scratch arrays of one thread for the independent cascade simulations
+	private static class Simulator
+	{
+		private final IndependentCascadeModel model;
+		private final int[] mark;
+		private final int[] queue;
+		private int epoch;
+
+		Simulator(IndependentCascadeModel model)
+		{
+			this.model = model;
+			int n = model.graph.getNumVertices();
+			mark = new int[n];
+			queue = new int[n];
+		}
+
+		//total number of users who shared in the simulations start .. end - 1
+		long simulate(int[] seeds, int numSeeds, int start, int end)
+		{
+			CsrGraph graph = model.graph;
+			long total = 0;
+			for(int simulation = start; simulation < end; simulation++)
+			{
+				if(++epoch == Integer.MAX_VALUE)
+				{
+					Arrays.fill(mark, 0);
+					epoch = 1;
+				}
+
+				int head = 0;
+				int tail = 0;
+				for(int i = 0; i < numSeeds; i++)
+				{
+					int v = seeds[i];
+					if(mark[v] == epoch) continue;
+					mark[v] = epoch;
+					queue[tail++] = v;
+				}
+				while(head < tail)
+				{
+					int v = queue[head++];
+					int slotStart = graph.getNeighborSlot(v);
+					int slotEnd = slotStart + graph.getDegree(v);
+					for(int slot = slotStart; slot < slotEnd; slot++)
+					{
+						int w = graph.getNeighborAtSlot(slot);
+						if(mark[w] != epoch && model.isLive(simulation, slot))
+						{
+							mark[w] = epoch;
+							queue[tail++] = w;
+						}
+					}
+				}
+				total += tail;
+			}
+			return total;
+		}
+	}
+}
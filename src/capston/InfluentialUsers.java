@@ -6,43 +6,70 @@ package capston;
  * This class detecting the possible influential users of the network
  */
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 
 
 public class InfluentialUsers {
 
-	public static void main(String[] args) 
+	public static void main(String[] args) throws IOException
 	{
-		//load the graph
-		Graph network = new Graph();
-		GraphLoader.loadGraph(network, "data/main_test.txt");
+		//load the graph, the binary snapshot of the edge list is memory-mapped (and written on the first run)
+		IntGraph network = GraphSnapshot.load("data/main_test.txt");
 		
 		List<Integer> influentialUserList = getInfluentialUserList(network);
 		System.out.println(influentialUserList);
+
+		//ranked by PageRank and the users in the top 10% by degree, one Centrality keeps the measures
+		Centrality centrality = new Centrality(network, Runtime.getRuntime().availableProcessors());
+		System.out.println(getTopInfluentialUsers(centrality, Centrality.Measure.PAGE_RANK, 3));
+		System.out.println(getInfluentialUserList(centrality, Centrality.Measure.DEGREE, 90));
 	}
 
 	//user is potential influential user if he has friends more than 5% of the network user
 	//this percentage must be dynamic depending on the size of the social network
 	//I've set this decided percentage for group has members in the range of 10,000 - 20, 0000
-	private static List<Integer> getInfluentialUserList(Graph network)
+	public static List<Integer> getInfluentialUserList(Graph network)
+	{
+		return getInfluentialUserList(CsrGraph.fromGraph(network));
+	}
+
+	//same as above but on the primitive adjacency, the degree of a user is read from the offsets
+	public static List<Integer> getInfluentialUserList(IntGraph network)
 	{
 		List<Integer> influentialUserList = new ArrayList<>();
 		//get the total number of user in the graph
 		int totalNumberOfUser = network.getNumVertices();
 
-		//System.out.println(g + "\n\n");
-		Map<Integer, HashSet<Edge>> graphAdjListsMap = network.getAdjListsMap();
-		
-		for(int vertexID : graphAdjListsMap.keySet())
+		for(int v = 0; v < totalNumberOfUser; v++)
 		{
-			int numberNeighbors = graphAdjListsMap.get(vertexID).size();
-			if(numberNeighbors >= (totalNumberOfUser * 5)/100) influentialUserList.add(vertexID);
+			int numberNeighbors = network.getDegree(v);
+			if(numberNeighbors >= (totalNumberOfUser * 5)/100) influentialUserList.add(network.getVertexId(v));
 		}
 		
 		return influentialUserList;
 				
 	}
+
+	//the k most influential users by the given measure, most influential first (the measure is computed
+	//on the first query and kept by the Centrality, so use the same one for all the queries)
+	public static List<Integer> getTopInfluentialUsers(Centrality centrality, Centrality.Measure measure, int k)
+	{
+		return centrality.getTopK(measure, k);
+	}
+
+	//the users at or above the given percentile (0 - 100) of the measure, i.e. the top 5% by degree
+	//is the 95th percentile, this threshold adapts to the size of the network
+	public static List<Integer> getInfluentialUserList(Centrality centrality, Centrality.Measure measure, double percentile)
+	{
+		return centrality.getUsersAbovePercentile(measure, percentile);
+	}
+
+	//Centrality of the minCore-core alone, so only its users are ranked and the big fringe of users with
+	//one or two friends costs nothing
+	public static Centrality getCoreCentrality(IntGraph network, int minCore)
+	{
+		return new Centrality(new CoreDecomposition(network).getCoreGraph(minCore), Runtime.getRuntime().availableProcessors());
+	}
 }
@@ -0,0 +1,33 @@
+package capston;
+
+/**
+ * This interface represent a read-only graph whose vertices are dense indices 0..n-1.
+ *
+ * The user ids of the network are sparse (i.e. 298960, 105232 in twitter_higgs.txt), so each
+ * implementation keeps its own mapping between the dense index and the user id.
+ * Analysis code walks the neighbors by index so no Integer or Edge object is created per step:
+ *
+ * 		for(int i = 0; i < graph.getDegree(v); i++)
+ * 			int w = graph.getNeighbor(v, i);
+ *
+ */
+public interface IntGraph
+{
+	//number of vertices, vertex indices are 0..getNumVertices() - 1
+	int getNumVertices();
+
+	//number of undirected edges, counted like Graph.getNumEdges()
+	int getNumEdges();
+
+	//number of neighbors of the vertex index v
+	int getDegree(int v);
+
+	//i-th neighbor (vertex index) of the vertex index v
+	int getNeighbor(int v, int i);
+
+	//user id of the vertex index v
+	int getVertexId(int v);
+
+	//vertex index of the user id, or -1 if the user is not in the graph
+	int getIndex(int vertexId);
+}
@@ -0,0 +1,536 @@
+package capston;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class detect the sub-communities of the network with label propagation (LPA)
+ *
+ * Every user starts with its own label, then in every iteration each user takes the label most of
+ * its neighbors have. Densely connected users quickly agree on one label, and each label left at
+ * the end is one community. One iteration is O(|E|), a social network needs a few tens of them.
+ *
+ * 	ASYNCHRONOUS		the users are visited in a new random order every iteration and a new label
+ * 						is seen at once by the users visited after it. With more than one thread the
+ * 						order is split across a ForkJoinPool and all the threads read and write one
+ * 						shared label array without any lock (an int is always read whole, a thread
+ * 						may only see an older label of a neighbor, which is still a valid
+ * 						asynchronous order). The result depends on the thread timing.
+ * 	SEMI_SYNCHRONOUS	the users are colored so that no two neighbors have the same color, then the
+ * 						colors are updated one after the other and all the users of a color in
+ * 						parallel (Cordasco-Gargano). A user never reads a label written in the same
+ * 						step, so the result is the same for any number of threads.
+ *
+ * A user keeps its label when that label is one of the most frequent around it, other ties are
+ * broken by a hash of the label and the iteration, so no label wins just by having a low id.
+ * The propagation stops when at most threshold * n users change their label in an iteration (or
+ * after maxIterations). The time and the number of label changes of every iteration are kept.
+ *
+ * At the end, the communities with less than minVertices users are merged, smallest first, into
+ * the neighbor community with the most edges to them. A small community without any edge to
+ * another community is dropped, like the small pieces of Girvan-Newman.
+ *
+ * The network is treated as undirected, self loops of the input are ignored.
+ */
+public class LabelPropagationCommunityDetection
+{
+	public enum Mode
+	{
+		ASYNCHRONOUS,
+		SEMI_SYNCHRONOUS
+	}
+
+	public static final double DEFAULT_THRESHOLD = 0.001;
+	public static final int DEFAULT_MAX_ITERATIONS = 100;
+	public static final long DEFAULT_SEED = 42L;
+	//less users than this (in a range of the order or in a color) are always updated on the calling thread
+	private static final int MIN_PARALLEL_VERTICES = 4096;
+
+	private final CsrGraph graph;
+	private final int minVertices;
+	private final int numThreads;
+	private final Mode mode;
+	private final double threshold;
+	private final int maxIterations;
+	private final long seed;
+
+	//label of every vertex index, a label is the vertex index where it started
+	private int[] labels;
+	private long[] iterationNanos = new long[0];
+	private int[] labelChanges = new int[0];
+	private int numIterations;
+	private int numColors;
+	//final community of every vertex index (0 .. numCommunities - 1), -1 if dropped
+	private int[] community;
+	private int numCommunities;
+	private List<Graph> subCommunites;
+
+	public LabelPropagationCommunityDetection(Graph graph, int minVertices)
+	{
+		this(CsrGraph.fromGraph(graph), minVertices, 1, Mode.ASYNCHRONOUS);
+	}
+
+	public LabelPropagationCommunityDetection(IntGraph graph, int minVertices)
+	{
+		this(graph, minVertices, 1, Mode.ASYNCHRONOUS);
+	}
+
+	/**
+	 * With numThreads > 1 the label updates are split across a ForkJoinPool of that many threads
+	 */
+	public LabelPropagationCommunityDetection(IntGraph graph, int minVertices, int numThreads, Mode mode)
+	{
+		this(graph, minVertices, numThreads, mode, DEFAULT_THRESHOLD, DEFAULT_MAX_ITERATIONS, DEFAULT_SEED);
+	}
+
+	/**
+	 * threshold is the fraction of the users which may still change their label when the
+	 * propagation stops (0 to run till no label changes), seed fixes the random orders
+	 */
+	public LabelPropagationCommunityDetection(IntGraph graph, int minVertices, int numThreads, Mode mode,
+			double threshold, int maxIterations, long seed)
+	{
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+		if(mode == null)
+			throw new IllegalArgumentException("Mode must not be null.");
+		if(threshold < 0.0 || threshold >= 1.0)
+			throw new IllegalArgumentException("Threshold must be at least 0 and less than 1.");
+		if(maxIterations < 1)
+			throw new IllegalArgumentException("Number of iterations must be at least 1.");
+
+		this.graph = CsrGraph.fromIntGraph(graph).toUndirected();
+		this.minVertices = minVertices;
+		this.numThreads = numThreads;
+		this.mode = mode;
+		this.threshold = threshold;
+		this.maxIterations = maxIterations;
+		this.seed = seed;
+		detect();
+	}
+
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	public Mode getMode()
+	{
+		return mode;
+	}
+
+	/**
+	 * Get the sub-communities, each one with the edges between its users
+	 */
+	public List<Graph> getSubCommunites()
+	{
+		if(subCommunites == null) subCommunites = graph.toGraphs(community, numCommunities);
+		return subCommunites;
+	}
+
+	//same sub-communities as views over the network, without copying them
+	public List<InducedSubgraph> getSubCommunityViews()
+	{
+		return graph.getInducedSubgraphs(community, numCommunities);
+	}
+
+	public int getSizeOfSubCommunites()
+	{
+		return numCommunities;
+	}
+
+	//community of every vertex index (0 .. getSizeOfSubCommunites() - 1), -1 if the user was dropped
+	public int[] getCommunities()
+	{
+		return community;
+	}
+
+	//label of every vertex index when the propagation stopped (before the minVertices rule)
+	public int[] getLabels()
+	{
+		return labels;
+	}
+
+	public int getNumIterations()
+	{
+		return numIterations;
+	}
+
+	//wall time of the given iteration in nanoseconds
+	public long getIterationNanos(int iteration)
+	{
+		if(iteration < 0 || iteration >= numIterations)
+			throw new IllegalArgumentException("There is no iteration " + iteration + ".");
+		return iterationNanos[iteration];
+	}
+
+	//number of users which changed their label in the given iteration
+	public int getLabelChanges(int iteration)
+	{
+		if(iteration < 0 || iteration >= numIterations)
+			throw new IllegalArgumentException("There is no iteration " + iteration + ".");
+		return labelChanges[iteration];
+	}
+
+	//number of colors of the semi-synchronous mode, 0 in the asynchronous mode
+	public int getNumColors()
+	{
+		return numColors;
+	}
+
+	//helper method to run the propagation and apply the minVertices rule
+	private void detect()
+	{
+		int n = graph.getNumVertices();
+		labels = new int[n];
+		for(int v = 0; v < n; v++)
+			labels[v] = v;
+
+		//SEMI_SYNCHRONOUS: the vertices of color c are order[colorStart[c]] .. order[colorStart[c + 1] - 1]
+		int[] order = new int[n];
+		int[] colorStart;
+		if(mode == Mode.SEMI_SYNCHRONOUS)
+		{
+			colorStart = color(order);
+			numColors = colorStart.length - 1;
+		}
+		else
+		{
+			for(int v = 0; v < n; v++)
+				order[v] = v;
+			colorStart = new int[] {0, n};
+		}
+
+		iterationNanos = new long[maxIterations];
+		labelChanges = new int[maxIterations];
+		ThreadLocal<Scratch> threadScratch = ThreadLocal.withInitial(() -> new Scratch(n));
+		ForkJoinPool pool = numThreads > 1 && n >= MIN_PARALLEL_VERTICES ? new ForkJoinPool(numThreads) : null;
+		try
+		{
+			while(numIterations < maxIterations)
+			{
+				long start = System.nanoTime();
+				long iterationSeed = mix(seed + numIterations * 0x9E3779B97F4A7C15L);
+				if(mode == Mode.ASYNCHRONOUS) shuffle(order, iterationSeed);
+
+				int changes = 0;
+				for(int c = 0; c + 1 < colorStart.length; c++)
+					changes += update(pool, threadScratch, order, colorStart[c], colorStart[c + 1], iterationSeed);
+
+				iterationNanos[numIterations] = System.nanoTime() - start;
+				labelChanges[numIterations] = changes;
+				numIterations++;
+				if(changes <= threshold * n) break;
+			}
+		}
+		finally
+		{
+			if(pool != null) pool.shutdown();
+		}
+		iterationNanos = Arrays.copyOf(iterationNanos, numIterations);
+		labelChanges = Arrays.copyOf(labelChanges, numIterations);
+
+		mergeSmallCommunities();
+	}
+
+	//helper method to update the labels of order[start .. end - 1], returns the number of changes
+	private int update(ForkJoinPool pool, ThreadLocal<Scratch> threadScratch, int[] order, int start, int end, long iterationSeed)
+	{
+		if(pool == null || end - start < MIN_PARALLEL_VERTICES)
+			return updateRange(threadScratch.get(), order, start, end, iterationSeed);
+
+		int grain = Math.max(1024, (end - start) / (numThreads * 8));
+		return pool.invoke(new UpdateRangeTask(this, threadScratch, order, start, end, grain, iterationSeed));
+	}
+
+	int updateRange(Scratch scratch, int[] order, int start, int end, long iterationSeed)
+	{
+		int changes = 0;
+		for(int k = start; k < end; k++)
+		{
+			int v = order[k];
+			int label = getBestLabel(v, scratch, iterationSeed);
+			if(label != labels[v])
+			{
+				labels[v] = label;
+				changes++;
+			}
+		}
+		return changes;
+	}
+
+	//most frequent label around v, its own label if that one is among the most frequent
+	private int getBestLabel(int v, Scratch scratch, long iterationSeed)
+	{
+		int own = labels[v];
+		int numTouched = 0;
+		for(int i = graph.getNeighborSlot(v), end = i + graph.getDegree(v); i < end; i++)
+		{
+			int w = graph.getNeighborAtSlot(i);
+			if(w == v) continue;
+			int label = labels[w];
+			if(scratch.count[label]++ == 0) scratch.touched[numTouched++] = label;
+		}
+		if(numTouched == 0) return own;
+
+		int maxCount = 0;
+		for(int t = 0; t < numTouched; t++)
+			maxCount = Math.max(maxCount, scratch.count[scratch.touched[t]]);
+
+		int best = -1;
+		long bestHash = 0L;
+		boolean keepOwn = false;
+		for(int t = 0; t < numTouched; t++)
+		{
+			int label = scratch.touched[t];
+			int count = scratch.count[label];
+			scratch.count[label] = 0;
+			if(count < maxCount) continue;
+			if(label == own) keepOwn = true;
+
+			long hash = mix(iterationSeed ^ label);
+			if(best < 0 || hash < bestHash || (hash == bestHash && label < best))
+			{
+				best = label;
+				bestHash = hash;
+			}
+		}
+		return keepOwn ? own : best;
+	}
+
+	/*
+	 * Greedy coloring, largest degree first, each vertex gets the smallest color none of its
+	 * neighbors has. The vertices are written to order grouped by color, the start of every color
+	 * (and the end of the last one) is returned.
+	 */
+	private int[] color(int[] order)
+	{
+		int n = graph.getNumVertices();
+		//vertices by descending degree, counting sort
+		int maxDegree = 0;
+		for(int v = 0; v < n; v++)
+			maxDegree = Math.max(maxDegree, graph.getDegree(v));
+		int[] degreeStart = new int[maxDegree + 2];
+		for(int v = 0; v < n; v++)
+			degreeStart[maxDegree - graph.getDegree(v) + 1]++;
+		for(int d = 0; d <= maxDegree; d++)
+			degreeStart[d + 1] += degreeStart[d];
+		int[] byDegree = new int[n];
+		for(int v = 0; v < n; v++)
+			byDegree[degreeStart[maxDegree - graph.getDegree(v)]++] = v;
+
+		int[] colorOf = new int[n];
+		Arrays.fill(colorOf, -1);
+		//usedBy[c] == v when a neighbor of v has the color c
+		int[] usedBy = new int[maxDegree + 2];
+		Arrays.fill(usedBy, -1);
+		int colors = 0;
+		for(int v : byDegree)
+		{
+			for(int i = graph.getNeighborSlot(v), end = i + graph.getDegree(v); i < end; i++)
+			{
+				int c = colorOf[graph.getNeighborAtSlot(i)];
+				if(c >= 0) usedBy[c] = v;
+			}
+			int c = 0;
+			while(usedBy[c] == v)
+				c++;
+			colorOf[v] = c;
+			colors = Math.max(colors, c + 1);
+		}
+
+		int[] colorStart = new int[colors + 1];
+		for(int v = 0; v < n; v++)
+			colorStart[colorOf[v] + 1]++;
+		for(int c = 0; c < colors; c++)
+			colorStart[c + 1] += colorStart[c];
+		int[] position = Arrays.copyOf(colorStart, colors);
+		for(int v = 0; v < n; v++)
+			order[position[colorOf[v]]++] = v;
+		return colorStart;
+	}
+
+	/*
+	 * The communities are the final labels. The communities with less than minVertices users are
+	 * merged, smallest first, into the neighbor community with the most edges to them.
+	 */
+	private void mergeSmallCommunities()
+	{
+		int n = labels.length;
+		int[] size = new int[n];
+		for(int label : labels)
+			size[label]++;
+
+		//members of every label, counting sort
+		int[] memberStart = new int[n + 1];
+		for(int v = 0; v < n; v++)
+			memberStart[labels[v] + 1]++;
+		for(int c = 0; c < n; c++)
+			memberStart[c + 1] += memberStart[c];
+		int[] position = Arrays.copyOf(memberStart, n);
+		int[] members = new int[n];
+		for(int v = 0; v < n; v++)
+			members[position[labels[v]]++] = v;
+
+		//union-find over the labels, the labels of a root are linked through nextLabel
+		int[] parent = new int[n];
+		int[] nextLabel = new int[n];
+		int[] lastLabel = new int[n];
+		boolean[] dropped = new boolean[n];
+		PriorityQueue<long[]> smallest = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+		for(int c = 0; c < n; c++)
+		{
+			parent[c] = c;
+			nextLabel[c] = -1;
+			lastLabel[c] = c;
+			if(size[c] > 0 && size[c] < minVertices) smallest.add(new long[] {size[c], c});
+		}
+
+		int[] edgesTo = new int[n];
+		int[] touched = new int[n];
+		while(!smallest.isEmpty())
+		{
+			long[] entry = smallest.poll();
+			int c = (int) entry[1];
+			if(parent[c] != c || size[c] != entry[0] || size[c] >= minVertices) continue;
+
+			int numTouched = 0;
+			for(int x = c; x >= 0; x = nextLabel[x])
+			{
+				for(int m = memberStart[x]; m < memberStart[x + 1]; m++)
+				{
+					int v = members[m];
+					for(int i = graph.getNeighborSlot(v), end = i + graph.getDegree(v); i < end; i++)
+					{
+						int r = find(parent, labels[graph.getNeighborAtSlot(i)]);
+						if(r == c) continue;
+						if(edgesTo[r]++ == 0) touched[numTouched++] = r;
+					}
+				}
+			}
+
+			int best = -1;
+			for(int t = 0; t < numTouched; t++)
+			{
+				int r = touched[t];
+				if(best < 0 || edgesTo[r] > edgesTo[best] || (edgesTo[r] == edgesTo[best] && r < best)) best = r;
+			}
+			for(int t = 0; t < numTouched; t++)
+				edgesTo[touched[t]] = 0;
+			if(best < 0)
+			{
+				dropped[c] = true;
+				continue;
+			}
+
+			parent[c] = best;
+			size[best] += size[c];
+			nextLabel[lastLabel[best]] = c;
+			lastLabel[best] = lastLabel[c];
+			if(size[best] < minVertices) smallest.add(new long[] {size[best], best});
+		}
+
+		//number the remaining communities in order of first appearance
+		int[] newId = new int[n];
+		Arrays.fill(newId, -1);
+		numCommunities = 0;
+		community = new int[n];
+		for(int v = 0; v < n; v++)
+		{
+			int r = find(parent, labels[v]);
+			if(dropped[r])
+			{
+				community[v] = -1;
+				continue;
+			}
+			if(newId[r] < 0) newId[r] = numCommunities++;
+			community[v] = newId[r];
+		}
+	}
+
+	private static int find(int[] parent, int c)
+	{
+		while(parent[c] != c)
+		{
+			parent[c] = parent[parent[c]];
+			c = parent[c];
+		}
+		return c;
+	}
+
+	//helper method to shuffle the order (Fisher-Yates) with a generator seeded for the iteration
+	private static void shuffle(int[] order, long iterationSeed)
+	{
+		long state = iterationSeed;
+		for(int k = order.length - 1; k > 0; k--)
+		{
+			state += 0x9E3779B97F4A7C15L;
+			int j = (int) ((mix(state) >>> 1) % (k + 1));
+			int swap = order[k];
+			order[k] = order[j];
+			order[j] = swap;
+		}
+	}
+
+	//SplitMix64 finalizer, so close seeds give unrelated values
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	//number of neighbors with each label and the touched labels, one per thread
+	private static class Scratch
+	{
+		private final int[] count;
+		private final int[] touched;
+
+		Scratch(int n)
+		{
+			count = new int[n];
+			touched = new int[n];
+		}
+	}
+
+	//fork join task which splits a range of the order and updates the labels, returns the number of changes
+	private static class UpdateRangeTask extends RecursiveTask<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final LabelPropagationCommunityDetection detection;
+		private final ThreadLocal<Scratch> threadScratch;
+		private final int[] order;
+		private final int start;
+		private final int end;
+		private final int grain;
+		private final long iterationSeed;
+
+		UpdateRangeTask(LabelPropagationCommunityDetection detection, ThreadLocal<Scratch> threadScratch, int[] order,
+				int start, int end, int grain, long iterationSeed)
+		{
+			this.detection = detection;
+			this.threadScratch = threadScratch;
+			this.order = order;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+			this.iterationSeed = iterationSeed;
+		}
+
+		@Override
+		protected Integer compute()
+		{
+			if(end - start <= grain) return detection.updateRange(threadScratch.get(), order, start, end, iterationSeed);
+
+			int middle = (start + end) >>> 1;
+			UpdateRangeTask left = new UpdateRangeTask(detection, threadScratch, order, start, middle, grain, iterationSeed);
+			left.fork();
+			int right = new UpdateRangeTask(detection, threadScratch, order, middle, end, grain, iterationSeed).compute();
+			return left.join() + right;
+		}
+	}
+}
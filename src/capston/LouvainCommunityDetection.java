@@ -0,0 +1,628 @@
+package capston;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class detect the sub-communities of the network with the Louvain method (modularity)
+ *
+ * Girvan-Newman divides the network, Louvain builds the communities bottom up:
+ * 	1. Local moving: every user starts in its own community and is moved to the neighbor community
+ * 	   which increases the modularity the most, till no move increases it any more
+ *
+ * 			gain of moving i into D = k(i, D) - tot(D) * k(i) / 2m
+ *
+ * 	   where k(i, D) is the weight of the edges from i to D, tot(D) the total degree of D and
+ * 	   2m the total degree of the graph.
+ * 	2. Aggregation: every community becomes one vertex of a weighted graph, the edges between two
+ * 	   communities add up to one edge and the edges inside a community to a self loop.
+ * 	3. Repeat with the aggregated graph till the local moving does not move anything.
+ *
+ * Each level works on primitive arrays (CSR offsets, neighbors and weights), one level is
+ * O(|E|) per pass. With more than one thread the local moving decides the moves of all the vertices
+ * in parallel against the communities of the previous round, then applies them. A vertex alone in
+ * its community does not move to another lone vertex with a higher community id, so two vertices
+ * do not swap forever. A parallel round which does not increase the modularity is replaced by a
+ * sequential pass.
+ *
+ * At the end, the communities with less than minVertices users are merged into the neighbor
+ * community with the best modularity gain, smallest first. A small community without any edge to
+ * another community is dropped, like the small pieces of Girvan-Newman.
+ *
+ * The network is treated as undirected, self loops of the input are ignored.
+ */
+public class LouvainCommunityDetection
+{
+	//the local moving stops when a pass increases the modularity less than this
+	private static final double MIN_GAIN = 1e-7;
+	private static final int MAX_PASSES = 100;
+	//less vertices than this are always moved on the calling thread
+	private static final int MIN_PARALLEL_VERTICES = 4096;
+
+	private final CsrGraph graph;
+	private final int minVertices;
+	private final int numThreads;
+
+	//community of every vertex index at every level, before the minVertices rule
+	private final List<int[]> levels = new ArrayList<>();
+	private final List<Double> levelModularity = new ArrayList<>();
+	//final community of every vertex index (0 .. numCommunities - 1), -1 if dropped
+	private int[] community;
+	private int numCommunities;
+	private double modularity;
+	private List<Graph> subCommunites;
+
+	public LouvainCommunityDetection(Graph graph, int minVertices)
+	{
+		this(CsrGraph.fromGraph(graph), minVertices, 1);
+	}
+
+	public LouvainCommunityDetection(IntGraph graph, int minVertices)
+	{
+		this(graph, minVertices, 1);
+	}
+
+	/**
+	 * With numThreads > 1 the local moving is split across a ForkJoinPool of that many threads
+	 */
+	public LouvainCommunityDetection(IntGraph graph, int minVertices, int numThreads)
+	{
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+
+		this.graph = CsrGraph.fromIntGraph(graph).toUndirected();
+		this.minVertices = minVertices;
+		this.numThreads = numThreads;
+		detect();
+	}
+
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Get the sub-communities, each one with the edges between its users
+	 */
+	public List<Graph> getSubCommunites()
+	{
+		if(subCommunites != null) return subCommunites;
+
+		subCommunites = graph.toGraphs(community, numCommunities);
+		return subCommunites;
+	}
+
+	//same sub-communities as views over the network, without copying them
+	public List<InducedSubgraph> getSubCommunityViews()
+	{
+		return graph.getInducedSubgraphs(community, numCommunities);
+	}
+
+	public int getSizeOfSubCommunites()
+	{
+		return numCommunities;
+	}
+
+	//community of every vertex index (0 .. getSizeOfSubCommunites() - 1), -1 if the user was dropped
+	public int[] getCommunities()
+	{
+		return community;
+	}
+
+	//modularity of the final communities (a dropped community counts as its own community)
+	public double getModularity()
+	{
+		return modularity;
+	}
+
+	//number of levels of the hierarchy, level 0 is the first local moving on the network
+	public int getNumLevels()
+	{
+		return levels.size();
+	}
+
+	//community of every vertex index after the given level (before the minVertices rule)
+	public int[] getLevel(int level)
+	{
+		return levels.get(level);
+	}
+
+	public double getLevelModularity(int level)
+	{
+		return levelModularity.get(level);
+	}
+
+	//helper method to run the levels and apply the minVertices rule
+	private void detect()
+	{
+		int n = graph.getNumVertices();
+		WeightedGraph current = WeightedGraph.fromCsrGraph(graph);
+		//vertex of the current level of every vertex index
+		int[] membership = new int[n];
+		for(int v = 0; v < n; v++)
+			membership[v] = v;
+
+		ForkJoinPool pool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+		try
+		{
+			while(true)
+			{
+				int[] moved = new LocalMoving(current, pool, numThreads).run();
+				int numMoved = renumber(moved);
+				//nothing moved, the communities are final
+				if(numMoved == current.numVertices) break;
+
+				for(int v = 0; v < n; v++)
+					membership[v] = moved[membership[v]];
+				current = current.aggregate(moved, numMoved);
+				levels.add(membership.clone());
+				levelModularity.add(current.getModularity(null));
+			}
+		}
+		finally
+		{
+			if(pool != null) pool.shutdown();
+		}
+
+		mergeSmallCommunities(current, membership);
+	}
+
+	//helper method to renumber the communities 0 .. count - 1 in order of first appearance, returns the count
+	private static int renumber(int[] communityOf)
+	{
+		int[] newId = new int[communityOf.length];
+		Arrays.fill(newId, -1);
+		int count = 0;
+		for(int v = 0; v < communityOf.length; v++)
+		{
+			int c = communityOf[v];
+			if(newId[c] < 0) newId[c] = count++;
+			communityOf[v] = newId[c];
+		}
+		return count;
+	}
+
+	/*
+	 * The vertices of top are the communities of the last level. The communities with less than
+	 * minVertices users are merged, smallest first, into the neighbor with the best modularity gain.
+	 */
+	private void mergeSmallCommunities(WeightedGraph top, int[] membership)
+	{
+		int numTop = top.numVertices;
+		int[] size = new int[numTop];
+		for(int c : membership)
+			size[c]++;
+
+		//union-find, the members of a root are linked through nextMember
+		int[] parent = new int[numTop];
+		int[] nextMember = new int[numTop];
+		int[] lastMember = new int[numTop];
+		double[] tot = top.degree.clone();
+		boolean[] dropped = new boolean[numTop];
+		PriorityQueue<long[]> smallest = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+		for(int c = 0; c < numTop; c++)
+		{
+			parent[c] = c;
+			nextMember[c] = -1;
+			lastMember[c] = c;
+			if(size[c] < minVertices) smallest.add(new long[] {size[c], c});
+		}
+
+		double[] weightTo = new double[numTop];
+		int[] touched = new int[numTop];
+		double m2 = top.getTotalWeight();
+		while(!smallest.isEmpty())
+		{
+			long[] entry = smallest.poll();
+			int c = (int) entry[1];
+			if(parent[c] != c || size[c] != entry[0] || size[c] >= minVertices) continue;
+
+			int numTouched = 0;
+			for(int x = c; x >= 0; x = nextMember[x])
+			{
+				for(int k = top.offsets[x]; k < top.offsets[x + 1]; k++)
+				{
+					int r = find(parent, top.neighbors[k]);
+					if(r == c) continue;
+					if(weightTo[r] == 0.0) touched[numTouched++] = r;
+					weightTo[r] += top.weights[k];
+				}
+			}
+
+			int best = -1;
+			double bestGain = Double.NEGATIVE_INFINITY;
+			for(int t = 0; t < numTouched; t++)
+			{
+				int r = touched[t];
+				double gain = weightTo[r] - tot[c] * tot[r] / m2;
+				if(gain > bestGain || (gain == bestGain && r < best))
+				{
+					bestGain = gain;
+					best = r;
+				}
+				weightTo[r] = 0.0;
+			}
+			if(best < 0)
+			{
+				dropped[c] = true;
+				continue;
+			}
+
+			parent[c] = best;
+			size[best] += size[c];
+			tot[best] += tot[c];
+			nextMember[lastMember[best]] = c;
+			lastMember[best] = lastMember[c];
+			if(size[best] < minVertices) smallest.add(new long[] {size[best], best});
+		}
+
+		//number the remaining communities in order of first appearance, the modularity is of all of them
+		int[] root = new int[numTop];
+		for(int c = 0; c < numTop; c++)
+			root[c] = find(parent, c);
+		modularity = top.getModularity(root);
+
+		int[] newId = new int[numTop];
+		Arrays.fill(newId, -1);
+		numCommunities = 0;
+		community = new int[membership.length];
+		for(int v = 0; v < membership.length; v++)
+		{
+			int r = root[membership[v]];
+			if(dropped[r])
+			{
+				community[v] = -1;
+				continue;
+			}
+			if(newId[r] < 0) newId[r] = numCommunities++;
+			community[v] = newId[r];
+		}
+	}
+
+	private static int find(int[] parent, int c)
+	{
+		while(parent[c] != c)
+		{
+			parent[c] = parent[parent[c]];
+			c = parent[c];
+		}
+		return c;
+	}
+
+	//undirected weighted graph of one level, the self loop weight of a vertex is kept apart
+	private static class WeightedGraph
+	{
+		private final int numVertices;
+		private final int[] offsets;
+		private final int[] neighbors;
+		private final double[] weights;
+		private final double[] selfLoop;
+		//weighted degree, self loop included
+		private final double[] degree;
+
+		WeightedGraph(int[] offsets, int[] neighbors, double[] weights, double[] selfLoop)
+		{
+			numVertices = selfLoop.length;
+			this.offsets = offsets;
+			this.neighbors = neighbors;
+			this.weights = weights;
+			this.selfLoop = selfLoop;
+			degree = new double[numVertices];
+			for(int v = 0; v < numVertices; v++)
+			{
+				double total = selfLoop[v];
+				for(int k = offsets[v]; k < offsets[v + 1]; k++)
+					total += weights[k];
+				degree[v] = total;
+			}
+		}
+
+		//every edge has weight 1, self loops are left out
+		static WeightedGraph fromCsrGraph(CsrGraph graph)
+		{
+			int n = graph.getNumVertices();
+			int[] offsets = new int[n + 1];
+			int[] neighbors = new int[graph.getNumNeighborEntries()];
+			int size = 0;
+			for(int v = 0; v < n; v++)
+			{
+				for(int i = 0; i < graph.getDegree(v); i++)
+				{
+					int w = graph.getNeighbor(v, i);
+					if(w != v) neighbors[size++] = w;
+				}
+				offsets[v + 1] = size;
+			}
+			double[] weights = new double[size];
+			Arrays.fill(weights, 1.0);
+			return new WeightedGraph(offsets, Arrays.copyOf(neighbors, size), weights, new double[n]);
+		}
+
+		//2m, the sum of the weighted degrees
+		double getTotalWeight()
+		{
+			double total = 0.0;
+			for(double d : degree)
+				total += d;
+			return total;
+		}
+
+		/**
+		 * Modularity of the given communities (every vertex alone if communityOf is null)
+		 *
+		 * 		Q = sum over the communities C of in(C) / 2m - (tot(C) / 2m)^2
+		 */
+		double getModularity(int[] communityOf)
+		{
+			double m2 = getTotalWeight();
+			if(m2 == 0.0) return 0.0;
+
+			double[] tot = new double[numVertices];
+			double inside = 0.0;
+			for(int v = 0; v < numVertices; v++)
+			{
+				int c = communityOf == null ? v : communityOf[v];
+				tot[c] += degree[v];
+				inside += selfLoop[v];
+				for(int k = offsets[v]; k < offsets[v + 1]; k++)
+				{
+					int w = neighbors[k];
+					if((communityOf == null ? w : communityOf[w]) == c) inside += weights[k];
+				}
+			}
+			double q = inside / m2;
+			for(double t : tot)
+				q -= (t / m2) * (t / m2);
+			return q;
+		}
+
+		//one vertex per community (0 .. numCommunities - 1), the weights between two communities are added
+		WeightedGraph aggregate(int[] communityOf, int numCommunities)
+		{
+			//members of every community, counting sort
+			int[] memberStart = new int[numCommunities + 1];
+			for(int v = 0; v < numVertices; v++)
+				memberStart[communityOf[v] + 1]++;
+			for(int c = 0; c < numCommunities; c++)
+				memberStart[c + 1] += memberStart[c];
+			int[] position = Arrays.copyOf(memberStart, numCommunities);
+			int[] members = new int[numVertices];
+			for(int v = 0; v < numVertices; v++)
+				members[position[communityOf[v]]++] = v;
+
+			int[] newOffsets = new int[numCommunities + 1];
+			int[] newNeighbors = new int[neighbors.length];
+			double[] newWeights = new double[neighbors.length];
+			double[] newSelfLoop = new double[numCommunities];
+			double[] weightTo = new double[numCommunities];
+			int[] touched = new int[numCommunities];
+			int size = 0;
+			for(int c = 0; c < numCommunities; c++)
+			{
+				int numTouched = 0;
+				for(int m = memberStart[c]; m < memberStart[c + 1]; m++)
+				{
+					int v = members[m];
+					newSelfLoop[c] += selfLoop[v];
+					for(int k = offsets[v]; k < offsets[v + 1]; k++)
+					{
+						int d = communityOf[neighbors[k]];
+						if(d == c)
+						{
+							newSelfLoop[c] += weights[k];
+							continue;
+						}
+						if(weightTo[d] == 0.0) touched[numTouched++] = d;
+						weightTo[d] += weights[k];
+					}
+				}
+				for(int t = 0; t < numTouched; t++)
+				{
+					int d = touched[t];
+					newNeighbors[size] = d;
+					newWeights[size++] = weightTo[d];
+					weightTo[d] = 0.0;
+				}
+				newOffsets[c + 1] = size;
+			}
+			return new WeightedGraph(newOffsets, Arrays.copyOf(newNeighbors, size), Arrays.copyOf(newWeights, size), newSelfLoop);
+		}
+	}
+
+	//local moving phase of one level
+	private static class LocalMoving
+	{
+		private final WeightedGraph graph;
+		private final ForkJoinPool pool;
+		private final int numThreads;
+		private final double m2;
+
+		private int[] communityOf;
+		private final double[] tot;
+		private final int[] size;
+		//a parallel round did not increase the modularity, the rest of the level is sequential
+		private boolean sequential;
+
+		LocalMoving(WeightedGraph graph, ForkJoinPool pool, int numThreads)
+		{
+			this.graph = graph;
+			this.pool = graph.numVertices >= MIN_PARALLEL_VERTICES ? pool : null;
+			this.numThreads = numThreads;
+			m2 = graph.getTotalWeight();
+			int n = graph.numVertices;
+			communityOf = new int[n];
+			tot = graph.degree.clone();
+			size = new int[n];
+			for(int v = 0; v < n; v++)
+			{
+				communityOf[v] = v;
+				size[v] = 1;
+			}
+		}
+
+		//community of every vertex when no move increases the modularity any more
+		int[] run()
+		{
+			if(m2 == 0.0) return communityOf;
+
+			Scratch scratch = new Scratch(graph.numVertices);
+			double q = graph.getModularity(communityOf);
+			for(int pass = 0; pass < MAX_PASSES; pass++)
+			{
+				double newQ;
+				if(pool != null && !sequential && parallelRound(q))
+				{
+					newQ = graph.getModularity(communityOf);
+				}
+				else
+				{
+					if(sequentialPass(scratch) == 0) break;
+					newQ = graph.getModularity(communityOf);
+				}
+				if(newQ - q < MIN_GAIN) break;
+				q = newQ;
+			}
+			return communityOf;
+		}
+
+		//move the vertices one after the other, returns the number of moves
+		private int sequentialPass(Scratch scratch)
+		{
+			int numMoves = 0;
+			for(int v = 0; v < graph.numVertices; v++)
+			{
+				int c = communityOf[v];
+				int best = getBestCommunity(v, scratch, false);
+				if(best == c) continue;
+
+				tot[c] -= graph.degree[v];
+				size[c]--;
+				tot[best] += graph.degree[v];
+				size[best]++;
+				communityOf[v] = best;
+				numMoves++;
+			}
+			return numMoves;
+		}
+
+		//decide all the moves against the current communities and apply them, false (and nothing
+		//changed) if they do not increase the modularity
+		private boolean parallelRound(double q)
+		{
+			int n = graph.numVertices;
+			int[] decided = new int[n];
+			ThreadLocal<Scratch> threadScratch = ThreadLocal.withInitial(() -> new Scratch(n));
+			int grain = Math.max(1024, n / (numThreads * 8));
+			pool.invoke(new MoveRangeTask(this, threadScratch, decided, 0, n, grain));
+
+			int[] previous = communityOf;
+			communityOf = decided;
+			if(graph.getModularity(communityOf) - q < MIN_GAIN)
+			{
+				communityOf = previous;
+				sequential = true;
+				return false;
+			}
+			Arrays.fill(tot, 0.0);
+			Arrays.fill(size, 0);
+			for(int v = 0; v < n; v++)
+			{
+				tot[communityOf[v]] += graph.degree[v];
+				size[communityOf[v]]++;
+			}
+			return true;
+		}
+
+		//community with the best gain for v (its own community if nothing is better)
+		int getBestCommunity(int v, Scratch scratch, boolean parallel)
+		{
+			int c = communityOf[v];
+			double k = graph.degree[v];
+			int numTouched = 0;
+			scratch.weightTo[c] = 0.0;
+			scratch.touched[numTouched++] = c;
+			for(int e = graph.offsets[v]; e < graph.offsets[v + 1]; e++)
+			{
+				int d = communityOf[graph.neighbors[e]];
+				if(scratch.weightTo[d] == 0.0 && d != c) scratch.touched[numTouched++] = d;
+				scratch.weightTo[d] += graph.weights[e];
+			}
+
+			//v taken out of its community
+			int best = c;
+			double bestGain = scratch.weightTo[c] - (tot[c] - k) * k / m2;
+			for(int t = 0; t < numTouched; t++)
+			{
+				int d = scratch.touched[t];
+				double weight = scratch.weightTo[d];
+				scratch.weightTo[d] = 0.0;
+				if(d == c) continue;
+				//two lone vertices do not swap in a parallel round
+				if(parallel && size[c] == 1 && size[d] == 1 && d > c) continue;
+
+				double gain = weight - tot[d] * k / m2;
+				if(gain > bestGain + 1e-12 || (Math.abs(gain - bestGain) <= 1e-12 && best != c && d < best))
+				{
+					bestGain = gain;
+					best = d;
+				}
+			}
+			return best;
+		}
+	}
+
+	//weight from the vertex to each community and the touched communities, one per thread
+	private static class Scratch
+	{
+		private final double[] weightTo;
+		private final int[] touched;
+
+		Scratch(int n)
+		{
+			weightTo = new double[n];
+			touched = new int[n];
+		}
+	}
+
+	//fork join task which splits a range of vertices and decides their moves
+	private static class MoveRangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final LocalMoving moving;
+		private final ThreadLocal<Scratch> threadScratch;
+		private final int[] decided;
+		private final int start;
+		private final int end;
+		private final int grain;
+
+		MoveRangeTask(LocalMoving moving, ThreadLocal<Scratch> threadScratch, int[] decided, int start, int end, int grain)
+		{
+			this.moving = moving;
+			this.threadScratch = threadScratch;
+			this.decided = decided;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(end - start <= grain)
+			{
+				Scratch scratch = threadScratch.get();
+				for(int v = start; v < end; v++)
+					decided[v] = moving.getBestCommunity(v, scratch, true);
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new MoveRangeTask(moving, threadScratch, decided, start, middle, grain),
+					new MoveRangeTask(moving, threadScratch, decided, middle, end, grain));
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package capston;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * This class represent a CSR graph which lives in a memory-mapped GraphSnapshot file
+ *
+ * Nothing is copied onto the heap: getNeighbor(v, i) reads the mapped file through the page
+ * cache, so opening a graph takes milliseconds whatever its size, and several JVMs which map
+ * the same snapshot share the same physical pages.
+ * The graph is read-only, toCsrGraph() copies it when a heap graph is needed
+ * (i.e. Girvan-Newman which removes edges).
+ */
+public class MappedCsrGraph implements IntGraph
+{
+	private final MappedIntArray vertexIds;
+	private final MappedIntArray offsets;
+	private final MappedIntArray neighbors;
+	private final int numVertices;
+	private final int numEntries;
+	private final long checksum;
+
+	//the file positions are in bytes, the channel can be closed after this constructor
+	MappedCsrGraph(FileChannel channel, long position, int numVertices, int numEntries, long checksum) throws IOException
+	{
+		this.numVertices = numVertices;
+		this.numEntries = numEntries;
+		this.checksum = checksum;
+
+		vertexIds = new MappedIntArray(channel, position, numVertices);
+		position += 4L * numVertices;
+		offsets = new MappedIntArray(channel, position, numVertices + 1);
+		position += 4L * (numVertices + 1);
+		neighbors = new MappedIntArray(channel, position, numEntries);
+	}
+
+	@Override
+	public int getNumVertices()
+	{
+		return numVertices;
+	}
+
+	@Override
+	public int getNumEdges()
+	{
+		return numEntries / 2;
+	}
+
+	@Override
+	public int getDegree(int v)
+	{
+		return offsets.get(v + 1) - offsets.get(v);
+	}
+
+	@Override
+	public int getNeighbor(int v, int i)
+	{
+		return neighbors.get(offsets.get(v) + i);
+	}
+
+	@Override
+	public int getVertexId(int v)
+	{
+		return vertexIds.get(v);
+	}
+
+	@Override
+	public int getIndex(int vertexId)
+	{
+		//binary search, the user ids are stored in ascending order
+		int low = 0;
+		int high = numVertices - 1;
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			int id = vertexIds.get(middle);
+			if(id < vertexId) low = middle + 1;
+			else if(id > vertexId) high = middle - 1;
+			else return middle;
+		}
+		return -1;
+	}
+
+	/**
+	 * Check the checksum of the header against the mapped data (reads the whole file)
+	 */
+	public boolean verify()
+	{
+		CRC32 crc = new CRC32();
+		vertexIds.update(crc);
+		offsets.update(crc);
+		neighbors.update(crc);
+		return crc.getValue() == checksum;
+	}
+
+	/**
+	 * Copy the graph onto the heap
+	 */
+	public CsrGraph toCsrGraph()
+	{
+		return new CsrGraph(vertexIds.toArray(), offsets.toArray(), neighbors.toArray());
+	}
+
+	//int array in a mapped file, a single mapping is limited to 2 GB so big arrays are split in chunks
+	private static class MappedIntArray
+	{
+		//2^28 ints (1 GB) per chunk
+		private static final int CHUNK_SHIFT = 28;
+		private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+		private final ByteBuffer[] chunks;
+		private final int length;
+
+		MappedIntArray(FileChannel channel, long position, int length) throws IOException
+		{
+			this.length = length;
+			int numChunks = (int) ((length + (long) CHUNK_MASK) >>> CHUNK_SHIFT);
+			chunks = new ByteBuffer[Math.max(numChunks, 1)];
+			for(int c = 0; c < chunks.length; c++)
+			{
+				long start = (long) c << CHUNK_SHIFT;
+				long size = Math.min(length - start, 1L << CHUNK_SHIFT);
+				chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, position + 4 * start, 4 * size)
+						.order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+
+		int get(int index)
+		{
+			if(chunks.length == 1) return chunks[0].getInt(index << 2);
+			return chunks[index >>> CHUNK_SHIFT].getInt((index & CHUNK_MASK) << 2);
+		}
+
+		int[] toArray()
+		{
+			int[] array = new int[length];
+			int position = 0;
+			for(ByteBuffer chunk : chunks)
+			{
+				IntBuffer view = chunk.duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+				int size = view.remaining();
+				view.get(array, position, size);
+				position += size;
+			}
+			return array;
+		}
+
+		//add the bytes of this array to the checksum
+		void update(CRC32 crc)
+		{
+			for(ByteBuffer chunk : chunks)
+				crc.update(chunk.duplicate());
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "MappedCsrGraph[" + numVertices + " vertices, " + getNumEdges() + " edges]";
+	}
+}
@@ -0,0 +1,409 @@
+package capston;
+
+import java.util.Arrays;
+
+/**
+ * This class represent an undirected graph built for the divisive algorithms (i.e. Girvan-Newman)
+ * which remove thousands of edges one by one.
+ *
+ * The vertices are the dense indices of the CSR graph it is built from (ascending user ids). The
+ * neighbors of each vertex are kept unsorted in an int array, and every entry knows the position of
+ * its reverse entry (twin) in the list of the neighbor. A hash table maps the key of each edge
+ * (see Edge.getKey) to the position of the entry in the list of its smaller vertex index:
+ *
+ * 	neighbors[v]:	w  x  y			twin[v]:	3  0  1		(v is the 4th neighbor in the list of w)
+ *
+ * To remove "v -- w" both entries are found in O(1) and the last entry of each list is moved in their
+ * place (swap-remove), so a removal neither scans a list nor allocates, and the vertex and edge counts
+ * stay exact. Self loops and repeated edges are ignored.
+ */
+public class MutableGraph implements IntGraph
+{
+	//vertex index to user id (ascending)
+	private final int[] vertexIds;
+	//neighbor vertex indices of each vertex, the first degree[v] entries are used
+	private final int[][] neighbors;
+	//position of the reverse entry in the list of the neighbor
+	private final int[][] twin;
+	private final int[] degree;
+	//edge key to its position in the list of its smaller vertex index
+	private final EdgePositions positions;
+	private int numEdges;
+
+	private MutableGraph(int[] vertexIds, int[] capacity)
+	{
+		int n = vertexIds.length;
+		this.vertexIds = vertexIds;
+		neighbors = new int[n][];
+		twin = new int[n][];
+		degree = new int[n];
+		int numEntries = 0;
+		for(int v = 0; v < n; v++)
+		{
+			neighbors[v] = new int[capacity[v]];
+			twin[v] = new int[capacity[v]];
+			numEntries += capacity[v];
+		}
+		positions = new EdgePositions(numEntries / 2);
+	}
+
+	/**
+	 * Build the mutable graph of a graph, a directed graph is made undirected
+	 * (an entry in either direction becomes one undirected edge)
+	 */
+	public static MutableGraph fromIntGraph(IntGraph graph)
+	{
+		int n = graph.getNumVertices();
+		int[] vertexIds = new int[n];
+		for(int v = 0; v < n; v++)
+			vertexIds[v] = graph.getVertexId(v);
+
+		//the vertex indices must follow the user ids
+		boolean ascending = true;
+		for(int v = 1; v < n && ascending; v++)
+			ascending = vertexIds[v - 1] < vertexIds[v];
+		if(!ascending) return fromIntGraph(CsrGraph.fromIntGraph(graph));
+
+		//both entries of every edge once, so each list is allocated with the degree of its vertex
+		CsrGraph undirected = CsrGraph.fromIntGraph(graph).toUndirected();
+		int[] capacity = new int[n];
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < undirected.getDegree(v); i++)
+			{
+				if(undirected.getNeighbor(v, i) != v) capacity[v]++;
+			}
+		}
+
+		MutableGraph mutableGraph = new MutableGraph(vertexIds, capacity);
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < undirected.getDegree(v); i++)
+			{
+				int w = undirected.getNeighbor(v, i);
+				if(v < w) mutableGraph.addEdge(v, w);
+			}
+		}
+		return mutableGraph;
+	}
+
+	public static MutableGraph fromGraph(Graph graph)
+	{
+		return fromIntGraph(CsrGraph.fromGraph(graph));
+	}
+
+	@Override
+	public int getNumVertices()
+	{
+		return vertexIds.length;
+	}
+
+	//exact number of the edges left
+	@Override
+	public int getNumEdges()
+	{
+		return numEdges;
+	}
+
+	@Override
+	public int getDegree(int v)
+	{
+		return degree[v];
+	}
+
+	//the neighbors are not sorted, a removal changes their order
+	@Override
+	public int getNeighbor(int v, int i)
+	{
+		return neighbors[v][i];
+	}
+
+	@Override
+	public int getVertexId(int v)
+	{
+		return vertexIds[v];
+	}
+
+	@Override
+	public int getIndex(int vertexId)
+	{
+		int v = Arrays.binarySearch(vertexIds, vertexId);
+		return v < 0 ? -1 : v;
+	}
+
+	public boolean hasEdge(int v, int w)
+	{
+		return v != w && positions.get(Edge.getKey(v, w)) >= 0;
+	}
+
+	/**
+	 * Add the edge "v -- w" (vertex indices), false if it is a self loop or already in the graph
+	 */
+	public boolean addEdge(int v, int w)
+	{
+		if(v == w) return false;
+		if(v > w)
+		{
+			int t = v;
+			v = w;
+			w = t;
+		}
+		if(!positions.add(Edge.getKey(v, w), degree[v])) return false;
+
+		int i = append(v, w);
+		int j = append(w, v);
+		twin[v][i] = j;
+		twin[w][j] = i;
+		numEdges++;
+		return true;
+	}
+
+	/**
+	 * Remove the edge "v -- w" (vertex indices) in O(1), false if it is not in the graph
+	 */
+	public boolean removeEdge(int v, int w)
+	{
+		if(v == w) return false;
+		if(v > w)
+		{
+			int t = v;
+			v = w;
+			w = t;
+		}
+		int i = positions.remove(Edge.getKey(v, w));
+		if(i < 0) return false;
+
+		int j = twin[v][i];
+		swapRemove(v, i);
+		swapRemove(w, j);
+		numEdges--;
+		return true;
+	}
+
+	//same as above with the user ids of the two ends
+	public boolean removeEdgeOfUsers(int startVertexId, int endVertexId)
+	{
+		int v = getIndex(startVertexId);
+		int w = getIndex(endVertexId);
+		if(v < 0 || w < 0) return false;
+		return removeEdge(v, w);
+	}
+
+	/**
+	 * Get a new mutable graph of the given vertex indices (ascending) and the edges between them, the
+	 * vertex index k of the new graph is vertices[k]
+	 */
+	public MutableGraph subgraph(int[] vertices)
+	{
+		int size = vertices.length;
+		int[] ids = new int[size];
+		int[] capacity = new int[size];
+		for(int k = 0; k < size; k++)
+		{
+			ids[k] = vertexIds[vertices[k]];
+			capacity[k] = degree[vertices[k]];
+		}
+
+		MutableGraph graph = new MutableGraph(ids, capacity);
+		for(int k = 0; k < size; k++)
+		{
+			int v = vertices[k];
+			for(int i = 0; i < degree[v]; i++)
+			{
+				int local = Arrays.binarySearch(vertices, neighbors[v][i]);
+				if(local < 0) throw new IllegalArgumentException("Vertex " + vertexIds[neighbors[v][i]] + " is not in the vertices.");
+				if(k < local) graph.addEdge(k, local);
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Get the CSR graph of the given vertex indices (ascending) and the edges between them, the
+	 * vertex index k of the CSR graph is vertices[k]
+	 */
+	public CsrGraph toCsrGraph(int[] vertices)
+	{
+		int size = vertices.length;
+		int[] ids = new int[size];
+		int[] offsets = new int[size + 1];
+		for(int k = 0; k < size; k++)
+		{
+			ids[k] = vertexIds[vertices[k]];
+			offsets[k + 1] = offsets[k] + degree[vertices[k]];
+		}
+
+		int[] entries = new int[offsets[size]];
+		int slot = 0;
+		for(int k = 0; k < size; k++)
+		{
+			int v = vertices[k];
+			for(int i = 0; i < degree[v]; i++)
+			{
+				int local = Arrays.binarySearch(vertices, neighbors[v][i]);
+				if(local < 0) throw new IllegalArgumentException("Vertex " + vertexIds[neighbors[v][i]] + " is not in the vertices.");
+				entries[slot++] = local;
+			}
+			Arrays.sort(entries, offsets[k], offsets[k + 1]);
+		}
+		return new CsrGraph(ids, offsets, entries);
+	}
+
+	//get the whole graph as a CSR graph
+	public CsrGraph toCsrGraph()
+	{
+		int[] vertices = new int[vertexIds.length];
+		for(int v = 0; v < vertices.length; v++)
+			vertices[v] = v;
+		return toCsrGraph(vertices);
+	}
+
+	/**
+	 * Get the Graph of the given vertex indices and the edges between them (both directions)
+	 */
+	public Graph toGraph(int[] vertices)
+	{
+		Graph graph = new Graph();
+		for(int v : vertices)
+			graph.addVertex(vertexIds[v]);
+		for(int v : vertices)
+		{
+			for(int i = 0; i < degree[v]; i++)
+				graph.addEdge(vertexIds[v], vertexIds[neighbors[v][i]]);
+		}
+		return graph;
+	}
+
+	//helper method to add w at the end of the list of v, the list grows when it is full
+	private int append(int v, int w)
+	{
+		if(degree[v] == neighbors[v].length)
+		{
+			int capacity = Math.max(4, degree[v] * 2);
+			neighbors[v] = Arrays.copyOf(neighbors[v], capacity);
+			twin[v] = Arrays.copyOf(twin[v], capacity);
+		}
+		neighbors[v][degree[v]] = w;
+		return degree[v]++;
+	}
+
+	//helper method to move the last entry of the list of v to position i
+	private void swapRemove(int v, int i)
+	{
+		int last = --degree[v];
+		if(i == last) return;
+
+		int w = neighbors[v][last];
+		int j = twin[v][last];
+		neighbors[v][i] = w;
+		twin[v][i] = j;
+		twin[w][j] = i;
+		if(v < w) positions.set(Edge.getKey(v, w), i);
+	}
+
+	/*
+	 * Open addressing hash table from an edge key to an int (linear probing), a removal shifts the
+	 * following entries back so no tombstone is left
+	 */
+	private static final class EdgePositions
+	{
+		private static final long EMPTY = -1L;
+
+		private long[] keys;
+		private int[] values;
+		private int size;
+
+		EdgePositions(int expectedSize)
+		{
+			int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+			keys = new long[capacity];
+			values = new int[capacity];
+			Arrays.fill(keys, EMPTY);
+		}
+
+		//value of the key, -1 if the key is not in the table
+		int get(long key)
+		{
+			int mask = keys.length - 1;
+			for(int s = slot(key, mask); keys[s] != EMPTY; s = (s + 1) & mask)
+			{
+				if(keys[s] == key) return values[s];
+			}
+			return -1;
+		}
+
+		//put a new key with its value, false if the key is already in the table
+		boolean add(long key, int value)
+		{
+			int mask = keys.length - 1;
+			int s = slot(key, mask);
+			for(; keys[s] != EMPTY; s = (s + 1) & mask)
+			{
+				if(keys[s] == key) return false;
+			}
+			keys[s] = key;
+			values[s] = value;
+			if(++size * 2 > keys.length) grow();
+			return true;
+		}
+
+		//change the value of a key already in the table
+		void set(long key, int value)
+		{
+			int mask = keys.length - 1;
+			int s = slot(key, mask);
+			while(keys[s] != key)
+				s = (s + 1) & mask;
+			values[s] = value;
+		}
+
+		//remove the key and get its value, -1 if the key is not in the table
+		int remove(long key)
+		{
+			int mask = keys.length - 1;
+			int s = slot(key, mask);
+			while(keys[s] != key)
+			{
+				if(keys[s] == EMPTY) return -1;
+				s = (s + 1) & mask;
+			}
+			int value = values[s];
+			size--;
+
+			//shift back the following entries which would not be found behind the empty slot
+			int gap = s;
+			for(int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask)
+			{
+				int home = slot(keys[next], mask);
+				if(((next - home) & mask) >= ((next - gap) & mask))
+				{
+					keys[gap] = keys[next];
+					values[gap] = values[next];
+					gap = next;
+				}
+			}
+			keys[gap] = EMPTY;
+			return value;
+		}
+
+		private void grow()
+		{
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2];
+			Arrays.fill(keys, EMPTY);
+			size = 0;
+			for(int s = 0; s < oldKeys.length; s++)
+			{
+				if(oldKeys[s] != EMPTY) add(oldKeys[s], oldValues[s]);
+			}
+		}
+
+		private static int slot(long key, int mask)
+		{
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int)(h ^ (h >>> 32)) & mask;
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package capston;
+
+import java.util.Arrays;
+
+/**
+ * This class represent the shortest path DAG (the BFS representation) of a CSR graph from one root
+ *
+ * One level synchronous BFS pass fills, for every reached vertex index v:
+ * 	distance[v]		level of v, -1 if v is not reached
+ * 	sigma[v]		number of shortest paths from the root to v (sum of sigma of the parents)
+ * 	predecessors	the parents of v (vertices one level above with an edge to v), kept in a range
+ * 					of one shared array sized by the in-degrees, so no list is ever allocated. With
+ * 					every parent the slot of the DAG edge (parent --> v) in the parent's adjacency is kept.
+ * 	order			the reached vertices level by level, levelStart[d] is the first vertex of level d
+ *
+ * and credits() sets the Girvan-Newman credits from the leaf nodes up to the root:
+ *
+ * 		credit(w) = 1 + sum of the credits of the DAG edges from w to the level below
+ * 		credit(v, w) = sigma[v] / sigma[w] * credit(w)			for every parent v of w
+ *
+ * All the arrays are allocated once and reused for every root, compute() only resets the
+ * vertices reached by the previous root. Adjacency entries marked in removedSlot are skipped.
+ * The credits start from zero on every call, so calling credits() again gives the same credits.
+ */
+public class ShortestPathDag
+{
+	private final CsrGraph graph;
+	private final boolean[] removedSlot;
+
+	private final int[] distance;
+	private final double[] sigma;
+	private final double[] credit;
+	private final int[] order;
+	private final int[] levelStart;
+	private final int[] numPredecessors;
+	//parents of v are at predecessor[predecessorOffset[v]] .. + numPredecessors[v] - 1
+	private final int[] predecessorOffset;
+	private final int[] predecessor;
+	private final int[] predecessorSlot;
+
+	private int root = -1;
+	private int numReached;
+	private int numLevels;
+	private boolean creditsSet;
+
+	public ShortestPathDag(CsrGraph graph)
+	{
+		this(graph, null);
+	}
+
+	//removedSlot may be null, it is read (not copied) by every compute
+	ShortestPathDag(CsrGraph graph, boolean[] removedSlot)
+	{
+		this.graph = graph;
+		this.removedSlot = removedSlot;
+		int n = graph.getNumVertices();
+		distance = new int[n];
+		sigma = new double[n];
+		credit = new double[n];
+		order = new int[n];
+		levelStart = new int[n + 1];
+		numPredecessors = new int[n];
+		predecessor = new int[graph.getNumNeighborEntries()];
+		predecessorSlot = new int[graph.getNumNeighborEntries()];
+		Arrays.fill(distance, -1);
+
+		//a vertex has at most one parent per incoming edge
+		predecessorOffset = new int[n + 1];
+		for(int slot = 0; slot < graph.getNumNeighborEntries(); slot++)
+			predecessorOffset[graph.getNeighborAtSlot(slot) + 1]++;
+		for(int v = 0; v < n; v++)
+			predecessorOffset[v + 1] += predecessorOffset[v];
+	}
+
+	/**
+	 * Build the DAG from the given root (vertex index)
+	 */
+	public void compute(int root)
+	{
+		reset();
+		this.root = root;
+
+		int tail = 0;
+		order[tail++] = root;
+		distance[root] = 0;
+		sigma[root] = 1.0;
+		levelStart[0] = 0;
+
+		int level = 0;
+		int head = 0;
+		while(head < tail)
+		{
+			//all the vertices of this level are in order[head .. levelEnd - 1]
+			int levelEnd = tail;
+			levelStart[level + 1] = levelEnd;
+			for(; head < levelEnd; head++)
+			{
+				int v = order[head];
+				int start = graph.getNeighborSlot(v);
+				int end = start + graph.getDegree(v);
+				for(int slot = start; slot < end; slot++)
+				{
+					if(removedSlot != null && removedSlot[slot]) continue;
+					int w = graph.getNeighborAtSlot(slot);
+					if(distance[w] < 0)
+					{
+						distance[w] = level + 1;
+						order[tail++] = w;
+					}
+					if(distance[w] == level + 1)
+					{
+						sigma[w] += sigma[v];
+						int k = predecessorOffset[w] + numPredecessors[w]++;
+						predecessor[k] = v;
+						predecessorSlot[k] = slot;
+					}
+				}
+			}
+			level++;
+		}
+		numReached = tail;
+		numLevels = level;
+	}
+
+	//helper method to reset the vertices reached by the last root
+	private void reset()
+	{
+		for(int k = 0; k < numReached; k++)
+		{
+			int v = order[k];
+			distance[v] = -1;
+			sigma[v] = 0.0;
+			credit[v] = 0.0;
+			numPredecessors[v] = 0;
+		}
+		numReached = 0;
+		numLevels = 0;
+		creditsSet = false;
+	}
+
+	/**
+	 * Set the credit of every reached vertex, from the last level up to the root
+	 */
+	public void credits()
+	{
+		accumulateCredits(null, 0.0);
+	}
+
+	/**
+	 * Same as credits(), the credit of every DAG edge times sign is also added to edgeCredit at
+	 * the slot of the edge in the parent's adjacency (edgeCredit may be null)
+	 */
+	public void accumulateCredits(double[] edgeCredit, double sign)
+	{
+		accumulateCredits(edgeCredit, null, sign);
+	}
+
+	/**
+	 * Same as above, with edgeId (not null) the credit is added at the undirected edge id of the
+	 * slot (see CsrGraph.getEdgeId) instead of the slot
+	 */
+	public void accumulateCredits(double[] edgeCredit, int[] edgeId, double sign)
+	{
+		for(int k = 0; k < numReached; k++)
+			credit[order[k]] = 0.0;
+		for(int k = numReached - 1; k >= 0; k--)
+		{
+			int w = order[k];
+			credit[w] += 1.0;
+			double share = credit[w] / sigma[w];
+			int first = predecessorOffset[w];
+			int last = first + numPredecessors[w];
+			for(int p = first; p < last; p++)
+			{
+				int v = predecessor[p];
+				double dagEdgeCredit = sigma[v] * share;
+				credit[v] += dagEdgeCredit;
+				if(edgeCredit == null) continue;
+				int slot = predecessorSlot[p];
+				edgeCredit[edgeId == null ? slot : edgeId[slot]] += sign * dagEdgeCredit;
+			}
+		}
+		creditsSet = true;
+	}
+
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	//vertex index of the root, -1 before the first compute
+	public int getRoot()
+	{
+		return root;
+	}
+
+	//number of vertices reached from the root (the root included)
+	public int getNumReached()
+	{
+		return numReached;
+	}
+
+	//k-th reached vertex in BFS order, getVertexAt(0) is the root
+	public int getVertexAt(int k)
+	{
+		return order[k];
+	}
+
+	//number of levels, the root is level 0
+	public int getNumLevels()
+	{
+		return numLevels;
+	}
+
+	//the vertices of level d are getVertexAt(getLevelStart(d)) .. getVertexAt(getLevelStart(d + 1) - 1)
+	public int getLevelStart(int d)
+	{
+		return levelStart[d];
+	}
+
+	//distance of v from the root, -1 if v is not reached
+	public int getDistance(int v)
+	{
+		return distance[v];
+	}
+
+	//number of shortest paths from the root to v
+	public double getSigma(int v)
+	{
+		return sigma[v];
+	}
+
+	public int getNumPredecessors(int v)
+	{
+		return numPredecessors[v];
+	}
+
+	//i-th parent of v (vertex index)
+	public int getPredecessor(int v, int i)
+	{
+		return predecessor[predecessorOffset[v] + i];
+	}
+
+	//slot of the DAG edge from the i-th parent of v to v, in the parent's adjacency
+	public int getPredecessorSlot(int v, int i)
+	{
+		return predecessorSlot[predecessorOffset[v] + i];
+	}
+
+	//credit of v, credits() must have been called for this root
+	public double getCredit(int v)
+	{
+		if(!creditsSet) throw new IllegalStateException("Credits have not been set for this root.");
+		return credit[v];
+	}
+}
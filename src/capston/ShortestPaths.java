@@ -0,0 +1,298 @@
+package capston;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class answer point to point shortest path queries (how far is user X from user Y) with a
+ * bidirectional breadth first search on a CSR graph
+ *
+ * The search grows one level from the start (over the followed users) or one level from the goal
+ * (over the followers, the reverse graph), always the side with the smaller frontier. When a level
+ * reaches a vertex already labeled by the other side the shortest path goes through the best of
+ * those meeting vertices, so the search stops at the end of that level. On a social network the two
+ * searches meet after visiting about the square root of what one BFS visits.
+ *
+ * The labels (distance and parent of each side) are kept in arrays stamped with the query number,
+ * a vertex label is only valid when its stamp is the current query, so nothing is cleared or
+ * allocated between queries. Each thread has its own Searcher, getDistances splits a batch of
+ * pairs across a ForkJoinPool.
+ */
+public class ShortestPaths
+{
+	//less pairs than this are always answered on the calling thread
+	private static final int MIN_PARALLEL_PAIRS = 256;
+
+	private final CsrGraph graph;
+	//followers of every vertex, the graph itself when it is undirected
+	private final CsrGraph reverse;
+
+	//searcher used on the calling thread, created on first use
+	private Searcher searcher;
+
+	public ShortestPaths(IntGraph graph)
+	{
+		this.graph = CsrGraph.fromIntGraph(graph);
+		CsrGraph reverse = this.graph.reverse();
+		boolean undirected = Arrays.equals(this.graph.getOffsetArray(), reverse.getOffsetArray())
+				&& Arrays.equals(this.graph.getNeighborArray(), reverse.getNeighborArray());
+		this.reverse = undirected ? this.graph : reverse;
+	}
+
+	public CsrGraph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Get the number of edges on a shortest path between the two users, -1 if there is no path
+	 */
+	public int getDistance(int startId, int goalId)
+	{
+		return getSearcher().getDistance(getVertexIndex(startId), getVertexIndex(goalId));
+	}
+
+	/**
+	 * Get the user ids of a shortest path from start to goal (both included), null if there is no path
+	 */
+	public List<Integer> getPath(int startId, int goalId)
+	{
+		Searcher searcher = getSearcher();
+		int goal = getVertexIndex(goalId);
+		if(searcher.getDistance(getVertexIndex(startId), goal) < 0) return null;
+
+		LinkedList<Integer> path = new LinkedList<>();
+		//from the meeting vertex back to the start, then forward to the goal
+		for(int v = searcher.meeting; v >= 0; v = searcher.getParent(searcher.forward, v))
+			path.addFirst(graph.getVertexId(v));
+		for(int v = searcher.getParent(searcher.backward, searcher.meeting); v >= 0; v = searcher.getParent(searcher.backward, v))
+			path.addLast(graph.getVertexId(v));
+		return path;
+	}
+
+	/**
+	 * Get the distance of every pair (startIds[k], goalIds[k]), -1 for the pairs without a path.
+	 * With numThreads > 1 the pairs are split across a ForkJoinPool of that many threads.
+	 */
+	public int[] getDistances(int[] startIds, int[] goalIds, int numThreads)
+	{
+		if(startIds.length != goalIds.length)
+			throw new IllegalArgumentException("Every start user needs a goal user.");
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+
+		int count = startIds.length;
+		int[] starts = new int[count];
+		int[] goals = new int[count];
+		for(int k = 0; k < count; k++)
+		{
+			starts[k] = getVertexIndex(startIds[k]);
+			goals[k] = getVertexIndex(goalIds[k]);
+		}
+
+		int[] distances = new int[count];
+		if(numThreads == 1 || count < MIN_PARALLEL_PAIRS)
+		{
+			Searcher searcher = getSearcher();
+			for(int k = 0; k < count; k++)
+				distances[k] = searcher.getDistance(starts[k], goals[k]);
+			return distances;
+		}
+
+		//each thread of the pool gets its own searcher the first time it runs a task
+		ThreadLocal<Searcher> threadSearcher = ThreadLocal.withInitial(() -> new Searcher(graph, reverse));
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try
+		{
+			int grain = Math.max(16, count / (numThreads * 16));
+			pool.invoke(new PairRangeTask(threadSearcher, starts, goals, distances, 0, count, grain));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		return distances;
+	}
+
+	private Searcher getSearcher()
+	{
+		if(searcher == null) searcher = new Searcher(graph, reverse);
+		return searcher;
+	}
+
+	private int getVertexIndex(int vertexId)
+	{
+		int v = graph.getIndex(vertexId);
+		if(v < 0) throw new IllegalArgumentException("User " + vertexId + " is not in the graph.");
+		return v;
+	}
+
+	//fork join task which splits a range of pairs till it is small enough to be run by one searcher
+	private static class PairRangeTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final ThreadLocal<Searcher> threadSearcher;
+		private final int[] starts;
+		private final int[] goals;
+		private final int[] distances;
+		private final int start;
+		private final int end;
+		private final int grain;
+
+		PairRangeTask(ThreadLocal<Searcher> threadSearcher, int[] starts, int[] goals, int[] distances, int start, int end, int grain)
+		{
+			this.threadSearcher = threadSearcher;
+			this.starts = starts;
+			this.goals = goals;
+			this.distances = distances;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(end - start <= grain)
+			{
+				Searcher searcher = threadSearcher.get();
+				for(int k = start; k < end; k++)
+					distances[k] = searcher.getDistance(starts[k], goals[k]);
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new PairRangeTask(threadSearcher, starts, goals, distances, start, middle, grain),
+					new PairRangeTask(threadSearcher, starts, goals, distances, middle, end, grain));
+		}
+	}
+
+	//labels of one side of the search, valid only where stamp == the current query
+	private static class Side
+	{
+		private final CsrGraph graph;
+		private final int[] stamp;
+		private final int[] distance;
+		private final int[] parent;
+		//vertices in the order they were labeled, the frontier is queue[levelStart .. size - 1]
+		private final int[] queue;
+		private int levelStart;
+		private int size;
+		private int level;
+
+		Side(CsrGraph graph)
+		{
+			this.graph = graph;
+			int n = graph.getNumVertices();
+			stamp = new int[n];
+			distance = new int[n];
+			parent = new int[n];
+			queue = new int[n];
+		}
+
+		void start(int root, int query)
+		{
+			stamp[root] = query;
+			distance[root] = 0;
+			parent[root] = -1;
+			queue[0] = root;
+			levelStart = 0;
+			size = 1;
+			level = 0;
+		}
+
+		int getFrontierSize()
+		{
+			return size - levelStart;
+		}
+
+		boolean isLabeled(int v, int query)
+		{
+			return stamp[v] == query;
+		}
+	}
+
+	//two sides of the search and the query counter, used by one thread at a time
+	private static class Searcher
+	{
+		private final Side forward;
+		private final Side backward;
+		private int query;
+		//vertex on the last found shortest path where the two searches met
+		private int meeting;
+
+		Searcher(CsrGraph graph, CsrGraph reverse)
+		{
+			forward = new Side(graph);
+			backward = new Side(reverse);
+		}
+
+		int getParent(Side side, int v)
+		{
+			return side.parent[v];
+		}
+
+		int getDistance(int start, int goal)
+		{
+			if(++query == Integer.MAX_VALUE)
+			{
+				//the stamps wrap around, clear them once every 2^31 queries
+				Arrays.fill(forward.stamp, 0);
+				Arrays.fill(backward.stamp, 0);
+				query = 1;
+			}
+			forward.start(start, query);
+			backward.start(goal, query);
+			meeting = start;
+			if(start == goal) return 0;
+
+			while(forward.getFrontierSize() > 0 && backward.getFrontierSize() > 0)
+			{
+				boolean forwardStep = forward.getFrontierSize() <= backward.getFrontierSize();
+				int best = forwardStep ? expand(forward, backward) : expand(backward, forward);
+				if(best >= 0) return best;
+			}
+			return -1;
+		}
+
+		//label the next level of the side, the length of the best path found through it or -1
+		private int expand(Side side, Side other)
+		{
+			CsrGraph graph = side.graph;
+			int best = -1;
+			int levelEnd = side.size;
+			int nextLevel = side.level + 1;
+			for(int k = side.levelStart; k < levelEnd; k++)
+			{
+				int v = side.queue[k];
+				int slot = graph.getNeighborSlot(v);
+				int end = slot + graph.getDegree(v);
+				for(; slot < end; slot++)
+				{
+					int w = graph.getNeighborAtSlot(slot);
+					if(side.isLabeled(w, query)) continue;
+					side.stamp[w] = query;
+					side.distance[w] = nextLevel;
+					side.parent[w] = v;
+					side.queue[side.size++] = w;
+
+					if(other.isLabeled(w, query))
+					{
+						int length = nextLevel + other.distance[w];
+						if(best < 0 || length < best)
+						{
+							best = length;
+							meeting = w;
+						}
+					}
+				}
+			}
+			side.levelStart = levelEnd;
+			side.level = nextLevel;
+			return best;
+		}
+	}
+}
@@ -0,0 +1,377 @@
+package capston;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class find the strongly connected components of a directed network, the groups of users
+ * who can all reach each other along the "follows" edges.
+ *
+ * Every search keeps its own stack in arrays, so a network of millions of users (or one long chain
+ * of followers) never runs out of the thread's stack. With numThreads > 1 (and a big enough network)
+ * the components are found in three phases (forward-backward-trim):
+ *
+ * 	1. trim: a user without any follower or followed user left is a component of its own, checked
+ * 	   for all the users in parallel, again while a round still trims at least 1% of the users left
+ * 	2. forward-backward: the users reached from a pivot along the edges, and among them the ones
+ * 	   reaching the pivot against the edges (the in CSR), are the component of the pivot. The pivot
+ * 	   has the most followers * followed users, so on a social network it is in the giant
+ * 	   component. Both searches go level by level with the frontier split across the threads.
+ * 	3. Tarjan: the users left are small components, found with an iterative Tarjan's algorithm
+ * 	   (O(|V| + |E|)), which alone finds all the components with one thread.
+ *
+ * The components are numbered in order of their smallest vertex index, so the numbering does not
+ * depend on the number of threads.
+ */
+public class StronglyConnectedComponents
+{
+	//less vertices than this are always computed on the calling thread
+	private static final int MIN_PARALLEL_VERTICES = 4096;
+
+	private final DirectedCsrGraph graph;
+	private final int numThreads;
+	//component of every vertex index
+	private final int[] component;
+	private int numComponents;
+	private int largestComponent;
+	//vertices put in their components by the trim and the forward-backward phases
+	private int numTrimmed;
+	private int numForwardBackward;
+
+	public StronglyConnectedComponents(DirectedCsrGraph graph)
+	{
+		this(graph, 1);
+	}
+
+	public StronglyConnectedComponents(IntGraph graph, int numThreads)
+	{
+		this(graph instanceof DirectedCsrGraph ? (DirectedCsrGraph) graph : DirectedCsrGraph.fromIntGraph(graph), numThreads);
+	}
+
+	/**
+	 * With numThreads > 1 the trim and forward-backward phases are split across a ForkJoinPool of
+	 * that many threads
+	 */
+	public StronglyConnectedComponents(DirectedCsrGraph graph, int numThreads)
+	{
+		if(numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1.");
+
+		this.graph = graph;
+		this.numThreads = numThreads;
+		int n = graph.getNumVertices();
+		//during the search a component is named after one of its vertices, -1 while it is not found
+		component = new int[n];
+		Arrays.fill(component, -1);
+
+		ForkJoinPool pool = numThreads > 1 && n >= MIN_PARALLEL_VERTICES ? new ForkJoinPool(numThreads) : null;
+		try
+		{
+			if(pool != null)
+			{
+				trim(pool);
+				forwardBackward(pool);
+			}
+		}
+		finally
+		{
+			if(pool != null) pool.shutdown();
+		}
+		tarjan();
+		renumber();
+	}
+
+	public int getNumComponents()
+	{
+		return numComponents;
+	}
+
+	//component (0 .. getNumComponents() - 1) of the vertex index v
+	public int getComponent(int v)
+	{
+		return component[v];
+	}
+
+	//component of every vertex index
+	public int[] getComponents()
+	{
+		return component;
+	}
+
+	//number of users of the biggest component
+	public int getSizeOfLargestComponent()
+	{
+		return largestComponent;
+	}
+
+	/**
+	 * Get the user ids of every component (ascending), in order of the components
+	 */
+	public List<int[]> getComponentMembers()
+	{
+		int[] size = new int[numComponents];
+		for(int c : component)
+			size[c]++;
+		List<int[]> members = new ArrayList<>();
+		for(int c = 0; c < numComponents; c++)
+			members.add(new int[size[c]]);
+		Arrays.fill(size, 0);
+		for(int v = 0; v < component.length; v++)
+			members.get(component[v])[size[component[v]]++] = graph.getVertexId(v);
+		return members;
+	}
+
+	//whether the two users are in the same component (they can reach each other)
+	public boolean isStronglyConnected(int startVertexId, int endVertexId)
+	{
+		int v = graph.getIndex(startVertexId);
+		int w = graph.getIndex(endVertexId);
+		return v >= 0 && w >= 0 && component[v] == component[w];
+	}
+
+	//number of users put in their components by the trim phase
+	public int getNumTrimmed()
+	{
+		return numTrimmed;
+	}
+
+	//number of users in the component found by the forward-backward phase
+	public int getNumForwardBackward()
+	{
+		return numForwardBackward;
+	}
+
+	//helper method to give every user without any follower or followed user left its own component
+	private void trim(ForkJoinPool pool)
+	{
+		int n = graph.getNumVertices();
+		int left = n;
+		while(left > 0)
+		{
+			int[] trimmed = collect(pool, n, (start, end) -> {
+				int[] found = new int[16];
+				int size = 0;
+				for(int v = start; v < end; v++)
+				{
+					if(component[v] < 0 && (!hasLiveNeighbor(graph.getOutGraph(), v) || !hasLiveNeighbor(graph.getInGraph(), v)))
+					{
+						if(size == found.length) found = Arrays.copyOf(found, size * 2);
+						found[size++] = v;
+					}
+				}
+				return Arrays.copyOf(found, size);
+			});
+			for(int v : trimmed)
+				component[v] = v;
+			numTrimmed += trimmed.length;
+			left -= trimmed.length;
+			if(trimmed.length < Math.max(1, left / 100)) break;
+		}
+	}
+
+	//helper method to check whether v has a neighbor (other than itself) without a component
+	private boolean hasLiveNeighbor(CsrGraph csrGraph, int v)
+	{
+		for(int i = 0; i < csrGraph.getDegree(v); i++)
+		{
+			int w = csrGraph.getNeighbor(v, i);
+			if(w != v && component[w] < 0) return true;
+		}
+		return false;
+	}
+
+	//helper method to find the component of the vertex with the most followers * followed users
+	private void forwardBackward(ForkJoinPool pool)
+	{
+		int pivot = -1;
+		long best = -1;
+		for(int v = 0; v < graph.getNumVertices(); v++)
+		{
+			if(component[v] >= 0) continue;
+			long degrees = (long) graph.getInDegree(v) * graph.getOutDegree(v);
+			if(degrees > best)
+			{
+				best = degrees;
+				pivot = v;
+			}
+		}
+		if(pivot < 0) return;
+
+		//the component is the part of the forward reach which reaches the pivot
+		boolean[] forward = reach(pool, graph.getOutGraph(), pivot, null);
+		boolean[] backward = reach(pool, graph.getInGraph(), pivot, forward);
+		for(int v = 0; v < backward.length; v++)
+		{
+			if(backward[v])
+			{
+				component[v] = pivot;
+				numForwardBackward++;
+			}
+		}
+	}
+
+	/*
+	 * helper method to mark the vertices without a component reached from the root in csrGraph (and
+	 * inside allowed if it is not null), one level at a time. Two threads may both add a vertex to the
+	 * next level, then it is only searched twice.
+	 */
+	private boolean[] reach(ForkJoinPool pool, CsrGraph csrGraph, int root, boolean[] allowed)
+	{
+		boolean[] reached = new boolean[graph.getNumVertices()];
+		reached[root] = true;
+		int[] frontier = {root};
+		while(frontier.length > 0)
+		{
+			final int[] level = frontier;
+			frontier = collect(pool, level.length, (start, end) -> {
+				int[] next = new int[16];
+				int size = 0;
+				for(int k = start; k < end; k++)
+				{
+					int v = level[k];
+					for(int i = 0; i < csrGraph.getDegree(v); i++)
+					{
+						int w = csrGraph.getNeighbor(v, i);
+						if(reached[w] || component[w] >= 0 || (allowed != null && !allowed[w])) continue;
+						reached[w] = true;
+						if(size == next.length) next = Arrays.copyOf(next, size * 2);
+						next[size++] = w;
+					}
+				}
+				return Arrays.copyOf(next, size);
+			});
+		}
+		return reached;
+	}
+
+	/*
+	 * Iterative Tarjan's algorithm over the vertices without a component. The call stack of the
+	 * recursive version is kept in the stack array with the position of the next edge of each vertex,
+	 * a vertex is on the component stack while it has an index but no component.
+	 */
+	private void tarjan()
+	{
+		int n = graph.getNumVertices();
+		CsrGraph out = graph.getOutGraph();
+		int[] index = new int[n];
+		int[] low = new int[n];
+		Arrays.fill(index, -1);
+		int[] stack = new int[n];
+		int[] nextEdge = new int[n];
+		int[] componentStack = new int[n];
+		int counter = 0;
+
+		for(int root = 0; root < n; root++)
+		{
+			if(component[root] >= 0 || index[root] >= 0) continue;
+
+			int top = 0;
+			int componentTop = 0;
+			stack[0] = root;
+			nextEdge[0] = 0;
+			index[root] = low[root] = counter++;
+			componentStack[componentTop++] = root;
+			while(top >= 0)
+			{
+				int v = stack[top];
+				if(nextEdge[top] < out.getDegree(v))
+				{
+					int w = out.getNeighbor(v, nextEdge[top]++);
+					if(component[w] >= 0) continue;
+					if(index[w] < 0)
+					{
+						//go down to w
+						index[w] = low[w] = counter++;
+						componentStack[componentTop++] = w;
+						stack[++top] = w;
+						nextEdge[top] = 0;
+					}
+					else low[v] = Math.min(low[v], index[w]);
+					continue;
+				}
+
+				//all the edges of v are done, v is the root of a component if nothing below reached higher
+				if(low[v] == index[v])
+				{
+					int w;
+					do
+					{
+						w = componentStack[--componentTop];
+						component[w] = v;
+					}
+					while(w != v);
+				}
+				top--;
+				if(top >= 0) low[stack[top]] = Math.min(low[stack[top]], low[v]);
+			}
+		}
+	}
+
+	//helper method to number the components in order of their smallest vertex index
+	private void renumber()
+	{
+		int n = component.length;
+		int[] number = new int[n];
+		Arrays.fill(number, -1);
+		int[] size = new int[n];
+		numComponents = 0;
+		for(int v = 0; v < n; v++)
+		{
+			int name = component[v];
+			if(number[name] < 0) number[name] = numComponents++;
+			component[v] = number[name];
+			largestComponent = Math.max(largestComponent, ++size[component[v]]);
+		}
+	}
+
+	//body of a parallel loop over a range, the found vertices of the ranges are put together
+	private interface RangeFunction
+	{
+		int[] apply(int start, int end);
+	}
+
+	//helper method to run the function over 0 .. size - 1, split across the pool
+	private int[] collect(ForkJoinPool pool, int size, RangeFunction function)
+	{
+		int grain = Math.max(1024, size / (numThreads * 8));
+		if(size <= grain) return function.apply(0, size);
+		return pool.invoke(new RangeTask(function, 0, size, grain));
+	}
+
+	//fork join task which splits a range till it is small enough
+	private static class RangeTask extends RecursiveTask<int[]>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final RangeFunction function;
+		private final int start;
+		private final int end;
+		private final int grain;
+
+		RangeTask(RangeFunction function, int start, int end, int grain)
+		{
+			this.function = function;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected int[] compute()
+		{
+			if(end - start <= grain) return function.apply(start, end);
+
+			int middle = (start + end) >>> 1;
+			RangeTask left = new RangeTask(function, start, middle, grain);
+			left.fork();
+			int[] right = new RangeTask(function, middle, end, grain).compute();
+			int[] found = left.join();
+			int[] all = Arrays.copyOf(found, found.length + right.length);
+			System.arraycopy(right, 0, all, found.length, right.length);
+			return all;
+		}
+	}
+}
@@ -1,16 +1,15 @@
 package capston;
 
-import java.util.List;
+import java.io.IOException;
 
 public class TestingCommunityDetection 
 {
-	public static void main(String[] args) 
+	public static void main(String[] args) throws IOException
 	{
-		//load the graph
-		Graph graph = new Graph();
-		GraphLoader.loadGraph(graph, "data/main_test.txt");
+		//load the graph, the binary snapshot of the edge list is memory-mapped (and written on the first run)
+		CsrGraph graph = CsrGraph.fromIntGraph(GraphSnapshot.load("data/main_test.txt"));
 		
-		graph.printGraph();
+		System.out.println(graph);
 		
 		CommunityDetection cd = new CommunityDetection(graph, 3);
 		
@@ -0,0 +1,102 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the degree, core number and PageRank rankings of Centrality.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static junitTesting.TestGraphs.getCliques;
+import static junitTesting.TestGraphs.getPlantedPartition;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import capston.Centrality;
+import capston.Centrality.Measure;
+import capston.CsrGraph;
+import capston.Graph;
+
+public class CentralityTesting
+{
+	@Test
+	//testing whether the core numbers are the sizes of the cliques - 1 and the PageRank adds up to 1 with
+	//the hub first
+	public void testCentrality()
+	{
+		CsrGraph network = getNetwork();
+		Centrality centrality = new Centrality(network);
+
+		for(int v = 0; v < network.getNumVertices(); v++)
+		{
+			int user = network.getVertexId(v);
+			int expected = user <= 5 ? 4 : user <= 9 ? 3 : user <= 12 ? 2 : 1;
+			assertEquals(expected, centrality.getCoreNumbers()[v], 0.0);
+		}
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), centrality.getTopK(Measure.CORE, 5));
+
+		double total = 0.0;
+		for(double rank : centrality.getPageRank())
+			total += rank;
+		assertEquals(1.0, total, 1e-9);
+		assertEquals(Arrays.asList(20), centrality.getTopK(Measure.PAGE_RANK, 1));
+		assertTrue(centrality.getNumPageRankIterations() > 1);
+
+		assertEquals(Arrays.asList(20, 1), centrality.getTopK(Measure.DEGREE, 2));
+	}
+
+	@Test
+	//testing whether the percentiles (nearest rank) take in every user tied with the value at the boundary
+	public void testPercentiles()
+	{
+		//degrees: 10 users with 1 friend, 3 with 2, 4 with 3, 4 with 4, then 5 and 11
+		Centrality centrality = new Centrality(getNetwork());
+
+		assertEquals(1.0, centrality.getPercentile(Measure.DEGREE, 0), 0.0);
+		assertEquals(1.0, centrality.getPercentile(Measure.DEGREE, 43), 0.0);
+		assertEquals(2.0, centrality.getPercentile(Measure.DEGREE, 44), 0.0);
+		assertEquals(11.0, centrality.getPercentile(Measure.DEGREE, 100), 0.0);
+		assertEquals(23, centrality.getUsersAbovePercentile(Measure.DEGREE, 43).size());
+		assertEquals(13, centrality.getUsersAbovePercentile(Measure.DEGREE, 44).size());
+		assertEquals(Arrays.asList(20), centrality.getUsersAbovePercentile(Measure.DEGREE, 100));
+
+		//cores: 11 users of core 1, 3 of core 2, 4 of core 3 and 5 of core 4
+		assertEquals(4.0, centrality.getPercentile(Measure.CORE, 90), 0.0);
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), centrality.getUsersAbovePercentile(Measure.CORE, 90));
+		assertEquals(9, centrality.getUsersAbovePercentile(Measure.CORE, 70).size());
+	}
+
+	@Test
+	//testing whether the degrees and the PageRank split across threads (more than 4096 users) are the
+	//ones of one thread
+	public void testCentralityInParallel()
+	{
+		CsrGraph network = getPlantedPartition(50, 100, 5L);
+		Centrality sequential = new Centrality(network, 1);
+		Centrality parallel = new Centrality(network, 2);
+
+		assertTrue(Arrays.equals(sequential.getDegrees(), parallel.getDegrees()));
+		double[] expected = sequential.getPageRank();
+		double[] ranks = parallel.getPageRank();
+		for(int v = 0; v < expected.length; v++)
+			assertEquals(expected[v], ranks[v], 1e-12);
+		assertEquals(sequential.getNumPageRankIterations(), parallel.getNumPageRankIterations());
+	}
+
+	//helper method to build a 5-clique (1 - 5), a 4-clique (6 - 9), a triangle (10 - 12) and the hub 20
+	//with 10 users whose only friend it is (21 - 30), the hub is also a friend of 1
+	private static CsrGraph getNetwork()
+	{
+		Graph network = getCliques(new int[][] {{1, 2, 3, 4, 5}, {6, 7, 8, 9}, {10, 11, 12}}, new int[][] {});
+		network.addVertex(20);
+		for(int leaf = 21; leaf <= 30; leaf++)
+		{
+			network.addVertex(leaf);
+			network.addEdge(20, leaf);
+			network.addEdge(leaf, 20);
+		}
+		network.addEdge(20, 1);
+		network.addEdge(1, 20);
+		return CsrGraph.fromGraph(network);
+	}
+}
@@ -11,14 +11,27 @@ package junitTesting;
  * 												
  */
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static junitTesting.TestGraphs.getCliques;
+import static junitTesting.TestGraphs.getPlantedPartition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
-import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import capston.CommunityDetection;
+import capston.CsrGraph;
+import capston.Dendrogram;
 import capston.Graph;
 import capston.GraphLoader;
+import capston.InducedSubgraph;
+import capston.LabelPropagationCommunityDetection;
+import capston.LouvainCommunityDetection;
 
 public class CommunityDetectiionTesting 
 {
@@ -64,4 +77,190 @@ public class CommunityDetectiionTesting
 		assertEquals(totalSubCommunities, cd.getSizeOfSubCommunites());
 	}
 	
+	@Test
+	//testing whether the incremental detection finds the same sub-communities without changing the graph
+	public void testGetSubComminitesIncrementally()
+	{
+		int minUsers = 3;
+		
+		Graph network = new Graph();
+		GraphLoader.loadGraph(network, "data/main_test.txt");
+		
+		CommunityDetection cd = new CommunityDetection(network, minUsers, 1, true);
+		
+		assertEquals(2, cd.getSizeOfSubCommunites());
+		assertEquals(edges, network.getNumEdges());
+	}
+	
+	@Test
+	//testing whether the Louvain detection finds the same sub-communities
+	public void testGetSubComminitesWithLouvain()
+	{
+		int minUsers = 3;
+		
+		Graph network = new Graph();
+		GraphLoader.loadGraph(network, "data/main_test.txt");
+		
+		LouvainCommunityDetection louvain = new LouvainCommunityDetection(network, minUsers);
+		
+		assertEquals(2, louvain.getSizeOfSubCommunites());
+		assertEquals(2, louvain.getSubCommunites().size());
+	}
+	
+	@Test
+	//testing whether the parallel local moving (more than 4096 users) finds the planted communities
+	public void testGetSubComminitesWithLouvainInParallel()
+	{
+		CsrGraph network = getPlantedPartition(50, 100, 7L);
+		
+		LouvainCommunityDetection sequential = new LouvainCommunityDetection(network, 10, 1);
+		LouvainCommunityDetection parallel = new LouvainCommunityDetection(network, 10, 2);
+		
+		assertEquals(50, sequential.getSizeOfSubCommunites());
+		assertEquals(50, parallel.getSizeOfSubCommunites());
+		assertTrue(sequential.getModularity() > 0.8);
+		assertEquals(sequential.getModularity(), parallel.getModularity(), 0.01);
+	}
+	
+	@Test
+	//testing whether the label propagation finds the same sub-communities in both modes
+	public void testGetSubComminitesWithLabelPropagation()
+	{
+		int minUsers = 3;
+		
+		Graph network = new Graph();
+		GraphLoader.loadGraph(network, "data/main_test.txt");
+		
+		LabelPropagationCommunityDetection lpa = new LabelPropagationCommunityDetection(network, minUsers);
+		assertEquals(2, lpa.getSizeOfSubCommunites());
+		
+		LabelPropagationCommunityDetection colored = new LabelPropagationCommunityDetection(CsrGraph.fromGraph(network), minUsers, 2,
+				LabelPropagationCommunityDetection.Mode.SEMI_SYNCHRONOUS);
+		assertEquals(2, colored.getSizeOfSubCommunites());
+		assertEquals(2, colored.getSubCommunites().size());
+	}
+	
+	@Test
+	//testing whether the parallel label propagation (more than 4096 users) finds the planted communities,
+	//the semi-synchronous mode with the same labels for any number of threads
+	public void testGetSubComminitesWithLabelPropagationInParallel()
+	{
+		CsrGraph network = getPlantedPartition(50, 100, 7L);
+		
+		LabelPropagationCommunityDetection colored = new LabelPropagationCommunityDetection(network, 10, 1,
+				LabelPropagationCommunityDetection.Mode.SEMI_SYNCHRONOUS);
+		LabelPropagationCommunityDetection coloredInParallel = new LabelPropagationCommunityDetection(network, 10, 2,
+				LabelPropagationCommunityDetection.Mode.SEMI_SYNCHRONOUS);
+		assertEquals(50, colored.getSizeOfSubCommunites());
+		assertTrue(Arrays.equals(colored.getCommunities(), coloredInParallel.getCommunities()));
+		
+		//the asynchronous result depends on the thread timing, the planted communities have a modularity of about 0.81
+		LabelPropagationCommunityDetection lpa = new LabelPropagationCommunityDetection(network, 10, 2,
+				LabelPropagationCommunityDetection.Mode.ASYNCHRONOUS);
+		assertTrue(getModularity(lpa.getGraph(), lpa.getCommunities()) > 0.7);
+	}
+	
+	@Test
+	//testing whether the dendrogram cuts give the sub-communities of the detection for every minimum
+	public void testGetSubComminitesFromDendrogram()
+	{
+		Graph network = new Graph();
+		GraphLoader.loadGraph(network, "data/main_test.txt");
+		
+		Dendrogram dendrogram = Dendrogram.build(CsrGraph.fromGraph(network), 1);
+		
+		assertEquals(2, new CommunityDetection(dendrogram, 3).getSizeOfSubCommunites());
+		assertEquals(new CommunityDetection(network, 2, 1, true).getSizeOfSubCommunites(),
+				new CommunityDetection(dendrogram, 2).getSizeOfSubCommunites());
+		assertEquals(2, dendrogram.cutByCount(2).getSizeOfSubCommunites());
+		assertEquals(edges, network.getNumEdges());
+	}
+	
+	@Test
+	//testing whether the sub-community views have the same users as the sub-community copies
+	public void testSubCommunityViews()
+	{
+		int minUsers = 3;
+		
+		Graph network = new Graph();
+		GraphLoader.loadGraph(network, "data/main_test.txt");
+		
+		CommunityDetection cd = new CommunityDetection(network, minUsers, 2);
+		List<InducedSubgraph> views = cd.getSubCommunityViews();
+		
+		assertEquals(2, views.size());
+		for(int c = 0; c < views.size(); c++)
+		{
+			assertEquals(cd.getSubCommunites().get(c).getNumVertices(), views.get(c).getNumVertices());
+			for(int member : views.get(c).getMembers())
+				assertEquals(c, cd.getCommunities()[cd.getGraph().getIndex(member)]);
+		}
+		assertEquals(edges, network.getNumEdges());
+	}
+	
+	@Test
+	//testing whether two bridges with the same betweenness, removed together, give three sub-communities
+	public void testGetSubComminitesWithTiedBridges()
+	{
+		Graph network = getCliques(new int[][] {{1, 2, 3}, {4, 5, 6, 7, 8}, {9, 10, 11, 12, 13}}, new int[][] {{1, 4}, {2, 9}});
+		
+		CommunityDetection cd = new CommunityDetection(network, 3, 1, false);
+		
+		assertEquals(3, cd.getSizeOfSubCommunites());
+		assertEquals(new HashSet<>(getMemberSets(new CommunityDetection(network, 3, 1, true))), new HashSet<>(getMemberSets(cd)));
+		assertTrue(getMemberSets(cd).contains(new HashSet<>(Arrays.asList(1, 2, 3))));
+	}
+	
+	@Test
+	//testing whether dividing the pieces in parallel finds the sub-communities of the incremental detection
+	//(the clique of 6 users has twice minUsers, so it is divided again and falls apart into dropped pieces)
+	public void testGetSubComminitesInParallel()
+	{
+		Graph network = getCliques(new int[][] {{1, 2, 3}, {4, 5, 6, 7, 8}, {9, 10, 11, 12, 13}, {14, 15, 16, 17}, {18, 19, 20, 21, 22, 23}},
+				new int[][] {{1, 4}, {2, 9}, {8, 14}, {13, 18}, {17, 20}});
+		
+		for(int numThreads = 2; numThreads <= 3; numThreads++)
+		{
+			CommunityDetection cd = new CommunityDetection(network, 3, numThreads, false);
+			assertEquals(4, cd.getSizeOfSubCommunites());
+			assertEquals(new HashSet<>(getMemberSets(new CommunityDetection(network, 3, 1, true))), new HashSet<>(getMemberSets(cd)));
+		}
+	}
+	
+	//helper method to get the modularity of the communities, the users in no community are left out
+	private static double getModularity(CsrGraph network, int[] community)
+	{
+		double totalDegree = 0.0;
+		double inside = 0.0;
+		double[] communityDegree = new double[network.getNumVertices()];
+		for(int v = 0; v < network.getNumVertices(); v++)
+		{
+			totalDegree += network.getDegree(v);
+			if(community[v] < 0) continue;
+			communityDegree[community[v]] += network.getDegree(v);
+			for(int i = 0; i < network.getDegree(v); i++)
+			{
+				if(community[network.getNeighbor(v, i)] == community[v]) inside++;
+			}
+		}
+		double modularity = inside / totalDegree;
+		for(double degree : communityDegree)
+			modularity -= (degree / totalDegree) * (degree / totalDegree);
+		return modularity;
+	}
+	
+	//helper method to get the user ids of every sub-community, in the order of the sub-communities
+	private static List<Set<Integer>> getMemberSets(CommunityDetection cd)
+	{
+		List<Set<Integer>> members = new ArrayList<>();
+		for(InducedSubgraph view : cd.getSubCommunityViews())
+		{
+			Set<Integer> users = new HashSet<>();
+			for(int user : view.getMembers())
+				users.add(user);
+			members.add(users);
+		}
+		return members;
+	}
+	
 }
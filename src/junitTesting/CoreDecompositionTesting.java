@@ -0,0 +1,61 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the k-core decomposition and the core-based pruning.
+ */
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import capston.Centrality;
+import capston.CommunityDetection;
+import capston.CoreDecomposition;
+import capston.CsrGraph;
+import capston.Graph;
+import capston.GraphLoader;
+import capston.InfluentialUsers;
+
+public class CoreDecompositionTesting 
+{
+	//users and edges of data/main_test.txt
+	private static final int VERTICES = 7;
+	private static final int EDGES = 9;
+	
+	@Test
+	//testing whether the fringe outside the 2-core is pruned and attached to the community of its neighbors
+	public void testCoreDecomposition()
+	{
+		//main_test.txt with the users 8 (friend of 1), 9 (friend of 7) and 10 (friend of 9)
+		Graph network = new Graph();
+		GraphLoader.loadGraph(network, "data/main_test.txt");
+		int[][] fringe = {{8, 1}, {9, 7}, {10, 9}};
+		for(int[] edge : fringe)
+		{
+			network.addVertex(edge[0]);
+			network.addEdge(edge[0], edge[1]);
+			network.addEdge(edge[1], edge[0]);
+		}
+		
+		CsrGraph csrGraph = CsrGraph.fromGraph(network);
+		CoreDecomposition cores = new CoreDecomposition(csrGraph);
+		assertEquals(2, cores.getMaxCore());
+		for(int v = 0; v < csrGraph.getNumVertices(); v++)
+			assertEquals(csrGraph.getVertexId(v) > VERTICES ? 1 : 2, cores.getCoreNumber(v));
+		assertEquals(VERTICES, cores.getCoreGraph(2).getNumVertices());
+		assertEquals(EDGES, cores.getCoreGraph(2).getNumEdges());
+		
+		CommunityDetection cd = new CommunityDetection(csrGraph, 3, 1, false, null, 2);
+		assertEquals(2, cd.getSizeOfSubCommunites());
+		int[] community = cd.getCommunities();
+		CsrGraph undirected = cd.getGraph();
+		assertEquals(community[undirected.getIndex(1)], community[undirected.getIndex(8)]);
+		assertEquals(community[undirected.getIndex(7)], community[undirected.getIndex(9)]);
+		assertEquals(community[undirected.getIndex(7)], community[undirected.getIndex(10)]);
+		assertEquals(4, cd.getSubCommunites().get(community[undirected.getIndex(1)]).getNumVertices());
+		assertEquals(6, cd.getSubCommunites().get(community[undirected.getIndex(7)]).getNumVertices());
+		
+		assertEquals(Arrays.asList(4), InfluentialUsers.getTopInfluentialUsers(InfluentialUsers.getCoreCentrality(csrGraph, 2), Centrality.Measure.DEGREE, 1));
+	}
+}
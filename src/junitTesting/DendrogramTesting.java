@@ -0,0 +1,138 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the dendrogram files of Dendrogram (write, open and load).
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static junitTesting.TestGraphs.getCliques;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.Dendrogram;
+import capston.GraphSnapshot;
+
+public class DendrogramTesting
+{
+	//four cliques joined in a ring
+	private static final int[][] CLIQUES = {{1, 2, 3, 4}, {5, 6, 7, 8, 9}, {10, 11, 12, 13}, {14, 15, 16}};
+	private static final int[][] BRIDGES = {{4, 5}, {9, 10}, {13, 14}, {16, 1}};
+
+	@Test
+	//testing whether a dendrogram written and opened again gives the same nodes and cuts, and whether a
+	//flipped byte or a graph of the same users with other edges is rejected
+	public void testDendrogramFile() throws IOException
+	{
+		CsrGraph network = CsrGraph.fromGraph(getCliques(CLIQUES, BRIDGES));
+		Dendrogram dendrogram = Dendrogram.build(network, 1);
+		Path file = Files.createTempFile("dendrogram", Dendrogram.EXTENSION);
+		try
+		{
+			dendrogram.write(file.toString());
+			Dendrogram opened = Dendrogram.open(file.toString(), network);
+			assertEquals(dendrogram.getMinVerticesFloor(), opened.getMinVerticesFloor());
+			assertEquals(dendrogram.getNumNodes(), opened.getNumNodes());
+			assertEquals(dendrogram.getNumRemovedEdges(), opened.getNumRemovedEdges());
+			for(int node = 0; node < dendrogram.getNumNodes(); node++)
+			{
+				assertEquals(dendrogram.getNodeParent(node), opened.getNodeParent(node));
+				assertTrue(Arrays.equals(dendrogram.getMembers(node), opened.getMembers(node)));
+				assertTrue(Arrays.equals(dendrogram.getRemovedEdges(node), opened.getRemovedEdges(node)));
+			}
+			for(int minVertices = 1; minVertices <= 8; minVertices++)
+				assertTrue(Arrays.equals(dendrogram.cutBySize(minVertices).getCommunities(), opened.cutBySize(minVertices).getCommunities()));
+			for(int numCommunities = 1; numCommunities <= 16; numCommunities++)
+				assertTrue(Arrays.equals(dendrogram.cutByCount(numCommunities).getCommunities(), opened.cutByCount(numCommunities).getCommunities()));
+
+			//the same users without the last bridge
+			CsrGraph otherEdges = CsrGraph.fromGraph(getCliques(CLIQUES, Arrays.copyOf(BRIDGES, 3)));
+			assertOpenFails(file, otherEdges, "not built");
+
+			byte[] bytes = Files.readAllBytes(file);
+			bytes[bytes.length - 1] ^= 1;
+			Files.write(file, bytes);
+			assertOpenFails(file, network, "corrupted");
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	//testing whether load keeps a dendrogram built with a smaller or equal minVerticesFloor and rebuilds it
+	//for a smaller one, for a zeroed header or for other edges of the same users
+	public void testDendrogramLoad() throws IOException
+	{
+		Path directory = Files.createTempDirectory("dendrogram");
+		Path edgeList = directory.resolve("cliques.txt");
+		Path file = directory.resolve("cliques" + Dendrogram.EXTENSION);
+		Path snapshotFile = directory.resolve("cliques" + GraphSnapshot.EXTENSION);
+		try
+		{
+			writeEdgeList(edgeList, CsrGraph.fromGraph(getCliques(CLIQUES, BRIDGES)));
+			assertEquals(2, Dendrogram.load(edgeList.toString(), 2, 1).getMinVerticesFloor());
+			assertEquals(2, Dendrogram.load(edgeList.toString(), 3, 1).getMinVerticesFloor());
+			assertEquals(1, Dendrogram.load(edgeList.toString(), 1, 1).getMinVerticesFloor());
+			assertEquals(1, Dendrogram.load(edgeList.toString(), 2, 1).getMinVerticesFloor());
+
+			byte[] bytes = Files.readAllBytes(file);
+			Arrays.fill(bytes, 0, Dendrogram.HEADER_SIZE, (byte) 0);
+			Files.write(file, bytes);
+			assertEquals(2, Dendrogram.load(edgeList.toString(), 2, 1).getMinVerticesFloor());
+
+			//an edge list with other edges which is not newer than the dendrogram (i.e. copied with its time)
+			CsrGraph otherEdges = CsrGraph.fromGraph(getCliques(CLIQUES, Arrays.copyOf(BRIDGES, 3)));
+			FileTime time = Files.getLastModifiedTime(file);
+			writeEdgeList(edgeList, otherEdges);
+			Files.setLastModifiedTime(edgeList, time);
+			Files.delete(snapshotFile);
+			Dendrogram dendrogram = Dendrogram.load(edgeList.toString(), 2, 1);
+			assertEquals(otherEdges.toUndirected().getNumEdges(), dendrogram.getGraph().getNumEdges());
+			assertTrue(Arrays.equals(Dendrogram.build(otherEdges, 2).cutByCount(4).getCommunities(),
+					dendrogram.cutByCount(4).getCommunities()));
+		}
+		finally
+		{
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(snapshotFile);
+			Files.delete(edgeList);
+			Files.delete(directory);
+		}
+	}
+
+	//helper method to check that the dendrogram file is not opened for the graph
+	private static void assertOpenFails(Path file, CsrGraph network, String reason)
+	{
+		try
+		{
+			Dendrogram.open(file.toString(), network);
+			fail("the dendrogram must not be opened");
+		}
+		catch(IOException e)
+		{
+			assertTrue(e.getMessage().contains(reason));
+		}
+	}
+
+	//helper method to write the edges of the graph as an edge list file
+	private static void writeEdgeList(Path file, CsrGraph network) throws IOException
+	{
+		StringBuilder edges = new StringBuilder();
+		for(int v = 0; v < network.getNumVertices(); v++)
+		{
+			for(int i = 0; i < network.getDegree(v); i++)
+				edges.append(network.getVertexId(v)).append(' ').append(network.getVertexId(network.getNeighbor(v, i))).append('\n');
+		}
+		Files.write(file, edges.toString().getBytes(StandardCharsets.UTF_8));
+	}
+}
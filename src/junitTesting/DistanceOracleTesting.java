@@ -0,0 +1,119 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the pruned landmark labeling of DistanceOracle.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static junitTesting.TestGraphs.getDistancesFrom;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.DistanceOracle;
+import capston.GraphLoader;
+import capston.GraphSnapshot;
+
+public class DistanceOracleTesting 
+{
+	@Test
+	//testing whether the landmark labels (built with one and two threads, and written and opened again)
+	//give the distances of a plain BFS
+	public void testDistanceOracle() throws IOException
+	{
+		for(String file : new String[] {"data/facebook_1000.txt", "data/scc/test_9.txt"})
+		{
+			CsrGraph network = GraphLoader.loadCsrGraph(file);
+			int n = network.getNumVertices();
+			DistanceOracle sequential = DistanceOracle.build(network, 1);
+			DistanceOracle parallel = DistanceOracle.build(network, 2);
+			
+			Path indexFile = Files.createTempFile("oracle", DistanceOracle.EXTENSION);
+			try
+			{
+				parallel.write(indexFile.toString());
+				DistanceOracle opened = DistanceOracle.open(indexFile.toString());
+				assertEquals(n, opened.getNumVertices());
+				assertEquals(parallel.getNumLabelEntries(), opened.getNumLabelEntries());
+				
+				for(int start = 0; start < n; start += 7)
+				{
+					int[] distances = getDistancesFrom(network, start);
+					for(int goal = 0; goal < n; goal++)
+					{
+						assertEquals(distances[goal], sequential.getDistanceOfIndices(start, goal));
+						assertEquals(distances[goal], parallel.getDistanceOfIndices(start, goal));
+						assertEquals(distances[goal], opened.getDistance(network.getVertexId(start), network.getVertexId(goal)));
+					}
+				}
+			}
+			finally
+			{
+				Files.delete(indexFile);
+			}
+		}
+	}
+	
+	@Test
+	//testing whether a rewritten index leaves an oracle opened before valid, and whether load rebuilds an
+	//index with a zeroed header (a writer which died) or a flipped byte
+	public void testDistanceOracleLoad() throws IOException
+	{
+		Path directory = Files.createTempDirectory("oracle");
+		Path edgeList = directory.resolve("facebook_1000.txt");
+		Files.copy(Paths.get("data/facebook_1000.txt"), edgeList);
+		Path indexFile = directory.resolve("facebook_1000" + DistanceOracle.EXTENSION);
+		Path snapshotFile = directory.resolve("facebook_1000" + GraphSnapshot.EXTENSION);
+		try
+		{
+			CsrGraph network = GraphLoader.loadCsrGraph(edgeList.toString());
+			int[] distances = getDistancesFrom(network, 0);
+			DistanceOracle opened = DistanceOracle.load(edgeList.toString(), 2);
+			DistanceOracle.build(network, 1).write(indexFile.toString());
+			for(int goal = 0; goal < network.getNumVertices(); goal++)
+				assertEquals(distances[goal], opened.getDistanceOfIndices(0, goal));
+			
+			byte[] bytes = Files.readAllBytes(indexFile);
+			Arrays.fill(bytes, 0, DistanceOracle.HEADER_SIZE, (byte) 0);
+			Files.write(indexFile, bytes);
+			assertEquals(distances[5], DistanceOracle.load(edgeList.toString(), 2).getDistanceOfIndices(0, 5));
+			
+			bytes = Files.readAllBytes(indexFile);
+			bytes[bytes.length - 1] ^= 1;
+			Files.write(indexFile, bytes);
+			try
+			{
+				DistanceOracle.open(indexFile.toString());
+				fail("an index with a wrong checksum must not be opened");
+			}
+			catch(IOException e)
+			{
+				assertTrue(e.getMessage().contains("corrupted"));
+			}
+			DistanceOracle loaded = DistanceOracle.load(edgeList.toString(), 2);
+			for(int goal = 0; goal < network.getNumVertices(); goal++)
+				assertEquals(distances[goal], loaded.getDistanceOfIndices(0, goal));
+			
+			//no temp file is left behind
+			try(Stream<Path> files = Files.list(directory))
+			{
+				assertEquals(3, files.count());
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(indexFile);
+			Files.deleteIfExists(snapshotFile);
+			Files.delete(edgeList);
+			Files.delete(directory);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the edge ids and the (sampled) betweenness of EdgeBetweenness.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static junitTesting.TestGraphs.getDistancesFrom;
+import static junitTesting.TestGraphs.getCliques;
+import static junitTesting.TestGraphs.getPlantedPartition;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import capston.BetweennessSampling;
+import capston.CommunityDetection;
+import capston.CsrGraph;
+import capston.Edge;
+import capston.EdgeBetweenness;
+import capston.Graph;
+
+public class EdgeBetweennessTesting 
+{
+	@Test
+	//testing whether both entries of an edge share its key and id, and whether the betweenness kept per
+	//edge id is the betweenness counted pair by pair
+	public void testEdgeIdBetweenness()
+	{
+		assertEquals(Edge.getKey(9, 2), new Edge(2, 9).getKey());
+		assertEquals(new Edge(2, 9), new Edge(9, 2));
+		assertEquals(new Edge(2, 9).hashCode(), new Edge(9, 2).hashCode());
+		assertTrue(new Edge(1, 10).getKey() != new Edge(2, 9).getKey());
+		
+		CsrGraph network = getPlantedPartition(3, 20, 3L).toUndirected();
+		int n = network.getNumVertices();
+		assertEquals(network.getNumEdges(), network.getNumEdgeIds());
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < network.getDegree(v); i++)
+			{
+				int w = network.getNeighbor(v, i);
+				int slot = network.getNeighborSlot(v) + i;
+				int id = network.getEdgeId(slot);
+				int reverseSlot = network.getNeighborSlot(w);
+				while(network.getNeighborAtSlot(reverseSlot) != v)
+					reverseSlot++;
+				assertEquals(id, network.getEdgeId(reverseSlot));
+				assertEquals(Math.min(slot, reverseSlot), network.getEdgeSlot(id));
+			}
+		}
+		
+		//distances and numbers of shortest paths between all the pairs
+		int[][] distance = new int[n][];
+		double[][] paths = new double[n][n];
+		for(int s = 0; s < n; s++)
+		{
+			distance[s] = getDistancesFrom(network, s);
+			paths[s][s] = 1.0;
+			Integer[] byDistance = new Integer[n];
+			for(int v = 0; v < n; v++)
+				byDistance[v] = v;
+			final int[] from = distance[s];
+			Arrays.sort(byDistance, (a, b) -> Integer.compare(from[a], from[b]));
+			for(int v : byDistance)
+			{
+				for(int i = 0; i < network.getDegree(v); i++)
+				{
+					int w = network.getNeighbor(v, i);
+					if(from[v] >= 0 && from[w] == from[v] + 1) paths[s][w] += paths[s][v];
+				}
+			}
+		}
+		
+		EdgeBetweenness edgeBetweenness = new EdgeBetweenness(network, 2);
+		edgeBetweenness.compute();
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < network.getDegree(v); i++)
+			{
+				int w = network.getNeighbor(v, i);
+				double expected = 0.0;
+				for(int s = 0; s < n; s++)
+				{
+					for(int t = s + 1; t < n; t++)
+					{
+						if(distance[s][t] < 0) continue;
+						if(distance[s][v] >= 0 && distance[w][t] >= 0 && distance[s][v] + 1 + distance[w][t] == distance[s][t])
+							expected += paths[s][v] * paths[w][t] / paths[s][t];
+						if(distance[s][w] >= 0 && distance[v][t] >= 0 && distance[s][w] + 1 + distance[v][t] == distance[s][t])
+							expected += paths[s][w] * paths[v][t] / paths[s][t];
+					}
+				}
+				assertEquals(expected, edgeBetweenness.getBetweenness(v, i), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	//testing whether the sampled betweenness picks the only bridge between two cliques (more than 256
+	//users, a smaller network gets the exact betweenness)
+	public void testSampledBetweenness()
+	{
+		int[][] cliques = new int[2][140];
+		for(int i = 0; i < 140; i++)
+		{
+			cliques[0][i] = i + 1;
+			cliques[1][i] = i + 141;
+		}
+		Graph network = getCliques(cliques, new int[][] {{140, 141}});
+		
+		for(int numThreads = 1; numThreads <= 2; numThreads++)
+		{
+			EdgeBetweenness sampled = new EdgeBetweenness(CsrGraph.fromGraph(network), numThreads, new BetweennessSampling(0.05));
+			List<Edge> maxBetweennessEdge = sampled.getMaxBetweennessEdge();
+			assertEquals(1, maxBetweennessEdge.size());
+			assertEquals(Edge.getKey(140, 141), maxBetweennessEdge.get(0).getKey());
+			assertTrue(sampled.isSeparated());
+			assertTrue(sampled.getNumSamples() > 0);
+		}
+		
+		CommunityDetection cd = new CommunityDetection(network, 100, 1, false, new BetweennessSampling(0.05));
+		assertEquals(2, cd.getSizeOfSubCommunites());
+		assertEquals(140, cd.getSubCommunityViews().get(0).getNumVertices());
+	}
+}
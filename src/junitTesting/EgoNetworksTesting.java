@@ -0,0 +1,93 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the ego network extraction of EgoNetworks.
+ */
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.EgoNetworks;
+import capston.GraphLoader;
+
+public class EgoNetworksTesting 
+{
+	@Test
+	//testing whether the ego networks of facebook_2000 are the ones in data/ego_answers (taken from the
+	//whole UCSD network, so only the users of facebook_2000 are compared)
+	public void testEgoNetworks() throws IOException
+	{
+		int numUsers = 2000;
+		CsrGraph network = GraphLoader.loadCsrGraph("data/facebook_2000.txt");
+		EgoNetworks egoNetworks = new EgoNetworks(network, 2, false);
+		
+		int[] centers = new int[10];
+		for(int i = 0; i < centers.length; i++)
+			centers[i] = i;
+		List<CsrGraph> egoNets = egoNetworks.extract(centers, 1);
+		
+		for(int i = 0; i < centers.length; i++)
+		{
+			StringBuilder answer = new StringBuilder();
+			for(String line : Files.readAllLines(Paths.get("data/ego_answers/ego_" + i + ".txt")))
+			{
+				String[] adjacency = line.split(":", 2);
+				if(Integer.parseInt(adjacency[0].trim()) >= numUsers) continue;
+				answer.append(adjacency[0].trim()).append(':');
+				String separator = " ";
+				for(String user : adjacency[1].split(","))
+				{
+					if(user.trim().isEmpty() || Integer.parseInt(user.trim()) >= numUsers) continue;
+					answer.append(separator).append(user.trim());
+					separator = ", ";
+				}
+				answer.append('\n');
+			}
+			assertEquals(answer.toString(), EgoNetworks.format(egoNets.get(i)));
+		}
+	}
+
+	@Test
+	//testing whether a batch of ego networks split across threads (more than 64 centers) and the ones
+	//written to a file are the ego networks extracted one at a time
+	public void testEgoNetworksInParallel() throws IOException
+	{
+		CsrGraph network = GraphLoader.loadCsrGraph("data/facebook_2000.txt");
+		EgoNetworks egoNetworks = new EgoNetworks(network, 2);
+		
+		int[] centers = new int[200];
+		for(int i = 0; i < centers.length; i++)
+			centers[i] = network.getVertexId(i * 7);
+		
+		for(int radius = 1; radius <= 2; radius++)
+		{
+			List<CsrGraph> egoNets = egoNetworks.extract(centers, radius);
+			StringBuilder expected = new StringBuilder();
+			for(int i = 0; i < centers.length; i++)
+			{
+				String egoNet = EgoNetworks.format(egoNetworks.extract(centers[i], radius));
+				assertEquals(egoNet, EgoNetworks.format(egoNets.get(i)));
+				expected.append("# ").append(centers[i]).append('\n').append(egoNet);
+			}
+			
+			Path file = Files.createTempFile("ego", ".txt");
+			try
+			{
+				egoNetworks.write(centers, radius, file.toString());
+				assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+			}
+			finally
+			{
+				Files.delete(file);
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the edge list parser of GraphLoader.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import capston.EdgeList;
+import capston.GraphLoader;
+
+public class GraphLoaderTesting 
+{
+	@Test
+	//testing whether the edge list parser reads comments, CRLF, commas, weights, negative ids and a
+	//last line without a new line, and rejects an id out of int range
+	public void testLoadEdgeList() throws IOException
+	{
+		EdgeList edges = loadEdgeList("# comment\n% comment 1 2\n1 2\r\n-3\t4\n5,6 0.5\n\n-2147483648 2147483647\n7 8");
+		assertEquals(5, edges.size());
+		assertTrue(Arrays.equals(new int[] {1, -3, 5, Integer.MIN_VALUE, 7}, Arrays.copyOf(edges.getFrom(), edges.size())));
+		assertTrue(Arrays.equals(new int[] {2, 4, 6, Integer.MAX_VALUE, 8}, Arrays.copyOf(edges.getTo(), edges.size())));
+		
+		try
+		{
+			loadEdgeList("1 2\n2147483648 1\n");
+			fail("an id out of int range must not be loaded");
+		}
+		catch(IllegalArgumentException e)
+		{
+			assertTrue(e.getMessage().contains("line 2"));
+		}
+	}
+
+	//helper method to load an edge list written to a temporary file
+	private static EdgeList loadEdgeList(String text) throws IOException
+	{
+		Path file = Files.createTempFile("edges", ".txt");
+		try
+		{
+			Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+			return GraphLoader.loadEdgeList(file.toString());
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+}
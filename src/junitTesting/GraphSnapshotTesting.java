@@ -0,0 +1,115 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the binary snapshots (GraphSnapshot, MappedCsrGraph).
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.EgoNetworks;
+import capston.GraphLoader;
+import capston.GraphSnapshot;
+import capston.MappedCsrGraph;
+
+public class GraphSnapshotTesting 
+{
+	@Test
+	//testing whether a snapshot gives back the CSR graph of the edge list and notices a changed or cut file
+	public void testGraphSnapshot() throws IOException
+	{
+		Path directory = Files.createTempDirectory("snapshot");
+		Path edgeList = directory.resolve("facebook_1000.txt");
+		Files.copy(Paths.get("data/facebook_1000.txt"), edgeList);
+		try
+		{
+			CsrGraph expected = GraphLoader.loadCsrGraph(edgeList.toString());
+			String snapshotFile = GraphSnapshot.convert(edgeList.toString());
+			assertEquals(directory.resolve("facebook_1000.csr").toString(), snapshotFile);
+			
+			MappedCsrGraph mapped = GraphSnapshot.open(snapshotFile);
+			assertTrue(mapped.verify());
+			assertEquals(expected.getNumVertices(), mapped.getNumVertices());
+			assertEquals(expected.getNumEdges(), mapped.getNumEdges());
+			assertEquals(EgoNetworks.format(expected), EgoNetworks.format(mapped.toCsrGraph()));
+			assertEquals(expected.getIndex(687), mapped.getIndex(687));
+			assertEquals(expected.getNumVertices(), GraphSnapshot.load(edgeList.toString()).getNumVertices());
+			
+			//a flipped byte of the payload fails the checksum, a cut file is not opened
+			byte[] bytes = Files.readAllBytes(Paths.get(snapshotFile));
+			bytes[bytes.length - 1] ^= 1;
+			Files.write(Paths.get(snapshotFile), bytes);
+			assertTrue(!GraphSnapshot.open(snapshotFile).verify());
+			Files.write(Paths.get(snapshotFile), Arrays.copyOf(bytes, bytes.length - 4));
+			try
+			{
+				GraphSnapshot.open(snapshotFile);
+				fail("a truncated snapshot must not be opened");
+			}
+			catch(IOException e)
+			{
+				assertTrue(e.getMessage().contains("truncated"));
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(directory.resolve("facebook_1000.csr"));
+			Files.delete(edgeList);
+			Files.delete(directory);
+		}
+	}
+	
+	@Test
+	//testing whether a rewrite leaves a graph mapped before valid, and whether load rewrites a snapshot
+	//with a zeroed header (a writer which died) or a flipped byte
+	public void testGraphSnapshotRewrite() throws IOException
+	{
+		Path directory = Files.createTempDirectory("snapshot");
+		Path edgeList = directory.resolve("facebook_1000.txt");
+		Files.copy(Paths.get("data/facebook_1000.txt"), edgeList);
+		Path snapshotFile = directory.resolve("facebook_1000.csr");
+		try
+		{
+			String expected = EgoNetworks.format(GraphLoader.loadCsrGraph(edgeList.toString()));
+			MappedCsrGraph mapped = GraphSnapshot.open(GraphSnapshot.convert(edgeList.toString()));
+			GraphSnapshot.convert(edgeList.toString());
+			assertTrue(mapped.verify());
+			assertEquals(expected, EgoNetworks.format(mapped.toCsrGraph()));
+			
+			byte[] bytes = Files.readAllBytes(snapshotFile);
+			Arrays.fill(bytes, 0, GraphSnapshot.HEADER_SIZE, (byte) 0);
+			Files.write(snapshotFile, bytes);
+			MappedCsrGraph loaded = GraphSnapshot.load(edgeList.toString());
+			assertTrue(loaded.verify());
+			assertEquals(expected, EgoNetworks.format(loaded.toCsrGraph()));
+			
+			bytes = Files.readAllBytes(snapshotFile);
+			bytes[bytes.length - 1] ^= 1;
+			Files.write(snapshotFile, bytes);
+			assertTrue(!GraphSnapshot.load(edgeList.toString(), false).verify());
+			assertTrue(GraphSnapshot.load(edgeList.toString()).verify());
+			
+			//no temp file is left behind
+			try(Stream<Path> files = Files.list(directory))
+			{
+				assertEquals(2, files.count());
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(snapshotFile);
+			Files.delete(edgeList);
+			Files.delete(directory);
+		}
+	}
+}
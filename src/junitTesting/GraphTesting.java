@@ -0,0 +1,101 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the BFS representation and the Girvan-Newman credits of Graph.
+ */
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.Edge;
+import capston.Graph;
+import capston.ShortestPathDag;
+
+public class GraphTesting
+{
+	//1 - {2, 3}, 4 is reached through 2 and 3, 5 through 3 only and 6 through 4 (2 paths) and 5 (1 path)
+	private static final int[][] EDGES = {{1, 2}, {1, 3}, {2, 4}, {3, 4}, {3, 5}, {4, 6}, {5, 6}};
+
+	@Test
+	//testing whether the credit of a node goes to its parents by their numbers of shortest paths from the
+	//root (sigma), not in equal parts, and whether setting the credits again gives the same credits
+	public void testBfsRepresentationCredits()
+	{
+		Graph network = getDiamonds();
+		Graph bfsGraph = network.getbfsRepresentation(1);
+
+		int[][] sigma = {{1, 1}, {2, 1}, {3, 1}, {4, 2}, {5, 1}, {6, 3}};
+		for(int[] label : sigma)
+			assertEquals(label[1], bfsGraph.getVertexLevelMap().get(label[0]).getLevel());
+
+		for(int round = 0; round < 2; round++)
+		{
+			assertCredit(bfsGraph, 6, 1.0);
+			assertCredit(bfsGraph, 4, 5.0 / 3.0);
+			assertCredit(bfsGraph, 5, 4.0 / 3.0);
+			assertCredit(bfsGraph, 2, 11.0 / 6.0);
+			assertCredit(bfsGraph, 3, 19.0 / 6.0);
+			assertCredit(bfsGraph, 1, 6.0);
+
+			//6 has 2 of its 3 shortest paths through 4, with equal parts both edges would get 0.5
+			assertEquals(2.0 / 3.0, getEdgeCredit(bfsGraph, 4, 6), 1e-12);
+			assertEquals(1.0 / 3.0, getEdgeCredit(bfsGraph, 5, 6), 1e-12);
+			assertEquals(5.0 / 6.0, getEdgeCredit(bfsGraph, 2, 4), 1e-12);
+			assertEquals(5.0 / 6.0, getEdgeCredit(bfsGraph, 3, 4), 1e-12);
+			assertEquals(4.0 / 3.0, getEdgeCredit(bfsGraph, 3, 5), 1e-12);
+			assertEquals(11.0 / 6.0, getEdgeCredit(bfsGraph, 1, 2), 1e-12);
+			assertEquals(19.0 / 6.0, getEdgeCredit(bfsGraph, 1, 3), 1e-12);
+
+			network.setCredit(bfsGraph, 1);
+		}
+	}
+
+	@Test
+	//testing whether calling credits() twice for one root gives the same credits
+	public void testShortestPathDagCredits()
+	{
+		CsrGraph network = CsrGraph.fromGraph(getDiamonds());
+		ShortestPathDag dag = new ShortestPathDag(network);
+		dag.compute(network.getIndex(1));
+
+		dag.credits();
+		double[] credits = new double[network.getNumVertices()];
+		for(int v = 0; v < credits.length; v++)
+			credits[v] = dag.getCredit(v);
+		dag.credits();
+		for(int v = 0; v < credits.length; v++)
+			assertEquals(credits[v], dag.getCredit(v), 0.0);
+		assertEquals(6.0, dag.getCredit(network.getIndex(1)), 1e-12);
+	}
+
+	//helper method to build the undirected graph of EDGES
+	private static Graph getDiamonds()
+	{
+		Graph network = new Graph();
+		for(int user = 1; user <= 6; user++)
+			network.addVertex(user);
+		for(int[] edge : EDGES)
+		{
+			network.addEdge(edge[0], edge[1]);
+			network.addEdge(edge[1], edge[0]);
+		}
+		return network;
+	}
+
+	//helper method to check the credit of the user in the BFS representation
+	private static void assertCredit(Graph bfsGraph, int user, double credit)
+	{
+		assertEquals(credit, bfsGraph.getVertexLevelMap().get(user).getCredit(), 1e-12);
+	}
+
+	//helper method to get the credit of the DAG edge "from --> to" of the BFS representation
+	private static double getEdgeCredit(Graph bfsGraph, int from, int to)
+	{
+		for(Edge edge : bfsGraph.getAdjListsMap().get(from))
+		{
+			if(edge.getEndNode() == to) return edge.getCredit();
+		}
+		throw new AssertionError("no DAG edge " + from + " --> " + to);
+	}
+}
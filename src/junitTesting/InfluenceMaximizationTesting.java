@@ -0,0 +1,68 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the seed selection of InfluenceMaximization and
+ * FindingMinNumUserToReachAPost.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.FindingMinNumUserToReachAPost;
+import capston.GraphLoader;
+import capston.InfluenceMaximization;
+import capston.InfluenceMaximization.IndependentCascadeModel;
+import capston.InfluenceMaximization.ThresholdModel;
+
+public class InfluenceMaximizationTesting 
+{
+	@Test
+	//testing whether the users picked to post the message make everyone see it (with the 10% cascade)
+	public void testFindMinNumOfUserToReachAMessage()
+	{
+		String[] files = {"data/facebook_1000.txt", "data/facebook_2000.txt"};
+		int[] numPicks = {1, 13};
+		for(int f = 0; f < files.length; f++)
+		{
+			CsrGraph network = GraphLoader.loadCsrGraph(files[f]);
+			List<Integer> users = FindingMinNumUserToReachAPost.findMinNumOfUserToReachAMessage(network);
+			assertEquals(numPicks[f], users.size());
+			
+			int[] seeds = new int[users.size()];
+			for(int i = 0; i < seeds.length; i++)
+				seeds[i] = network.getIndex(users.get(i));
+			ThresholdModel model = new ThresholdModel(network, FindingMinNumUserToReachAPost.SHARE_PERCENTAGE / 100.0);
+			assertEquals(network.getNumVertices(), model.getSpread(seeds, seeds.length), 0.0);
+		}
+	}
+
+	@Test
+	//testing whether CELF selects the seeds of the naive greedy with the independent cascade (submodular)
+	//and whether the threshold model (not submodular) falls back to the naive greedy
+	public void testInfluenceMaximization() throws IOException
+	{
+		CsrGraph network = GraphLoader.loadCsrGraph("data/facebook_1000.txt");
+		int k = 4;
+		
+		try(IndependentCascadeModel cascade = new IndependentCascadeModel(network, 0.1, 50, 2, 1L))
+		{
+			InfluenceMaximization celf = new InfluenceMaximization(cascade);
+			List<Integer> seeds = celf.getSeeds(k);
+			double spread = celf.getSpread();
+			int evaluations = celf.getNumEvaluations();
+			
+			assertEquals(celf.getSeedsGreedy(k), seeds);
+			assertEquals(celf.getSpread(), spread, 1e-9);
+			assertTrue(evaluations < celf.getNumEvaluations());
+		}
+		
+		InfluenceMaximization threshold = new InfluenceMaximization(new ThresholdModel(network, 0.1));
+		List<Integer> seeds = threshold.getSeeds(k);
+		assertEquals(threshold.getSeedsGreedy(k), seeds);
+	}
+}
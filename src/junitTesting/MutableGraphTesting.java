@@ -0,0 +1,67 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the edge lists of MutableGraph.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.Edge;
+import capston.GraphLoader;
+import capston.MutableGraph;
+
+public class MutableGraphTesting 
+{
+	@Test
+	//testing whether the edges of a MutableGraph stay the edges of a set of edge keys through random
+	//removals and additions (swap-remove of the lists and backward shift of the hash table)
+	public void testMutableGraph()
+	{
+		CsrGraph network = GraphLoader.loadCsrGraph("data/facebook_1000.txt");
+		MutableGraph mutableGraph = MutableGraph.fromIntGraph(network);
+		int n = network.getNumVertices();
+		assertEquals(network.toUndirected().getNumEdges(), mutableGraph.getNumEdges());
+		
+		Set<Long> edgeKeys = new HashSet<>();
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < network.getDegree(v); i++)
+				edgeKeys.add(Edge.getKey(v, network.getNeighbor(v, i)));
+		}
+		
+		Random random = new Random(11L);
+		for(int step = 0; step < 20000; step++)
+		{
+			int v = random.nextInt(n);
+			int w = random.nextInt(n);
+			if(v == w) continue;
+			//remove an edge of v most of the time, so the lists get short
+			if(mutableGraph.getDegree(v) > 0 && random.nextInt(3) > 0)
+				w = mutableGraph.getNeighbor(v, random.nextInt(mutableGraph.getDegree(v)));
+			
+			if(random.nextBoolean()) assertEquals(edgeKeys.remove(Edge.getKey(v, w)), mutableGraph.removeEdge(v, w));
+			else assertEquals(edgeKeys.add(Edge.getKey(v, w)), mutableGraph.addEdge(v, w));
+			assertEquals(edgeKeys.contains(Edge.getKey(v, w)), mutableGraph.hasEdge(w, v));
+		}
+		
+		assertEquals(edgeKeys.size(), mutableGraph.getNumEdges());
+		int numEntries = 0;
+		for(int v = 0; v < n; v++)
+		{
+			for(int i = 0; i < mutableGraph.getDegree(v); i++)
+			{
+				assertTrue(edgeKeys.contains(Edge.getKey(v, mutableGraph.getNeighbor(v, i))));
+				numEntries++;
+			}
+		}
+		assertEquals(2 * edgeKeys.size(), numEntries);
+		assertEquals(edgeKeys.size(), mutableGraph.toCsrGraph().getNumEdges());
+	}
+}
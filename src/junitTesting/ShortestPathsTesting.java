@@ -0,0 +1,101 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the distance queries of ShortestPaths and Graph.
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static junitTesting.TestGraphs.getDistancesFrom;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.Edge;
+import capston.Graph;
+import capston.GraphLoader;
+import capston.ShortestPaths;
+
+public class ShortestPathsTesting 
+{
+	@Test
+	//testing whether the bidirectional BFS finds the distances and shortest paths of a plain BFS
+	//(undirected facebook_1000 and a directed graph of data/scc), one pair and in batches
+	public void testShortestPaths()
+	{
+		for(String file : new String[] {"data/facebook_1000.txt", "data/scc/test_9.txt"})
+		{
+			CsrGraph network = GraphLoader.loadCsrGraph(file);
+			ShortestPaths shortestPaths = new ShortestPaths(network);
+			int n = network.getNumVertices();
+			
+			int[] startIds = new int[20 * n];
+			int[] goalIds = new int[20 * n];
+			int[] expected = new int[20 * n];
+			for(int k = 0; k < 20; k++)
+			{
+				int start = k * 37 % n;
+				int[] distances = getDistancesFrom(network, start);
+				for(int goal = 0; goal < n; goal++)
+				{
+					int pair = k * n + goal;
+					startIds[pair] = network.getVertexId(start);
+					goalIds[pair] = network.getVertexId(goal);
+					expected[pair] = distances[goal];
+					assertEquals(distances[goal], shortestPaths.getDistance(startIds[pair], goalIds[pair]));
+					
+					List<Integer> path = shortestPaths.getPath(startIds[pair], goalIds[pair]);
+					if(distances[goal] < 0)
+					{
+						assertEquals(null, path);
+						continue;
+					}
+					assertEquals(distances[goal] + 1, path.size());
+					assertEquals(startIds[pair], (int) path.get(0));
+					assertEquals(goalIds[pair], (int) path.get(path.size() - 1));
+					for(int i = 1; i < path.size(); i++)
+						assertTrue(hasEdge(network, path.get(i - 1), path.get(i)));
+				}
+			}
+			assertTrue(Arrays.equals(expected, shortestPaths.getDistances(startIds, goalIds, 1)));
+			assertTrue(Arrays.equals(expected, shortestPaths.getDistances(startIds, goalIds, 2)));
+		}
+		
+		Graph graph = new Graph();
+		GraphLoader.loadGraph(graph, "data/main_test.txt");
+		assertEquals(Arrays.asList(1, 2, 4, 7), graph.bfs(1, 7));
+		assertEquals(3, graph.distanceBetweenTwoNodes(1, 7));
+	}
+
+	//helper method to check the edge "from --> to" of the users
+	private static boolean hasEdge(CsrGraph network, int fromId, int toId)
+	{
+		int v = network.getIndex(fromId);
+		for(int i = 0; i < network.getDegree(v); i++)
+		{
+			if(network.getVertexId(network.getNeighbor(v, i)) == toId) return true;
+		}
+		return false;
+	}
+	
+	@Test
+	//testing whether the distance queries of a Graph see an edge removed through getAdjListsMap(), while an
+	//engine taken before keeps the graph as it was
+	public void testShortestPathsAfterRemoval()
+	{
+		Graph graph = new Graph();
+		GraphLoader.loadGraph(graph, "data/main_test.txt");
+		ShortestPaths before = graph.getShortestPaths();
+		assertEquals(3, graph.distanceBetweenTwoNodes(1, 7));
+		
+		//main_test.txt has the edge 4 - 5 both ways, then 5 is reached through 6
+		graph.getAdjListsMap().get(4).remove(new Edge(4, 5));
+		graph.getAdjListsMap().get(5).remove(new Edge(5, 4));
+		assertEquals(1, before.getDistance(4, 5));
+		assertEquals(2, graph.distanceBetweenTwoNodes(4, 5));
+		assertEquals(Arrays.asList(4, 6, 5), graph.bfs(4, 5));
+		assertEquals(2, graph.getShortestPaths().getDistance(4, 5));
+	}
+}
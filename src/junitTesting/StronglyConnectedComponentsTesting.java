@@ -0,0 +1,89 @@
+package junitTesting;
+
+/**
+ * This class use JUnit to test the strongly connected components (Tarjan and forward-backward-trim).
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import capston.CsrGraph;
+import capston.DirectedCsrGraph;
+import capston.Graph;
+import capston.StronglyConnectedComponents;
+
+public class StronglyConnectedComponentsTesting 
+{
+	@Test
+	//testing whether the strongly connected components are the ones in data/scc_answers
+	public void testStronglyConnectedComponents() throws IOException
+	{
+		for(int i = 1; i <= 10; i++)
+		{
+			Set<Set<Integer>> answer = new HashSet<>();
+			for(String line : Files.readAllLines(Paths.get("data/scc_answers/scc_" + i + ".txt")))
+			{
+				if(line.trim().isEmpty()) continue;
+				Set<Integer> component = new HashSet<>();
+				for(String user : line.trim().split("\\s+"))
+					component.add(Integer.parseInt(user));
+				answer.add(component);
+			}
+			
+			DirectedCsrGraph network = DirectedCsrGraph.fromFile("data/scc/test_" + i + ".txt");
+			for(int numThreads = 1; numThreads <= 2; numThreads++)
+			{
+				Set<Set<Integer>> components = new HashSet<>();
+				for(int[] members : new StronglyConnectedComponents(network, numThreads).getComponentMembers())
+				{
+					Set<Integer> component = new HashSet<>();
+					for(int user : members)
+						component.add(user);
+					components.add(component);
+				}
+				assertEquals(answer, components);
+			}
+		}
+	}
+
+	@Test
+	//testing whether the trim and forward-backward phases (more than 4096 users) find the components of Tarjan's algorithm
+	public void testStronglyConnectedComponentsInParallel()
+	{
+		//a cycle of 3000 users with chords, 1000 users only followed from the cycle and 400 triangles
+		Graph network = new Graph();
+		for(int v = 0; v < 5200; v++)
+			network.addVertex(v);
+		for(int v = 0; v < 3000; v++)
+		{
+			network.addEdge(v, (v + 1) % 3000);
+			if(v % 7 == 0) network.addEdge(v, (v * 31 + 11) % 3000);
+		}
+		for(int v = 3000; v < 4000; v++)
+			network.addEdge((v * 17) % 3000, v);
+		for(int v = 4000; v < 5200; v += 3)
+		{
+			network.addEdge(v, v + 1);
+			network.addEdge(v + 1, v + 2);
+			network.addEdge(v + 2, v);
+		}
+		
+		DirectedCsrGraph directed = DirectedCsrGraph.fromIntGraph(CsrGraph.fromGraph(network));
+		StronglyConnectedComponents tarjan = new StronglyConnectedComponents(directed, 1);
+		StronglyConnectedComponents parallel = new StronglyConnectedComponents(directed, 2);
+		
+		assertEquals(1 + 1000 + 400, tarjan.getNumComponents());
+		assertEquals(3000, tarjan.getSizeOfLargestComponent());
+		assertTrue(Arrays.equals(tarjan.getComponents(), parallel.getComponents()));
+		assertTrue(parallel.getNumTrimmed() > 0);
+		assertEquals(3000, parallel.getNumForwardBackward());
+	}
+}
@@ -0,0 +1,92 @@
+package junitTesting;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import capston.CsrGraph;
+import capston.Graph;
+
+/**
+ * Graphs and plain BFS distances shared by the test classes
+ */
+class TestGraphs 
+{
+	//helper method to get the distance of every vertex index from the start along the edges, -1 if not reached
+	static int[] getDistancesFrom(CsrGraph network, int start)
+	{
+		int[] distances = new int[network.getNumVertices()];
+		Arrays.fill(distances, -1);
+		int[] queue = new int[network.getNumVertices()];
+		distances[start] = 0;
+		queue[0] = start;
+		int tail = 1;
+		for(int head = 0; head < tail; head++)
+		{
+			int v = queue[head];
+			for(int i = 0; i < network.getDegree(v); i++)
+			{
+				int w = network.getNeighbor(v, i);
+				if(distances[w] < 0)
+				{
+					distances[w] = distances[v] + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+		return distances;
+	}
+
+	//helper method to build a graph of cliques joined by the bridges
+	static Graph getCliques(int[][] cliques, int[][] bridges)
+	{
+		Graph network = new Graph();
+		for(int[] clique : cliques)
+		{
+			for(int user : clique)
+				network.addVertex(user);
+			for(int i = 0; i < clique.length; i++)
+			{
+				for(int j = i + 1; j < clique.length; j++)
+				{
+					network.addEdge(clique[i], clique[j]);
+					network.addEdge(clique[j], clique[i]);
+				}
+			}
+		}
+		for(int[] bridge : bridges)
+		{
+			network.addEdge(bridge[0], bridge[1]);
+			network.addEdge(bridge[1], bridge[0]);
+		}
+		return network;
+	}
+
+	//helper method to build blocks of users with friends inside the block (probability 0.1) and about
+	//one friend per user in another block
+	static CsrGraph getPlantedPartition(int numBlocks, int blockSize, long seed)
+	{
+		Random random = new Random(seed);
+		Graph network = new Graph();
+		int n = numBlocks * blockSize;
+		for(int v = 0; v < n; v++)
+			network.addVertex(v);
+		for(int v = 0; v < n; v++)
+		{
+			for(int w = v + 1; w < (v / blockSize + 1) * blockSize; w++)
+			{
+				if(random.nextDouble() < 0.1)
+				{
+					network.addEdge(v, w);
+					network.addEdge(w, v);
+				}
+			}
+			int w = random.nextInt(n);
+			if(w / blockSize != v / blockSize)
+			{
+				network.addEdge(v, w);
+				network.addEdge(w, v);
+			}
+		}
+		return CsrGraph.fromGraph(network);
+	}
+}
@@ -12,7 +12,11 @@ public class TestRunner
 {
 	public static void main(String[] args)
 	{
-		Result result = JUnitCore.runClasses(CommunityDetectiionTesting.class);
+		Result result = JUnitCore.runClasses(CommunityDetectiionTesting.class, GraphLoaderTesting.class,
+				GraphSnapshotTesting.class, ShortestPathsTesting.class, DistanceOracleTesting.class,
+				EdgeBetweennessTesting.class, MutableGraphTesting.class, InfluenceMaximizationTesting.class,
+				StronglyConnectedComponentsTesting.class, EgoNetworksTesting.class, CoreDecompositionTesting.class,
+				DendrogramTesting.class, CentralityTesting.class, GraphTesting.class);
 		
 		for(Failure failure : result.getFailures())
 			System.out.println(failure);